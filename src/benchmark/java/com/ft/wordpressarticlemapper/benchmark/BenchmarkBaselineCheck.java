@@ -0,0 +1,81 @@
+package com.ft.wordpressarticlemapper.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file against a baseline taken on the same machine, and exits with a non-zero status if
+ * any benchmark has got slower than the baseline by more than the tolerance, so that it can gate a build.
+ * <p>
+ * Usage: <code>BenchmarkBaselineCheck baseline.json result.json [tolerance]</code>, where the tolerance is a fraction
+ * of the baseline score and defaults to 0.1.
+ */
+public class BenchmarkBaselineCheck {
+
+    private static final double DEFAULT_TOLERANCE = 0.1;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkBaselineCheck baseline.json result.json [tolerance]");
+            System.exit(2);
+        }
+
+        double tolerance = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> results = read(new File(args[1]));
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> result : results.entrySet()) {
+            JsonNode expected = baseline.get(result.getKey());
+            if (expected == null) {
+                System.out.printf("NEW        %s%n", result.getKey());
+                continue;
+            }
+
+            double baselineScore = expected.path("primaryMetric").path("score").asDouble();
+            double score = result.getValue().path("primaryMetric").path("score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(result.getValue().path("mode").asText());
+            double change = (score - baselineScore) / baselineScore;
+            boolean regressed = higherIsBetter ? (change < -tolerance) : (change > tolerance);
+
+            System.out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSED" : "OK",
+                    result.getKey(), baselineScore, score,
+                    result.getValue().path("primaryMetric").path("scoreUnit").asText(), change * 100);
+            if (regressed) {
+                regressions.add(result.getKey());
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%: %s%n", regressions.size(), tolerance * 100, regressions);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> benchmarks = new LinkedHashMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(file)) {
+            benchmarks.put(key(benchmark), benchmark);
+        }
+        return benchmarks;
+    }
+
+    private static String key(JsonNode benchmark) {
+        Map<String, String> params = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = benchmark.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> param = fields.next();
+            params.put(param.getKey(), param.getValue().asText());
+        }
+        return benchmark.path("benchmark").asText() + params;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.wordpressarticlemapper.model.WordPressBlogPostContent;
+import com.ft.wordpressarticlemapper.transformer.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the body of a publish message, by way of a map and a String as it used to be and streamed by
+ * {@link MessageBodyWriter}. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per
+ * message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageBodyBenchmark {
+
+    private static final String CONTENT_URI = "http://wordpress-article-mapper.svc.ft.com/content/";
+    private static final String LAST_MODIFIED = "2016-11-04T13:19:24.594Z";
+
+    @Param({"SMALL_POST", "IMAGE_HEAVY", "LIVE_BLOG"})
+    private BenchmarkCorpus corpus;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MessageBodyWriter writer = new MessageBodyWriter(objectMapper);
+    private WordPressBlogPostContent content;
+    private String contentUri;
+
+    @Setup
+    public void setUp() {
+        UUID uuid = UUID.randomUUID();
+        content = WordPressBlogPostContent.builder()
+                .withBody(corpus.body("http://localhost"))
+                .withUuid(uuid)
+                .withTitle("A benchmark post")
+                .withPublishReference("tid_benchmark")
+                .withLastModified(new Date())
+                .build();
+        contentUri = CONTENT_URI + uuid;
+    }
+
+    @Benchmark
+    public String viaMap() throws Exception {
+        Map<String, Object> messageBody = new LinkedHashMap<>();
+        messageBody.put("contentUri", contentUri);
+        messageBody.put("lastModified", LAST_MODIFIED);
+        messageBody.put("payload", content);
+        return objectMapper.writeValueAsString(messageBody);
+    }
+
+    @Benchmark
+    public String streamed() throws Exception {
+        return writer.write(contentUri, LAST_MODIFIED, content);
+    }
+}
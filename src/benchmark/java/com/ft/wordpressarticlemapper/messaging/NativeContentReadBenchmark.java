@@ -0,0 +1,83 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
+import com.ft.wordpressarticlemapper.transformer.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the WordPress content of a message, bound in full as it used to be and selectively by
+ * {@link NativeWordPressContentReader}, for posts with increasing numbers of comments. Run with {@code -prof gc} and
+ * compare {@code gc.alloc.rate.norm}, the bytes allocated per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NativeContentReadBenchmark {
+
+    @Param({"0", "100", "5000"})
+    private int comments;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NativeWordPressContentReader reader = new NativeWordPressContentReader(objectMapper);
+    private String message;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectNode content = objectMapper.createObjectNode();
+        content.put("status", "ok");
+        content.put("apiUrl", "http://www.ft.com/fastft/api/get_post/?id=582272");
+        content.put("lastModified", "2016-11-04T13:19:24.594Z");
+
+        ObjectNode post = content.putObject("post");
+        post.put("id", 582272);
+        post.put("type", "post");
+        post.put("uuid", UUID.randomUUID().toString());
+        post.put("url", "http://www.ft.com/fastft/2016/11/04/a-benchmark-post/");
+        post.put("title", "A benchmark post");
+        post.put("content", BenchmarkCorpus.SMALL_POST.body("http://localhost"));
+        post.put("date_gmt", "2016-11-04 13:19:24");
+        post.put("modified_gmt", "2016-11-04 13:19:24");
+        post.put("comment_status", "open");
+        post.putArray("categories").addObject().put("id", 1).put("title", "Markets");
+        post.putArray("tags").addObject().put("id", 2).put("title", "Telecoms");
+
+        ArrayNode commentArray = post.putArray("comments");
+        for (int i = 0; i < comments; i++) {
+            commentArray.addObject()
+                    .put("id", i)
+                    .put("name", "Reader " + i)
+                    .put("date", "2016-11-04 13:19:24")
+                    .put("content", "<p>A reader's comment on the post, of a typical length for a comment.</p>");
+        }
+        message = objectMapper.writeValueAsString(content);
+    }
+
+    @Benchmark
+    public NativeWordPressContent fullBind() throws Exception {
+        return objectMapper.reader(NativeWordPressContent.class).readValue(message);
+    }
+
+    @Benchmark
+    public NativeWordPressContent selective() throws Exception {
+        return reader.read(message);
+    }
+}
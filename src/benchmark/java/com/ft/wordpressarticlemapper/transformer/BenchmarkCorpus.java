@@ -0,0 +1,44 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Representative WordPress bodies, as they arrive from the WordPress API, for the body-processing benchmarks.
+ * <p>
+ * Shortened links in the bodies point at the link resolution stub, whose base URL replaces <code>{{stub}}</code>.
+ * The live blog repeats one entry many times, with <code>{{index}}</code> numbering the entries.
+ */
+public enum BenchmarkCorpus {
+    SMALL_POST("small-post.html", 1),
+    IMAGE_HEAVY("image-heavy.html", 1),
+    VIDEO_EMBEDS("video-embeds.html", 1),
+    LIVE_BLOG("live-blog-entry.html", 300);
+
+    private final String resource;
+    private final int repeat;
+
+    BenchmarkCorpus(String resource, int repeat) {
+        this.resource = resource;
+        this.repeat = repeat;
+    }
+
+    public String body(String stubBaseUrl) {
+        String template;
+        try {
+            template = Resources.toString(Resources.getResource("corpus/" + resource), Charsets.UTF_8)
+                    .replace("{{stub}}", stubBaseUrl);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        StringBuilder body = new StringBuilder(template.length() * repeat);
+        for (int i = 0; i < repeat; i++) {
+            body.append(template.replace("{{index}}", String.format("%02d", i)));
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.richcontent.VideoMatcher;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
+import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.sun.jersey.api.client.Client;
+import io.dropwizard.util.Duration;
+
+import java.util.Collections;
+
+/**
+ * Builds the body-processing chain as the application does, with its link lookups going to a {@link LinkResolutionStub}.
+ */
+final class BenchmarkTransformers {
+
+    private static final int THREAD_POOL_SIZE = 8;
+    private static final int LINKS_PER_THREAD = 4;
+    private static final int QUEUE_SIZE = 256;
+
+    private BenchmarkTransformers() {
+    }
+
+    static LinkResolverExecutor linkResolverExecutor() {
+        return new LinkResolverExecutor(THREAD_POOL_SIZE, QUEUE_SIZE, ResolverSaturationPolicy.CALLER_RUNS, new MetricRegistry());
+    }
+
+    /**
+     * @param cached whether link lookups are cached between bodies; when not, every body resolves all of its links
+     */
+    static BodyProcessingFieldTransformerFactory factory(LinkResolutionStub stub, LinkResolverExecutor executor,
+                                                         boolean singleParsePipeline, boolean cached) {
+        long cacheSize = cached ? 10000 : 0;
+        BlogApiEndpointMetadataManager metadataManager = new BlogApiEndpointMetadataManager(Collections.singletonList(
+                new BlogApiEndpointMetadata(LinkResolutionStub.BLOG_HOST,
+                        ImmutableSet.of("http://api.ft.com/things/dbb0bdae-1f0c-11e4-b0cb-b2227cce2b54"),
+                        LinkResolutionStub.BLOG_ID, null)));
+
+        return new BodyProcessingFieldTransformerFactory(
+                new VideoMatcher(RetainYoutubeParametersTest.DEFAULTS),
+                Collections.singleton(stub.shortenerPattern()),
+                metadataManager,
+                Client.create(),
+                executor.getExecutorService(), THREAD_POOL_SIZE * LINKS_PER_THREAD,
+                Client.create(),
+                stub.documentStoreUri(),
+                "document-store-api",
+                Client.create(),
+                stub.contentReadUri(),
+                "content-public-read",
+                null,
+                1,
+                CacheBuilder.newBuilder().maximumSize(cacheSize).build(),
+                new ContentReadCache(cacheSize, Duration.minutes(30), Duration.minutes(1), new MetricRegistry()),
+                singleParsePipeline);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.ft.bodyprocessing.transformer.FieldTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full chain built by {@link BodyProcessingFieldTransformerFactory}, as run by
+ * {@link BodyProcessingFieldTransformer#transform(String, String)} for each body published.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BodyProcessingChainBenchmark {
+
+    @Param({"SMALL_POST", "IMAGE_HEAVY", "VIDEO_EMBEDS", "LIVE_BLOG"})
+    private BenchmarkCorpus corpus;
+
+    @Param({"false", "true"})
+    private boolean singleParsePipeline;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private LinkResolutionStub stub;
+    private LinkResolverExecutor executor;
+    private FieldTransformer bodyTransformer;
+    private String body;
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = new LinkResolutionStub();
+        stub.start();
+        executor = BenchmarkTransformers.linkResolverExecutor();
+        executor.start();
+
+        bodyTransformer = BenchmarkTransformers.factory(stub, executor, singleParsePipeline, cached).newInstance();
+        body = corpus.body(stub.baseUrl());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        executor.stop();
+        stub.stop();
+    }
+
+    @Benchmark
+    public String transform() {
+        return bodyTransformer.transform(body, "tid_benchmark");
+    }
+}
@@ -0,0 +1,92 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each processor in the default chain on its own, given the body as the processors before it in the chain leave it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BodyProcessorBenchmark {
+
+    /**
+     * The processors of the default chain, in order.
+     */
+    private static final List<String> STAGES = Arrays.asList(
+            "more-link-remover",
+            "empty-paragraph-remover",
+            "tag-soup",
+            "tag-soup-cleanup",
+            "image-extractor",
+            "stax",
+            "remove-empty-elements",
+            "html5-self-closing",
+            "paragraph-newlines",
+            "paragraph-spaces",
+            "link-resolver");
+
+    @Param({"SMALL_POST", "IMAGE_HEAVY", "VIDEO_EMBEDS", "LIVE_BLOG"})
+    private BenchmarkCorpus corpus;
+
+    @Param({"more-link-remover", "empty-paragraph-remover", "tag-soup", "tag-soup-cleanup", "image-extractor", "stax",
+            "remove-empty-elements", "html5-self-closing", "paragraph-newlines", "paragraph-spaces", "link-resolver"})
+    private String stage;
+
+    private final BodyProcessingContext context = new DefaultTransactionIdBodyProcessingContext("tid_benchmark");
+    private LinkResolutionStub stub;
+    private LinkResolverExecutor executor;
+    private BodyProcessor processor;
+    private String body;
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = new LinkResolutionStub();
+        stub.start();
+        executor = BenchmarkTransformers.linkResolverExecutor();
+        executor.start();
+
+        List<BodyProcessor> processors = BenchmarkTransformers.factory(stub, executor, false, false).bodyProcessors();
+        if (processors.size() != STAGES.size()) {
+            throw new IllegalStateException("the default chain has " + processors.size() + " processors, expected " + STAGES);
+        }
+
+        int index = STAGES.indexOf(stage);
+        body = corpus.body(stub.baseUrl());
+        for (BodyProcessor preceding : processors.subList(0, index)) {
+            body = preceding.process(body, context);
+        }
+        processor = processors.get(index);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        executor.stop();
+        stub.stop();
+    }
+
+    @Benchmark
+    public String process() {
+        return processor.process(body, context);
+    }
+}
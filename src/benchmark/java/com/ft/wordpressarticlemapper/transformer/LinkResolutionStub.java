@@ -0,0 +1,84 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.regex.Pattern;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.head;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static javax.servlet.http.HttpServletResponse.SC_MOVED_PERMANENTLY;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+
+/**
+ * Local HTTP server that stands in for the URL shortener, the document store and content read, so that the
+ * benchmarks resolve links over real connections without leaving the machine.
+ * <p>
+ * Every shortened link redirects to the same WordPress post, which the document store finds as one piece of FT
+ * content, and content read returns the same content for any UUID.
+ */
+public class LinkResolutionStub {
+
+    public static final String BLOG_HOST = "blogs.ft.com/the-world";
+    public static final String BLOG_ID = "FT-LABS-WP-1-2";
+
+    private static final String RESOLVED_POST = "http://" + BLOG_HOST + "/2016/04/29/resolved-post/";
+    private static final String CONTENT_UUID = "d7db73ec-cf53-11e5-92a1-c5e23ef99c77";
+    private static final String CONTENT = "{\"id\":\"http://www.ft.com/thing/" + CONTENT_UUID + "\","
+            + "\"type\":\"http://www.ft.com/ontology/content/Article\"}";
+
+    private final WireMockServer server;
+    private final int port;
+
+    public LinkResolutionStub() {
+        port = freePort();
+        server = new WireMockServer(wireMockConfig().port(port));
+    }
+
+    public void start() {
+        server.start();
+
+        WireMock stub = new WireMock("localhost", port);
+        stub.register(head(urlMatching("/short/.*"))
+                .willReturn(aResponse().withStatus(SC_MOVED_PERMANENTLY).withHeader("Location", RESOLVED_POST)));
+        stub.register(head(urlMatching("/content-query\\?.*"))
+                .willReturn(aResponse().withStatus(SC_MOVED_PERMANENTLY).withHeader("Location", baseUrl() + "/content/" + CONTENT_UUID)));
+        stub.register(get(urlMatching("/content/[0-9a-f\\-]+"))
+                .willReturn(aResponse().withStatus(SC_OK).withHeader("Content-Type", "application/json").withBody(CONTENT)));
+    }
+
+    public void stop() {
+        server.stop();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    public URI documentStoreUri() {
+        return URI.create(baseUrl() + "/");
+    }
+
+    public URI contentReadUri() {
+        return URI.create(baseUrl() + "/content");
+    }
+
+    public Pattern shortenerPattern() {
+        return Pattern.compile(Pattern.quote(baseUrl() + "/short/") + ".*");
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -6,9 +6,7 @@ import com.ft.api.jaxrs.errors.Errors;
 import com.ft.api.util.buildinfo.BuildInfoResource;
 import com.ft.api.util.buildinfo.VersionResource;
 import com.ft.api.util.transactionid.TransactionIdFilter;
-import com.ft.bodyprocessing.richcontent.VideoMatcher;
 import com.ft.jerseyhttpwrapper.ResilientClientBuilder;
-import com.ft.jerseyhttpwrapper.config.EndpointConfiguration;
 import com.ft.message.consumer.MessageListener;
 import com.ft.message.consumer.MessageQueueConsumerInitializer;
 import com.ft.messagequeueproducer.MessageProducer;
@@ -16,22 +14,28 @@ import com.ft.messagequeueproducer.QueueProxyProducer;
 import com.ft.platform.dropwizard.AdvancedHealthCheckBundle;
 import com.ft.platform.dropwizard.DefaultGoodToGoChecker;
 import com.ft.platform.dropwizard.GoodToGoBundle;
-import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
+import com.ft.wordpressarticlemapper.command.RemapCommand;
+import com.ft.wordpressarticlemapper.configuration.BulkIngestConfiguration;
+import com.ft.wordpressarticlemapper.configuration.BulkMappingConfiguration;
+import com.ft.wordpressarticlemapper.configuration.CacheConfiguration;
 import com.ft.wordpressarticlemapper.configuration.ConsumerConfiguration;
+import com.ft.wordpressarticlemapper.configuration.FingerprintConfiguration;
+import com.ft.wordpressarticlemapper.configuration.ProducerBatchConfiguration;
 import com.ft.wordpressarticlemapper.configuration.ProducerConfiguration;
-import com.ft.wordpressarticlemapper.configuration.UrlResolverConfiguration;
 import com.ft.wordpressarticlemapper.configuration.WordPressArticleTransformerConfiguration;
 import com.ft.wordpressarticlemapper.health.CanConnectToMessageQueueProducerProxyHealthcheck;
 import com.ft.wordpressarticlemapper.health.RemoteServiceDependencyHealthCheck;
+import com.ft.wordpressarticlemapper.messaging.ContentFingerprints;
+import com.ft.wordpressarticlemapper.messaging.FingerprintMode;
+import com.ft.wordpressarticlemapper.messaging.MessagePreFilter;
 import com.ft.wordpressarticlemapper.messaging.MessageProducingContentMapper;
+import com.ft.wordpressarticlemapper.messaging.BatchingMessageProducer;
 import com.ft.wordpressarticlemapper.messaging.NativeCmsPublicationEventsListener;
-import com.ft.wordpressarticlemapper.resources.BrandSystemResolver;
+import com.ft.wordpressarticlemapper.messaging.PartitionedMessageDispatcher;
+import com.ft.wordpressarticlemapper.messaging.SupersededUpdateCoalescer;
+import com.ft.wordpressarticlemapper.resources.BulkContentMapper;
 import com.ft.wordpressarticlemapper.resources.HtmlTransformerResource;
-import com.ft.wordpressarticlemapper.resources.IdentifierBuilder;
 import com.ft.wordpressarticlemapper.resources.WordPressArticleMapperResource;
-import com.ft.wordpressarticlemapper.transformer.BodyProcessingFieldTransformer;
-import com.ft.wordpressarticlemapper.transformer.BodyProcessingFieldTransformerFactory;
-import com.ft.wordpressarticlemapper.transformer.SyndicationManager;
 import com.ft.wordpressarticlemapper.transformer.WordPressBlogPostContentMapper;
 import com.ft.wordpressarticlemapper.transformer.WordPressLiveBlogContentMapper;
 import com.ft.wordpressarticlemapper.validation.NativeWordPressContentValidator;
@@ -46,7 +50,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.servlet.DispatcherType;
 import javax.ws.rs.core.UriBuilder;
-import java.net.URI;
+import java.util.Arrays;
 import java.util.EnumSet;
 
 public class WordPressArticleMapperApplication extends Application<WordPressArticleTransformerConfiguration> {
@@ -61,6 +65,7 @@ public class WordPressArticleMapperApplication extends Application<WordPressArti
     public void initialize(Bootstrap<WordPressArticleTransformerConfiguration> bootstrap) {
         bootstrap.addBundle(new AdvancedHealthCheckBundle());
         bootstrap.addBundle(new GoodToGoBundle(new DefaultGoodToGoChecker()));
+        bootstrap.addCommand(new RemapCommand());
     }
 
     @Override
@@ -70,34 +75,46 @@ public class WordPressArticleMapperApplication extends Application<WordPressArti
         environment.jersey().register(new BuildInfoResource());
         environment.jersey().register(new VersionResource());
 
-        VideoMatcher videoMatcher = new VideoMatcher(configuration.getVideoSiteConfiguration());
         final ObjectMapper objectMapper = environment.getObjectMapper();
 
-        BlogApiEndpointMetadataManager blogApiEndpointMetadataManager = new BlogApiEndpointMetadataManager(configuration.getHostToBrands());
+        WordPressContentMappers contentMappers = WordPressContentMappers.create(configuration, environment.metrics(),
+                environment.lifecycle()::manage);
 
         HtmlTransformerResource htmlTransformerResource = new HtmlTransformerResource(
-                getBodyProcessingFieldTransformer(videoMatcher, configuration.getUrlResolverConfiguration(), blogApiEndpointMetadataManager)
-        );
+                contentMappers.newBodyProcessingFieldTransformer());
         environment.jersey().register(htmlTransformerResource);
 
         Client consumerClient = getConsumerClient(environment, configuration.getConsumerConfiguration());
-        final MessageProducer producer = configureMessageProducer(environment, configuration.getProducerConfiguration());
+        MessageProducer producer = configureMessageProducer(environment, configuration.getProducerConfiguration());
+        ProducerBatchConfiguration producerBatchConfiguration = configuration.getProducerConfiguration().getBatchConfiguration();
+        Duration linger = producerBatchConfiguration.getLinger();
+        BulkIngestConfiguration bulkIngestConfiguration = configuration.getBulkIngestConfiguration();
+        // bulk ingests always publish in batches, whether or not live traffic does, through a batcher of their own so
+        // that a backfill never queues ahead of live messages; each item waits for its message to be sent, so a batch
+        // is sent as soon as every ingest thread has a message in it
+        BatchingMessageProducer bulkIngestProducer = new BatchingMessageProducer("bulk-ingest", producer,
+                Math.min(producerBatchConfiguration.getMaximumBatchSize(), bulkIngestConfiguration.getThreadPoolSize()),
+                linger.getQuantity(), linger.getUnit(), environment.metrics());
+        environment.lifecycle().manage(bulkIngestProducer);
+        if (producerBatchConfiguration.isEnabled()) {
+            BatchingMessageProducer batchingProducer = new BatchingMessageProducer(producer,
+                    producerBatchConfiguration.getMaximumBatchSize(), linger.getQuantity(), linger.getUnit(),
+                    environment.metrics());
+            environment.lifecycle().manage(batchingProducer);
+            producer = batchingProducer;
+        }
         final UriBuilder contentUriBuilder = UriBuilder.fromUri(configuration.getContentUriPrefix()).path("{uuid}");
 
-        BodyProcessingFieldTransformer bodyProcessingFieldTransformer = getBodyProcessingFieldTransformer(
-                videoMatcher,
-                configuration.getUrlResolverConfiguration(),
-                blogApiEndpointMetadataManager);
-
-        BrandSystemResolver brandSystemResolver = new BrandSystemResolver(blogApiEndpointMetadataManager);
-        IdentifierBuilder identifierBuilder = new IdentifierBuilder(blogApiEndpointMetadataManager);
-        SyndicationManager syndicationManager = new SyndicationManager(blogApiEndpointMetadataManager);
+        WordPressBlogPostContentMapper blogPostContentMapper = contentMappers.getBlogPostContentMapper();
+        WordPressLiveBlogContentMapper liveBlogContentMapper = contentMappers.getLiveBlogContentMapper();
 
-        WordPressBlogPostContentMapper blogPostContentMapper = new WordPressBlogPostContentMapper(brandSystemResolver,
-                bodyProcessingFieldTransformer, identifierBuilder, syndicationManager,
-                configuration.getCanonicalWebUrlTemplate());
-        WordPressLiveBlogContentMapper liveBlogContentMapper = new WordPressLiveBlogContentMapper(brandSystemResolver,
-                identifierBuilder, syndicationManager, configuration.getCanonicalWebUrlTemplate());
+        FingerprintConfiguration fingerprintConfiguration = configuration.getFingerprintConfiguration();
+        ContentFingerprints fingerprints = null;
+        if (fingerprintConfiguration.getMode() != FingerprintMode.DISABLED) {
+            CacheConfiguration store = fingerprintConfiguration.getStoreConfiguration();
+            fingerprints = new ContentFingerprints(fingerprintConfiguration.getMode(), store.getMaximumSize(),
+                    store.getExpireAfterWrite(), objectMapper, environment.metrics());
+        }
 
         MessageProducingContentMapper contentMapper = new MessageProducingContentMapper(
                 blogPostContentMapper,
@@ -105,16 +122,57 @@ public class WordPressArticleMapperApplication extends Application<WordPressArti
                 objectMapper,
                 configuration.getConsumerConfiguration().getSystemCode(),
                 producer,
-                contentUriBuilder);
+                contentUriBuilder,
+                fingerprints);
+
+        MessageProducingContentMapper bulkIngestContentMapper = new MessageProducingContentMapper(
+                blogPostContentMapper,
+                liveBlogContentMapper,
+                objectMapper,
+                configuration.getConsumerConfiguration().getSystemCode(),
+                bulkIngestProducer,
+                contentUriBuilder,
+                fingerprints);
 
         NativeWordPressContentValidator contentValidator = new NativeWordPressContentValidator();
 
+        BulkMappingConfiguration bulkMappingConfiguration = configuration.getBulkMappingConfiguration();
+        BulkContentMapper bulkContentMapper = new BulkContentMapper(objectMapper,
+                bulkMappingConfiguration.getThreadPoolSize(), bulkMappingConfiguration.getMaxInFlight(),
+                environment.metrics());
+        environment.lifecycle().manage(bulkContentMapper);
+
+        BulkContentMapper bulkContentIngester = new BulkContentMapper("ingester", objectMapper,
+                bulkIngestConfiguration.getThreadPoolSize(), bulkIngestConfiguration.getMaxInFlight(),
+                bulkIngestConfiguration.getMaxItemsPerSecond(), environment.metrics());
+        environment.lifecycle().manage(bulkContentIngester);
+
         WordPressArticleMapperResource wordPressArticleTransformerResource =
-                new WordPressArticleMapperResource(blogPostContentMapper, liveBlogContentMapper, contentMapper, contentValidator);
+                new WordPressArticleMapperResource(blogPostContentMapper, liveBlogContentMapper, contentMapper, contentValidator,
+                        bulkContentMapper, bulkContentIngester, bulkIngestContentMapper);
         environment.jersey().register(wordPressArticleTransformerResource);
 
-        String systemCode = configuration.getConsumerConfiguration().getSystemCode();
-        MessageListener listener = new NativeCmsPublicationEventsListener(contentMapper, objectMapper, systemCode, contentValidator);
+        ConsumerConfiguration consumerConfiguration = configuration.getConsumerConfiguration();
+        PartitionedMessageDispatcher dispatcher = null;
+        if (consumerConfiguration.getParallelism() > 1) {
+            dispatcher = new PartitionedMessageDispatcher(consumerConfiguration.getParallelism(),
+                    consumerConfiguration.getMaxInFlight(), environment.metrics());
+            // managed before the consumer, so it is stopped after the consumer and drains what was consumed
+            environment.lifecycle().manage(dispatcher);
+        }
+
+        SupersededUpdateCoalescer coalescer = null;
+        Duration coalesceWindow = consumerConfiguration.getCoalesceWindow();
+        if (coalesceWindow.getQuantity() > 0) {
+            coalescer = new SupersededUpdateCoalescer(coalesceWindow.getQuantity(), coalesceWindow.getUnit(),
+                    consumerConfiguration.getMaxInFlight(), dispatcher, environment.metrics());
+            // between the dispatcher and the consumer, so held updates are released after consuming stops
+            environment.lifecycle().manage(coalescer);
+        }
+
+        MessagePreFilter preFilter = new MessagePreFilter(consumerConfiguration.getSystemCode(), environment.metrics());
+        MessageListener listener = new NativeCmsPublicationEventsListener(contentMapper, objectMapper, preFilter,
+                contentValidator, dispatcher, coalescer);
 
         startListener(environment, listener, configuration.getConsumerConfiguration(), consumerClient);
 
@@ -124,75 +182,18 @@ public class WordPressArticleMapperApplication extends Application<WordPressArti
                 new RemoteServiceDependencyHealthCheck("Document Store", "document-store-api",
                         "Links to other FT content will not be resolved during publication, reducing data quality.",
                         "https://sites.google.com/a/ft.com/ft-technology-service-transition/home/run-book-library/documentstoreapi",
-                        Client.create(), configuration.getUrlResolverConfiguration().getDocumentStoreConfiguration().getEndpointConfiguration()));
+                        Client.create(), configuration.getUrlResolverConfiguration().getDocumentStoreConfiguration().getEndpointConfiguration(),
+                        Arrays.asList(contentMappers.getCircuitBreakers().getDocumentStore(),
+                                contentMappers.getCircuitBreakers().getContentRead())));
 
         Errors.customise(new WordPressArticleMapperErrorEntityFactory());
         environment.servlets().addFilter("Transaction ID Filter",
-                new TransactionIdFilter()).addMappingForUrlPatterns(EnumSet.allOf(DispatcherType.class), false, "/map", "/ingest");
+                new TransactionIdFilter()).addMappingForUrlPatterns(EnumSet.allOf(DispatcherType.class), false, "/map", "/map/bulk", "/ingest", "/ingest/bulk");
         environment.servlets().addFilter("Transaction ID Filter",
                 new TransactionIdFilter()).addMappingForUrlPatterns(EnumSet.allOf(DispatcherType.class), false, "/transform-html-fragment");
 
     }
 
-    private BodyProcessingFieldTransformer getBodyProcessingFieldTransformer(VideoMatcher videoMatcher,
-                                                                             UrlResolverConfiguration configuration,
-                                                                             BlogApiEndpointMetadataManager blogApiEndpointMetadataManager) {
-
-        Client resolverClient = Client.create();
-        setClientTimeouts(resolverClient, configuration.getResolverConfiguration());
-
-        EndpointConfiguration documentStoreEndpoint = configuration.getDocumentStoreConfiguration().getEndpointConfiguration();
-        URI documentStoreBaseURI = UriBuilder.fromPath("/")
-                .scheme("http")
-                .host(documentStoreEndpoint.getHost())
-                .port(documentStoreEndpoint.getPort())
-                .build();
-
-        Client documentStoreClient = Client.create();
-        setClientTimeouts(documentStoreClient, documentStoreEndpoint.getJerseyClientConfiguration());
-        String documentStoreHostHeader = configuration.getDocumentStoreConfiguration().getHostHeader();
-
-        EndpointConfiguration contentReadEndpoint = configuration.getContentReadConfiguration().getEndpointConfiguration();
-        URI contentReadBaseURI = UriBuilder.fromPath(contentReadEndpoint.getPath())
-                .scheme("http")
-                .host(contentReadEndpoint.getHost())
-                .port(contentReadEndpoint.getPort())
-                .build();
-
-        Client contentReadClient = Client.create();
-        setClientTimeouts(contentReadClient, contentReadEndpoint.getJerseyClientConfiguration());
-        String contentReadHostHeader = configuration.getContentReadConfiguration().getHostHeader();
-
-        int threadPoolSize = configuration.getThreadPoolSize();
-        int maxLinks = threadPoolSize * configuration.getLinksPerThread();
-        return (BodyProcessingFieldTransformer) (new BodyProcessingFieldTransformerFactory(
-                videoMatcher,
-                configuration.getPatterns(),
-                blogApiEndpointMetadataManager,
-                resolverClient,
-                threadPoolSize,
-                maxLinks,
-                documentStoreClient,
-                documentStoreBaseURI,
-                documentStoreHostHeader,
-                contentReadClient,
-                contentReadBaseURI,
-                contentReadHostHeader
-        )).newInstance();
-    }
-
-    private void setClientTimeouts(Client client, JerseyClientConfiguration config) {
-        Duration duration = config.getConnectionTimeout();
-        if (duration != null) {
-            client.setConnectTimeout((int) duration.toMilliseconds());
-        }
-
-        duration = config.getTimeout();
-        if (duration != null) {
-            client.setReadTimeout((int) duration.toMilliseconds());
-        }
-    }
-
     private Client getConsumerClient(Environment environment, ConsumerConfiguration config) {
         JerseyClientConfiguration jerseyConfig = config.getJerseyClientConfiguration();
         jerseyConfig.setGzipEnabled(false);
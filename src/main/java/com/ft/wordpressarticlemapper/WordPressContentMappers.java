@@ -0,0 +1,320 @@
+package com.ft.wordpressarticlemapper;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.bodyprocessing.richcontent.VideoMatcher;
+import com.ft.jerseyhttpwrapper.config.EndpointConfiguration;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
+import com.ft.wordpressarticlemapper.configuration.CacheConfiguration;
+import com.ft.wordpressarticlemapper.configuration.CircuitBreakerConfiguration;
+import com.ft.wordpressarticlemapper.configuration.ConnectionPoolConfiguration;
+import com.ft.wordpressarticlemapper.configuration.ContentReadBatchConfiguration;
+import com.ft.wordpressarticlemapper.configuration.ContentReadCacheConfiguration;
+import com.ft.wordpressarticlemapper.configuration.UrlResolverConfiguration;
+import com.ft.wordpressarticlemapper.configuration.WordPressArticleTransformerConfiguration;
+import com.ft.wordpressarticlemapper.metrics.CacheMetrics;
+import com.ft.wordpressarticlemapper.metrics.HttpClientMetricsFilter;
+import com.ft.wordpressarticlemapper.model.Identifier;
+import com.ft.wordpressarticlemapper.resources.BrandSystemResolver;
+import com.ft.wordpressarticlemapper.resources.IdentifierBuilder;
+import com.ft.wordpressarticlemapper.transformer.BodyProcessingFieldTransformer;
+import com.ft.wordpressarticlemapper.transformer.BodyProcessingFieldTransformerFactory;
+import com.ft.wordpressarticlemapper.transformer.BodyProcessingMetrics;
+import com.ft.wordpressarticlemapper.transformer.CircuitBreaker;
+import com.ft.wordpressarticlemapper.transformer.ContentReadCache;
+import com.ft.wordpressarticlemapper.transformer.IdleConnectionEvictor;
+import com.ft.wordpressarticlemapper.transformer.LinkResolutionBudget;
+import com.ft.wordpressarticlemapper.transformer.LinkResolverBodyProcessor;
+import com.ft.wordpressarticlemapper.transformer.LinkResolverCircuitBreakers;
+import com.ft.wordpressarticlemapper.transformer.LinkResolverExecutor;
+import com.ft.wordpressarticlemapper.transformer.SyndicationManager;
+import com.ft.wordpressarticlemapper.transformer.WordPressBlogPostContentMapper;
+import com.ft.wordpressarticlemapper.transformer.WordPressLiveBlogContentMapper;
+import com.ft.wordpressarticlemapper.transformer.XmlFactories;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.client.apache4.ApacheHttpClient4;
+import io.dropwizard.client.JerseyClientBuilder;
+import io.dropwizard.client.JerseyClientConfiguration;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.lifecycle.ExecutorServiceManager;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.util.Duration;
+import org.apache.http.conn.ClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.UriBuilder;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The blog post and live blog content mappers, and the body processing behind them, built from the configuration, so
+ * that the server and the {@code remap} command map posts alike.
+ */
+public class WordPressContentMappers {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WordPressContentMappers.class);
+    private static final Pattern PATTERN_HOST = Pattern.compile("^[a-z?]+://([a-zA-Z0-9.-]+)(/|$)");
+
+    private final VideoMatcher videoMatcher;
+    private final UrlResolverConfiguration urlResolverConfiguration;
+    private final BlogApiEndpointMetadataManager blogApiEndpointMetadataManager;
+    private final LinkResolverExecutor linkResolverExecutor;
+    private final Cache<URI, Identifier> redirectCache;
+    private final ContentReadCache contentReadCache;
+    private final boolean singleParsePipeline;
+    private final BodyProcessingMetrics bodyProcessingMetrics;
+    private final LinkResolutionBudget linkResolutionBudget;
+    private final LinkResolverCircuitBreakers circuitBreakers;
+    private final Client resolverClient;
+    private final Client documentStoreClient;
+    private final Client contentReadClient;
+    private final WordPressBlogPostContentMapper blogPostContentMapper;
+    private final WordPressLiveBlogContentMapper liveBlogContentMapper;
+
+    /**
+     * @param lifecycle manages the pool that links are resolved on and the eviction of idle connections from the
+     *                  clients that resolve them, which must be started before mapping and stopped after it
+     */
+    public static WordPressContentMappers create(WordPressArticleTransformerConfiguration configuration,
+                                                 MetricRegistry metrics, Consumer<Managed> lifecycle) {
+        UrlResolverConfiguration urlResolverConfiguration = configuration.getUrlResolverConfiguration();
+        LinkResolverExecutor linkResolverExecutor = new LinkResolverExecutor(
+                urlResolverConfiguration.getThreadPoolSize(),
+                urlResolverConfiguration.getQueueSize(),
+                urlResolverConfiguration.getSaturationPolicy(),
+                metrics);
+        lifecycle.accept(linkResolverExecutor);
+
+        Cache<URI, Identifier> redirectCache = buildCache(metrics, urlResolverConfiguration.getRedirectCacheConfiguration(),
+                MetricRegistry.name(LinkResolverBodyProcessor.class, "redirect-cache"));
+
+        ContentReadCacheConfiguration contentReadCacheConfiguration = urlResolverConfiguration.getContentReadCacheConfiguration();
+        ContentReadCache contentReadCache = new ContentReadCache(
+                contentReadCacheConfiguration.getMaximumSize(),
+                contentReadCacheConfiguration.getExpireFoundAfter(),
+                contentReadCacheConfiguration.getExpireNotFoundAfter(),
+                metrics);
+
+        XmlFactories.shared().registerMetrics(metrics);
+
+        BodyProcessingMetrics bodyProcessingMetrics = new BodyProcessingMetrics(metrics,
+                configuration.getBodyProcessingConfiguration().getSlowBodyThreshold().toMilliseconds(),
+                TimeUnit.MILLISECONDS);
+
+        // one pool of connections per dependency, shared by every body transformer; the clients get their own small
+        // pool for asynchronous requests, which link resolution doesn't make, rather than taking the resolver's threads
+        ObjectMapper objectMapper = Jackson.newObjectMapper();
+        ExecutorService clientExecutor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("link-resolver-client-%d").setDaemon(true).build());
+        lifecycle.accept(new ExecutorServiceManager(clientExecutor, Duration.seconds(5), "link-resolver-client"));
+        Set<String> shortenerHosts = shortenerHosts(urlResolverConfiguration.getPatterns());
+        EndpointConfiguration documentStoreEndpoint = urlResolverConfiguration.getDocumentStoreConfiguration().getEndpointConfiguration();
+        EndpointConfiguration contentReadEndpoint = urlResolverConfiguration.getContentReadConfiguration().getEndpointConfiguration();
+        Client resolverClient = buildClient(metrics, urlResolverConfiguration.getResolverConfiguration(),
+                "resolver", shortenerHosts, clientExecutor, objectMapper);
+        Client documentStoreClient = buildClient(metrics, documentStoreEndpoint.getJerseyClientConfiguration(),
+                "document-store", Collections.singleton(documentStoreEndpoint.getHost()), clientExecutor, objectMapper);
+        Client contentReadClient = buildClient(metrics, contentReadEndpoint.getJerseyClientConfiguration(),
+                "content-read", Collections.singleton(contentReadEndpoint.getHost()), clientExecutor, objectMapper);
+
+        ConnectionPoolConfiguration connectionPool = urlResolverConfiguration.getConnectionPoolConfiguration();
+        lifecycle.accept(new IdleConnectionEvictor(
+                Arrays.asList(connectionManagerOf(resolverClient), connectionManagerOf(documentStoreClient),
+                        connectionManagerOf(contentReadClient)),
+                connectionPool.getEvictionInterval().toMilliseconds(),
+                connectionPool.getIdleTimeout().toMilliseconds()));
+
+        LinkResolutionBudget linkResolutionBudget = new LinkResolutionBudget(
+                urlResolverConfiguration.getLinkResolutionBudget().toMilliseconds(), TimeUnit.MILLISECONDS, metrics);
+
+        CircuitBreakerConfiguration circuitBreaker = urlResolverConfiguration.getCircuitBreakerConfiguration();
+        Map<String, CircuitBreaker> shortenerBreakers = new LinkedHashMap<>();
+        for (String host : shortenerHosts) {
+            shortenerBreakers.put(host, buildCircuitBreaker(metrics, circuitBreaker,
+                    MetricRegistry.name("resolver", "hosts", host.replace('.', '_'))));
+        }
+        LinkResolverCircuitBreakers circuitBreakers = new LinkResolverCircuitBreakers(
+                shortenerBreakers,
+                buildCircuitBreaker(metrics, circuitBreaker, "document-store"),
+                buildCircuitBreaker(metrics, circuitBreaker, "content-read"),
+                buildCircuitBreaker(metrics, circuitBreaker, "content-read-bulk"),
+                circuitBreaker.getOpenPolicy());
+
+        return new WordPressContentMappers(configuration, linkResolverExecutor, redirectCache, contentReadCache,
+                bodyProcessingMetrics, linkResolutionBudget, circuitBreakers, resolverClient, documentStoreClient,
+                contentReadClient);
+    }
+
+    private WordPressContentMappers(WordPressArticleTransformerConfiguration configuration,
+                                    LinkResolverExecutor linkResolverExecutor,
+                                    Cache<URI, Identifier> redirectCache,
+                                    ContentReadCache contentReadCache,
+                                    BodyProcessingMetrics bodyProcessingMetrics,
+                                    LinkResolutionBudget linkResolutionBudget,
+                                    LinkResolverCircuitBreakers circuitBreakers,
+                                    Client resolverClient,
+                                    Client documentStoreClient,
+                                    Client contentReadClient) {
+        this.videoMatcher = new VideoMatcher(configuration.getVideoSiteConfiguration());
+        this.urlResolverConfiguration = configuration.getUrlResolverConfiguration();
+        this.blogApiEndpointMetadataManager = new BlogApiEndpointMetadataManager(configuration.getHostToBrands());
+        this.linkResolverExecutor = linkResolverExecutor;
+        this.redirectCache = redirectCache;
+        this.contentReadCache = contentReadCache;
+        this.singleParsePipeline = configuration.getBodyProcessingConfiguration().isSingleParsePipeline();
+        this.bodyProcessingMetrics = bodyProcessingMetrics;
+        this.linkResolutionBudget = linkResolutionBudget;
+        this.circuitBreakers = circuitBreakers;
+        this.resolverClient = resolverClient;
+        this.documentStoreClient = documentStoreClient;
+        this.contentReadClient = contentReadClient;
+
+        BrandSystemResolver brandSystemResolver = new BrandSystemResolver(blogApiEndpointMetadataManager);
+        IdentifierBuilder identifierBuilder = new IdentifierBuilder(blogApiEndpointMetadataManager);
+        SyndicationManager syndicationManager = new SyndicationManager(blogApiEndpointMetadataManager);
+
+        this.blogPostContentMapper = new WordPressBlogPostContentMapper(blogApiEndpointMetadataManager,
+                brandSystemResolver, newBodyProcessingFieldTransformer(), identifierBuilder, syndicationManager,
+                configuration.getCanonicalWebUrlTemplate());
+        this.liveBlogContentMapper = new WordPressLiveBlogContentMapper(blogApiEndpointMetadataManager,
+                brandSystemResolver, identifierBuilder, syndicationManager, configuration.getCanonicalWebUrlTemplate());
+    }
+
+    public WordPressBlogPostContentMapper getBlogPostContentMapper() {
+        return blogPostContentMapper;
+    }
+
+    public WordPressLiveBlogContentMapper getLiveBlogContentMapper() {
+        return liveBlogContentMapper;
+    }
+
+    public LinkResolverCircuitBreakers getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * Builds a body transformer sharing this instance's link resolution pool, HTTP clients, caches and stage metrics.
+     */
+    public BodyProcessingFieldTransformer newBodyProcessingFieldTransformer() {
+        UrlResolverConfiguration configuration = urlResolverConfiguration;
+
+        EndpointConfiguration documentStoreEndpoint = configuration.getDocumentStoreConfiguration().getEndpointConfiguration();
+        URI documentStoreBaseURI = UriBuilder.fromPath("/")
+                .scheme("http")
+                .host(documentStoreEndpoint.getHost())
+                .port(documentStoreEndpoint.getPort())
+                .build();
+
+        String documentStoreHostHeader = configuration.getDocumentStoreConfiguration().getHostHeader();
+
+        EndpointConfiguration contentReadEndpoint = configuration.getContentReadConfiguration().getEndpointConfiguration();
+        URI contentReadBaseURI = UriBuilder.fromPath(contentReadEndpoint.getPath())
+                .scheme("http")
+                .host(contentReadEndpoint.getHost())
+                .port(contentReadEndpoint.getPort())
+                .build();
+
+        String contentReadHostHeader = configuration.getContentReadConfiguration().getHostHeader();
+
+        ContentReadBatchConfiguration contentReadBatch = configuration.getContentReadBatchConfiguration();
+        URI contentReadBulkURI = null;
+        if (contentReadBatch.isEnabled()) {
+            contentReadBulkURI = UriBuilder.fromPath(contentReadBatch.getPath())
+                    .scheme("http")
+                    .host(contentReadEndpoint.getHost())
+                    .port(contentReadEndpoint.getPort())
+                    .build();
+        }
+
+        int maxLinks = configuration.getThreadPoolSize() * configuration.getLinksPerThread();
+        return (BodyProcessingFieldTransformer) (new BodyProcessingFieldTransformerFactory(
+                videoMatcher,
+                configuration.getPatterns(),
+                blogApiEndpointMetadataManager,
+                resolverClient,
+                linkResolverExecutor.getExecutorService(),
+                maxLinks,
+                documentStoreClient,
+                documentStoreBaseURI,
+                documentStoreHostHeader,
+                contentReadClient,
+                contentReadBaseURI,
+                contentReadHostHeader,
+                contentReadBulkURI,
+                contentReadBatch.getMaximumBatchSize(),
+                redirectCache,
+                contentReadCache,
+                singleParsePipeline,
+                bodyProcessingMetrics,
+                linkResolutionBudget,
+                circuitBreakers
+        )).newInstance();
+    }
+
+    private static <K, V> Cache<K, V> buildCache(MetricRegistry metrics, CacheConfiguration config, String name) {
+        Cache<K, V> cache = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite().toMilliseconds(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CacheMetrics.register(metrics, name, cache);
+        return cache;
+    }
+
+    /**
+     * @param knownHosts the hosts of the dependency to record metrics for one by one, the rest being recorded together
+     */
+    static Client buildClient(MetricRegistry metrics, JerseyClientConfiguration configuration, String dependency,
+                              Set<String> knownHosts, ExecutorService executor, ObjectMapper objectMapper) {
+        Client client = new JerseyClientBuilder(metrics)
+                .using(configuration)
+                .using(executor, objectMapper)
+                .build(dependency);
+        client.addFilter(new HttpClientMetricsFilter(metrics, MetricRegistry.name(LinkResolverBodyProcessor.class, dependency),
+                knownHosts));
+        return client;
+    }
+
+    private static CircuitBreaker buildCircuitBreaker(MetricRegistry metrics, CircuitBreakerConfiguration config,
+                                                      String dependency) {
+        return new CircuitBreaker(dependency, config.getFailureThreshold(), config.getOpenDuration().toMilliseconds(),
+                TimeUnit.MILLISECONDS, metrics);
+    }
+
+    /**
+     * The hosts of the URL shorteners, taken from the literal host in each configured pattern. A pattern that matches
+     * more than one host gets no breaker.
+     */
+    private static Set<String> shortenerHosts(Set<Pattern> patterns) {
+        Set<String> hosts = new LinkedHashSet<>();
+        for (Pattern pattern : patterns) {
+            Matcher m = PATTERN_HOST.matcher(pattern.pattern().replace("\\", ""));
+            if (m.find()) {
+                hosts.add(m.group(1).toLowerCase());
+            } else {
+                LOG.warn("no single host in URL shortener pattern {}, so its links are not guarded by a circuit breaker",
+                        pattern);
+            }
+        }
+        return hosts;
+    }
+
+    private static ClientConnectionManager connectionManagerOf(Client client) {
+        return ((ApacheHttpClient4) client).getClientHandler().getHttpClient().getConnectionManager();
+    }
+}
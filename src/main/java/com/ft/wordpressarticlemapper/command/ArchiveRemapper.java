@@ -0,0 +1,197 @@
+package com.ft.wordpressarticlemapper.command;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Remaps every dump file under an input path, a file or a directory, into files in an output directory.
+ * <p>
+ * A dump file is a JSON document holding one post or an array of posts ({@code .json}), or newline-delimited posts
+ * ({@code .ndjson}), and may be gzipped ({@code .gz}). Each one's output is written under a temporary name and moved
+ * into place once the whole file has been remapped, and the file is then recorded in the checkpoint. A run that is
+ * stopped part way through can be started again with the same output directory, and it skips the files already
+ * recorded.
+ */
+class ArchiveRemapper {
+
+    static final String CHECKPOINT_FILE = "remap.checkpoint";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArchiveRemapper.class);
+    private static final List<String> DUMP_EXTENSIONS = Arrays.asList(".ndjson.gz", ".json.gz", ".ndjson", ".json");
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    /**
+     * Remaps the posts of one dump file.
+     */
+    interface FileRemapping {
+        void remap(InputStream posts, Outputs outputs) throws IOException;
+    }
+
+    /**
+     * Opens a dump file's outputs, each named after the file and the given suffix.
+     */
+    interface Outputs {
+        OutputStream open(String suffix) throws IOException;
+    }
+
+    private final FileRemapping remapping;
+    private final Meter filesRemapped;
+    private final Meter filesSkipped;
+
+    ArchiveRemapper(FileRemapping remapping, MetricRegistry metrics) {
+        this.remapping = remapping;
+        this.filesRemapped = metrics.meter(name(ArchiveRemapper.class, "files-remapped"));
+        this.filesSkipped = metrics.meter(name(ArchiveRemapper.class, "files-skipped"));
+    }
+
+    void remapAll(Path input, Path outputDirectory) throws IOException {
+        Files.createDirectories(outputDirectory);
+        Path checkpoint = outputDirectory.resolve(CHECKPOINT_FILE);
+        Set<String> completed = readCheckpoint(checkpoint);
+
+        List<Path> dumps = listDumps(input);
+        LOG.info("remapping {} dump files from {} into {}, {} already completed",
+                dumps.size(), input, outputDirectory, completed.size());
+
+        try (Writer checkpointWriter = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Path dump : dumps) {
+                String key = keyOf(input, dump);
+                if (completed.contains(key)) {
+                    filesSkipped.mark();
+                    continue;
+                }
+
+                remap(dump, outputDirectory, outputNameOf(key));
+
+                checkpointWriter.write(key);
+                checkpointWriter.write('\n');
+                checkpointWriter.flush();
+                filesRemapped.mark();
+                LOG.info("remapped {}", key);
+            }
+        }
+    }
+
+    private void remap(Path dump, Path outputDirectory, String outputName) throws IOException {
+        Map<Path, OutputStream> opened = new LinkedHashMap<>();
+        try (InputStream posts = open(dump)) {
+            remapping.remap(posts, suffix -> {
+                Path partial = outputDirectory.resolve(outputName + suffix + PARTIAL_SUFFIX);
+                OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial));
+                opened.put(partial, out);
+                return out;
+            });
+        } finally {
+            for (OutputStream out : opened.values()) {
+                out.close();
+            }
+        }
+
+        for (Path partial : opened.keySet()) {
+            String fileName = partial.getFileName().toString();
+            Path complete = partial.resolveSibling(fileName.substring(0, fileName.length() - PARTIAL_SUFFIX.length()));
+            Files.move(partial, complete, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static InputStream open(Path dump) throws IOException {
+        String fileName = dump.getFileName().toString();
+        InputStream in = Files.newInputStream(dump);
+        if (fileName.endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+            fileName = fileName.substring(0, fileName.length() - ".gz".length());
+        }
+        if (fileName.endsWith(".ndjson")) {
+            return in;
+        }
+
+        // a document holding one post is read as an array of one
+        PushbackInputStream document = new PushbackInputStream(in);
+        int first = document.read();
+        while (first != -1 && Character.isWhitespace(first)) {
+            first = document.read();
+        }
+        if (first == -1) {
+            return document;
+        }
+        document.unread(first);
+        if (first != '{') {
+            return document;
+        }
+        return new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                new ByteArrayInputStream(new byte[]{'['}), document, new ByteArrayInputStream(new byte[]{']'}))));
+    }
+
+    private static Set<String> readCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return Collections.emptySet();
+        }
+        try (Stream<String> lines = Files.lines(checkpoint, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isEmpty()).collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private static List<Path> listDumps(Path input) throws IOException {
+        if (!Files.isDirectory(input)) {
+            return Collections.singletonList(input);
+        }
+        try (Stream<Path> files = Files.walk(input)) {
+            List<Path> dumps = new ArrayList<>();
+            files.filter(Files::isRegularFile)
+                    .filter(file -> extensionOf(file.getFileName().toString()) != null)
+                    .sorted()
+                    .forEach(dumps::add);
+            return dumps;
+        }
+    }
+
+    private static String keyOf(Path input, Path dump) {
+        Path relative = Files.isDirectory(input) ? input.relativize(dump) : dump.getFileName();
+        return relative.toString().replace('\\', '/');
+    }
+
+    private static String outputNameOf(String key) {
+        String extension = extensionOf(key);
+        String name = (extension == null) ? key : key.substring(0, key.length() - extension.length());
+        return name.replace('/', '_');
+    }
+
+    private static String extensionOf(String fileName) {
+        for (String extension : DUMP_EXTENSIONS) {
+            if (fileName.endsWith(extension)) {
+                return extension;
+            }
+        }
+        return null;
+    }
+}
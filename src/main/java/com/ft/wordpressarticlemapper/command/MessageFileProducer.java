@@ -0,0 +1,63 @@
+package com.ft.wordpressarticlemapper.command;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.ft.api.util.transactionid.TransactionIdUtils.TRANSACTION_ID_HEADER;
+
+/**
+ * Writes the CmsPublicationEvents messages that would have been sent to the queue proxy as newline-delimited JSON, one
+ * message per line with its body embedded as JSON.
+ */
+class MessageFileProducer implements MessageProducer {
+
+    private static final byte[] LINE_SEPARATOR = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final OutputStream out;
+    private final JsonFactory jsonFactory;
+
+    MessageFileProducer(OutputStream out, JsonFactory jsonFactory) {
+        this.out = out;
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public void send(List<Message> messages) {
+        try {
+            for (Message message : messages) {
+                byte[] line = toJson(message);
+                synchronized (out) {
+                    out.write(line);
+                    out.write(LINE_SEPARATOR);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to write messages", e);
+        }
+    }
+
+    private byte[] toJson(Message message) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(line, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("originSystemId", String.valueOf(message.getOriginSystemId()));
+            generator.writeStringField("messageTimestamp", message.getMessageTimestamp().toInstant().toString());
+            generator.writeStringField("contentType", String.valueOf(message.getContentType()));
+            generator.writeStringField("transactionId", message.getCustomMessageHeader(TRANSACTION_ID_HEADER));
+            generator.writeFieldName("body");
+            generator.writeRawValue(message.getMessageBody());
+            generator.writeEndObject();
+        }
+        return line.toByteArray();
+    }
+}
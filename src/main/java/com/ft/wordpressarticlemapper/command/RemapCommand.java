@@ -0,0 +1,182 @@
+package com.ft.wordpressarticlemapper.command;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Slf4jReporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.api.jaxrs.errors.ClientError;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.wordpressarticlemapper.WordPressContentMappers;
+import com.ft.wordpressarticlemapper.configuration.WordPressArticleTransformerConfiguration;
+import com.ft.wordpressarticlemapper.exception.PostNotFoundException;
+import com.ft.wordpressarticlemapper.exception.WordPressContentException;
+import com.ft.wordpressarticlemapper.messaging.MessageProducingContentMapper;
+import com.ft.wordpressarticlemapper.model.WordPressContent;
+import com.ft.wordpressarticlemapper.resources.BulkContentMapper;
+import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
+import com.ft.wordpressarticlemapper.validation.NativeWordPressContentValidator;
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.UriBuilder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_UNPROCESSABLE_ENTITY;
+
+/**
+ * Re-maps dumped native WordPress posts, such as those of an archived blog, into files, using the same mappers as the
+ * server but without starting it or connecting to the queue proxy.
+ * <p>
+ * In {@code content} format each dump file's posts are written as they would be returned by {@code /map/bulk}. In
+ * {@code messages} format they are written as the CmsPublicationEvents messages that {@code /ingest} would send,
+ * deletes included, alongside the status of each post. Posts are mapped on as many threads as there are cores, and
+ * progress is logged every {@value #PROGRESS_INTERVAL_SECONDS} seconds. See {@link ArchiveRemapper} for how dump files
+ * are found and how an interrupted run is resumed.
+ */
+public class RemapCommand extends ConfiguredCommand<WordPressArticleTransformerConfiguration> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemapCommand.class);
+    private static final long PROGRESS_INTERVAL_SECONDS = 30;
+    private static final String CONTENT_FORMAT = "content";
+    private static final String MESSAGES_FORMAT = "messages";
+    private static final int ITEMS_IN_FLIGHT_PER_THREAD = 4;
+
+    public RemapCommand() {
+        super("remap", "Re-maps dumped WordPress posts into files, without starting the server");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+        subparser.addArgument("-i", "--input")
+                .dest("input")
+                .required(true)
+                .help("a dump file, or a directory of them: .json, .ndjson, optionally gzipped");
+        subparser.addArgument("-o", "--output")
+                .dest("output")
+                .required(true)
+                .help("the directory to write the remapped files and the checkpoint to");
+        subparser.addArgument("-f", "--format")
+                .dest("format")
+                .choices(CONTENT_FORMAT, MESSAGES_FORMAT)
+                .setDefault(CONTENT_FORMAT)
+                .help("write mapped content, or CmsPublicationEvents messages");
+        subparser.addArgument("-t", "--threads")
+                .dest("threads")
+                .type(Integer.class)
+                .setDefault(Runtime.getRuntime().availableProcessors())
+                .help("how many posts to map at once");
+    }
+
+    @Override
+    protected void run(Bootstrap<WordPressArticleTransformerConfiguration> bootstrap, Namespace namespace,
+                       WordPressArticleTransformerConfiguration configuration) throws Exception {
+        ObjectMapper objectMapper = bootstrap.getObjectMapper();
+        MetricRegistry metrics = bootstrap.getMetricRegistry();
+        int threads = namespace.getInt("threads");
+
+        List<Managed> managed = new ArrayList<>();
+        WordPressContentMappers contentMappers = WordPressContentMappers.create(configuration, metrics, managed::add);
+        BulkContentMapper bulkContentMapper = new BulkContentMapper("remap", objectMapper, threads,
+                threads * ITEMS_IN_FLIGHT_PER_THREAD, 0, metrics);
+        managed.add(bulkContentMapper);
+
+        String systemCode = configuration.getConsumerConfiguration().getSystemCode();
+        UriBuilder contentUriBuilder = UriBuilder.fromUri(configuration.getContentUriPrefix()).path("{uuid}");
+        NativeWordPressContentValidator contentValidator = new NativeWordPressContentValidator();
+        String transactionId = "tid_remap_" + UUID.randomUUID();
+
+        ArchiveRemapper.FileRemapping remapping;
+        if (MESSAGES_FORMAT.equals(namespace.getString("format"))) {
+            remapping = messagesRemapping(bulkContentMapper, objectMapper, transactionId,
+                    producer -> new MessageProducingContentMapper(
+                            contentMappers.getBlogPostContentMapper(), contentMappers.getLiveBlogContentMapper(),
+                            objectMapper, systemCode, producer, contentUriBuilder));
+        } else {
+            MessageProducingContentMapper contentMapper = new MessageProducingContentMapper(
+                    contentMappers.getBlogPostContentMapper(), contentMappers.getLiveBlogContentMapper(),
+                    objectMapper, systemCode, messages -> { }, contentUriBuilder);
+            remapping = (posts, outputs) -> bulkContentMapper.map(posts, outputs.open(".ndjson"),
+                    content -> map(transactionId, content, contentValidator, contentMapper));
+        }
+
+        Slf4jReporter progress = Slf4jReporter.forRegistry(metrics)
+                .outputTo(LOG)
+                .filter((name, metric) -> name.startsWith(MetricRegistry.name(ArchiveRemapper.class))
+                        || name.startsWith(MetricRegistry.name(BulkContentMapper.class, "remap")))
+                .build();
+        progress.start(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        for (Managed service : managed) {
+            service.start();
+        }
+        try {
+            Path input = Paths.get(namespace.getString("input"));
+            Path output = Paths.get(namespace.getString("output"));
+            new ArchiveRemapper(remapping, metrics).remapAll(input, output);
+        } finally {
+            for (int i = managed.size() - 1; i >= 0; i--) {
+                managed.get(i).stop();
+            }
+            progress.stop();
+            progress.report();
+        }
+    }
+
+    /**
+     * Writes each dump file's posts as the messages they would be sent as, each post with its own transaction id as
+     * given by {@code /ingest/bulk}.
+     *
+     * @param contentMappers creates the mapper that sends a dump file's messages to the given producer
+     */
+    static ArchiveRemapper.FileRemapping messagesRemapping(BulkContentMapper bulkContentMapper, ObjectMapper objectMapper,
+                                                          String transactionId,
+                                                          Function<MessageProducer, MessageProducingContentMapper> contentMappers) {
+        NativeWordPressContentValidator contentValidator = new NativeWordPressContentValidator();
+        return (posts, outputs) -> {
+            MessageFileProducer producer = new MessageFileProducer(outputs.open(".messages.ndjson"),
+                    objectMapper.getFactory());
+            MessageProducingContentMapper contentMapper = contentMappers.apply(producer);
+            bulkContentMapper.ingest(posts, outputs.open(".results.ndjson"),
+                    (content, index) -> ingest(transactionId + "_" + index, content, contentValidator, contentMapper));
+        };
+    }
+
+    private static WordPressContent map(String transactionId, NativeWordPressContent nativeWordPressContent,
+                                        NativeWordPressContentValidator contentValidator,
+                                        MessageProducingContentMapper contentMapper) {
+        try {
+            contentValidator.validate(nativeWordPressContent);
+            return contentMapper.map(transactionId, nativeWordPressContent.getPost(), new Date());
+        } catch (PostNotFoundException e) {
+            throw new ClientError.ClientErrorBuilder(SC_NOT_FOUND).error("Delete event").exception();
+        } catch (IllegalArgumentException | WordPressContentException e) {
+            throw new ClientError.ClientErrorBuilder(SC_UNPROCESSABLE_ENTITY).error("Wordpress content is not valid").exception(e);
+        }
+    }
+
+    private static void ingest(String transactionId, NativeWordPressContent nativeWordPressContent,
+                               NativeWordPressContentValidator contentValidator,
+                               MessageProducingContentMapper contentMapper) {
+        try {
+            contentValidator.validate(nativeWordPressContent);
+            contentMapper.mapForPublish(transactionId, nativeWordPressContent.getPost(), new Date());
+        } catch (PostNotFoundException e) {
+            contentMapper.mapForDelete(nativeWordPressContent.getPost().getUuid(), new Date(), transactionId);
+        } catch (IllegalArgumentException | WordPressContentException e) {
+            throw new ClientError.ClientErrorBuilder(SC_UNPROCESSABLE_ENTITY).error("Wordpress content is not valid").exception(e);
+        }
+    }
+}
@@ -1,16 +1,49 @@
 package com.ft.wordpressarticlemapper.configuration;
 
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
+import com.ft.wordpressarticlemapper.model.ResolvedPostMetadata;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Finds the configured blog for a URI: the first entry, in configuration order, whose host (which may include a leading
+ * path, e.g. {@code blogs.ft.com/the-world}) occurs in the URI's host and path.
+ * <p>
+ * Entries are indexed by host and first path segment when the manager is built. A URI is checked against the entries
+ * for its own host and blog first, and then only against the entries configured before the one found there, since one of
+ * those (a host-only entry, or one that merely occurs in the URI) would still win. URIs the index can't place fall back
+ * to checking every entry. Recent lookups are memoized, since the same URIs are resolved several times while mapping
+ * one article.
+ */
 public class BlogApiEndpointMetadataManager {
 
+    private static final int MEMO_SIZE = 1000;
+
     private final List<BlogApiEndpointMetadata> blogApiEndpointMetadata;
+    /** the positions in configuration order of the entries for each host and first path segment, in ascending order */
+    private final ImmutableListMultimap<String, Integer> index;
+    private final Cache<URI, Optional<BlogApiEndpointMetadata>> memo = CacheBuilder.newBuilder()
+            .maximumSize(MEMO_SIZE)
+            .build();
 
     public BlogApiEndpointMetadataManager(List<BlogApiEndpointMetadata> blogApiEndpointMetadata) {
-        this.blogApiEndpointMetadata = blogApiEndpointMetadata;
+        this.blogApiEndpointMetadata = ImmutableList.copyOf(blogApiEndpointMetadata);
+
+        ImmutableListMultimap.Builder<String, Integer> index = ImmutableListMultimap.builder();
+        for (int position = 0; position < this.blogApiEndpointMetadata.size(); position++) {
+            String configured = this.blogApiEndpointMetadata.get(position).getHost();
+            int slash = configured.indexOf('/');
+            String host = slash < 0 ? configured : configured.substring(0, slash);
+            String path = slash < 0 ? "" : configured.substring(slash);
+            index.put(indexKey(host, firstPathSegment(path)), position);
+        }
+        this.index = index.build();
     }
 
     public BlogApiEndpointMetadata getBlogApiEndpointMetadataByUri(URI requestUri) {
@@ -18,11 +51,64 @@ public class BlogApiEndpointMetadataManager {
             return null;
         }
 
-        for (BlogApiEndpointMetadata blogApiEndpointMetadata : this.blogApiEndpointMetadata) {
-            if (requestUri.getHost().concat(requestUri.getPath()).contains(blogApiEndpointMetadata.getHost())) {
-                return blogApiEndpointMetadata;
+        Optional<BlogApiEndpointMetadata> found = memo.getIfPresent(requestUri);
+        if (found == null) {
+            found = Optional.ofNullable(lookUp(requestUri));
+            memo.put(requestUri, found);
+        }
+        return found.orElse(null);
+    }
+
+    public ResolvedPostMetadata resolve(URI requestUri) {
+        return new ResolvedPostMetadata(requestUri, getBlogApiEndpointMetadataByUri(requestUri));
+    }
+
+    private BlogApiEndpointMetadata lookUp(URI requestUri) {
+        String host = requestUri.getHost();
+        String hostAndPath = host.concat(requestUri.getPath());
+
+        int found = blogApiEndpointMetadata.size();
+        String firstPathSegment = firstPathSegment(requestUri.getPath());
+        if (!firstPathSegment.isEmpty()) {
+            found = Math.min(found, firstMatch(index.get(indexKey(host, firstPathSegment)), hostAndPath));
+        }
+        found = Math.min(found, firstMatch(index.get(indexKey(host, "")), hostAndPath));
+
+        // an entry configured before the one found still wins, however it matches
+        for (int position = 0; position < found; position++) {
+            if (matches(position, hostAndPath)) {
+                return blogApiEndpointMetadata.get(position);
             }
         }
-        return null;
+        return (found < blogApiEndpointMetadata.size()) ? blogApiEndpointMetadata.get(found) : null;
+    }
+
+    /**
+     * @return the first of the positions whose entry matches, or the number of entries if none does
+     */
+    private int firstMatch(List<Integer> positions, String hostAndPath) {
+        for (int position : positions) {
+            if (matches(position, hostAndPath)) {
+                return position;
+            }
+        }
+        return blogApiEndpointMetadata.size();
+    }
+
+    private boolean matches(int position, String hostAndPath) {
+        return hostAndPath.contains(blogApiEndpointMetadata.get(position).getHost());
+    }
+
+    private static String indexKey(String host, String firstPathSegment) {
+        return host + "/" + firstPathSegment;
+    }
+
+    private static String firstPathSegment(String path) {
+        if (path == null) {
+            return "";
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
     }
 }
@@ -0,0 +1,41 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+public class BodyProcessingConfiguration {
+    private static final Duration DEFAULT_SLOW_BODY_THRESHOLD = Duration.seconds(1);
+
+    private final boolean singleParsePipeline;
+    private final Duration slowBodyThreshold;
+
+    public BodyProcessingConfiguration(@JsonProperty("singleParsePipeline") Boolean singleParsePipeline,
+                                       @JsonProperty("slowBodyThreshold") Duration slowBodyThreshold) {
+        this.singleParsePipeline = MoreObjects.firstNonNull(singleParsePipeline, Boolean.FALSE);
+        this.slowBodyThreshold = MoreObjects.firstNonNull(slowBodyThreshold, DEFAULT_SLOW_BODY_THRESHOLD);
+    }
+
+    public static BodyProcessingConfiguration defaults() {
+        return new BodyProcessingConfiguration(null, null);
+    }
+
+    public boolean isSingleParsePipeline() {
+        return singleParsePipeline;
+    }
+
+    /**
+     * @return how long a body may take to process before it is logged with the time taken by each stage
+     */
+    public Duration getSlowBodyThreshold() {
+        return slowBodyThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("singleParsePipeline", singleParsePipeline)
+                .add("slowBodyThreshold", slowBodyThreshold)
+                .toString();
+    }
+}
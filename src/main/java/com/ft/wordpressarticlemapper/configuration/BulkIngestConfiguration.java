@@ -0,0 +1,54 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+
+public class BulkIngestConfiguration {
+    private final int threadPoolSize;
+    private final int maxInFlight;
+    private final double maxItemsPerSecond;
+
+    public BulkIngestConfiguration(@JsonProperty("threadPoolSize") Integer threadPoolSize,
+                                   @JsonProperty("maxInFlight") Integer maxInFlight,
+                                   @JsonProperty("maxItemsPerSecond") Double maxItemsPerSecond) {
+        this.threadPoolSize = MoreObjects.firstNonNull(threadPoolSize, 8);
+        this.maxInFlight = MoreObjects.firstNonNull(maxInFlight, 16);
+        this.maxItemsPerSecond = MoreObjects.firstNonNull(maxItemsPerSecond, 20.0);
+    }
+
+    public static BulkIngestConfiguration defaults() {
+        return new BulkIngestConfiguration(null, null, null);
+    }
+
+    /**
+     * How many items, across all bulk ingest requests, are mapped and published at once. Each item waits for its
+     * message to be sent, so this is also the most messages that one batch of bulk ingest messages can hold.
+     */
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
+
+    /**
+     * How many items, across all bulk ingest requests, may be in progress or queued at once, and how many of one
+     * request's items may be waiting to be reported.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * How many items, across all bulk ingest requests, may be started each second, or 0 for no limit.
+     */
+    public double getMaxItemsPerSecond() {
+        return maxItemsPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("threadPoolSize", threadPoolSize)
+                .add("maxInFlight", maxInFlight)
+                .add("maxItemsPerSecond", maxItemsPerSecond)
+                .toString();
+    }
+}
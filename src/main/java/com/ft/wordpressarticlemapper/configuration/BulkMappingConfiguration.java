@@ -0,0 +1,42 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+
+public class BulkMappingConfiguration {
+    private final int threadPoolSize;
+    private final int maxInFlight;
+
+    public BulkMappingConfiguration(@JsonProperty("threadPoolSize") Integer threadPoolSize,
+                                    @JsonProperty("maxInFlight") Integer maxInFlight) {
+        this.threadPoolSize = MoreObjects.firstNonNull(threadPoolSize, 4);
+        this.maxInFlight = MoreObjects.firstNonNull(maxInFlight, 16);
+    }
+
+    public static BulkMappingConfiguration defaults() {
+        return new BulkMappingConfiguration(null, null);
+    }
+
+    /**
+     * How many items, across all bulk requests, are mapped at once.
+     */
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
+
+    /**
+     * How many items, across all bulk requests, may be mapped or queued at once, and how many of one request's items
+     * may be waiting to be written.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("threadPoolSize", threadPoolSize)
+                .add("maxInFlight", maxInFlight)
+                .toString();
+    }
+}
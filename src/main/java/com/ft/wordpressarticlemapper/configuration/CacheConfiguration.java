@@ -0,0 +1,39 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+public class CacheConfiguration {
+    private static final long DEFAULT_MAXIMUM_SIZE = 10000;
+    private static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.hours(1);
+
+    private final long maximumSize;
+    private final Duration expireAfterWrite;
+
+    public CacheConfiguration(@JsonProperty("maximumSize") Long maximumSize,
+                              @JsonProperty("expireAfterWrite") Duration expireAfterWrite) {
+        this.maximumSize = MoreObjects.firstNonNull(maximumSize, DEFAULT_MAXIMUM_SIZE);
+        this.expireAfterWrite = MoreObjects.firstNonNull(expireAfterWrite, DEFAULT_EXPIRE_AFTER_WRITE);
+    }
+
+    public static CacheConfiguration defaults() {
+        return new CacheConfiguration(null, null);
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("maximumSize", maximumSize)
+                .add("expireAfterWrite", expireAfterWrite)
+                .toString();
+    }
+}
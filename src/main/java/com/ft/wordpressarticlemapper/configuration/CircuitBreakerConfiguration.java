@@ -0,0 +1,54 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ft.wordpressarticlemapper.transformer.CircuitOpenPolicy;
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+public class CircuitBreakerConfiguration {
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.seconds(30);
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final CircuitOpenPolicy openPolicy;
+
+    public CircuitBreakerConfiguration(@JsonProperty("failureThreshold") Integer failureThreshold,
+                                       @JsonProperty("openDuration") Duration openDuration,
+                                       @JsonProperty("openPolicy") CircuitOpenPolicy openPolicy) {
+        this.failureThreshold = MoreObjects.firstNonNull(failureThreshold, DEFAULT_FAILURE_THRESHOLD);
+        this.openDuration = MoreObjects.firstNonNull(openDuration, DEFAULT_OPEN_DURATION);
+        this.openPolicy = MoreObjects.firstNonNull(openPolicy, CircuitOpenPolicy.LEAVE_UNRESOLVED);
+    }
+
+    public static CircuitBreakerConfiguration defaults() {
+        return new CircuitBreakerConfiguration(null, null, null);
+    }
+
+    /**
+     * @return how many consecutive calls to a dependency must fail for its breaker to open
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * @return how long a breaker stays open before a call is let through to probe the dependency
+     */
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public CircuitOpenPolicy getOpenPolicy() {
+        return openPolicy;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("failureThreshold", failureThreshold)
+                .add("openDuration", openDuration)
+                .add("openPolicy", openPolicy)
+                .toString();
+    }
+}
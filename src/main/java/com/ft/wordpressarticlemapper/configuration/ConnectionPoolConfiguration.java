@@ -0,0 +1,45 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+public class ConnectionPoolConfiguration {
+    private static final Duration DEFAULT_EVICTION_INTERVAL = Duration.seconds(10);
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.seconds(30);
+
+    private final Duration evictionInterval;
+    private final Duration idleTimeout;
+
+    public ConnectionPoolConfiguration(@JsonProperty("evictionInterval") Duration evictionInterval,
+                                       @JsonProperty("idleTimeout") Duration idleTimeout) {
+        this.evictionInterval = MoreObjects.firstNonNull(evictionInterval, DEFAULT_EVICTION_INTERVAL);
+        this.idleTimeout = MoreObjects.firstNonNull(idleTimeout, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public static ConnectionPoolConfiguration defaults() {
+        return new ConnectionPoolConfiguration(null, null);
+    }
+
+    /**
+     * @return how often expired and idle connections are closed
+     */
+    public Duration getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    /**
+     * @return how long a pooled connection may go unused before it is closed
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("evictionInterval", evictionInterval)
+                .add("idleTimeout", idleTimeout)
+                .toString();
+    }
+}
@@ -3,24 +3,39 @@ package com.ft.wordpressarticlemapper.configuration;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ft.message.consumer.config.HealthcheckConfiguration;
 import com.ft.message.consumer.config.MessageQueueConsumerConfiguration;
+import com.google.common.base.MoreObjects;
 import io.dropwizard.client.JerseyClientConfiguration;
+import io.dropwizard.util.Duration;
 
 public class ConsumerConfiguration {
 
+    private static final int DEFAULT_PARALLELISM = 1;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 32;
+    private static final Duration DEFAULT_COALESCE_WINDOW = Duration.milliseconds(0);
+
     private final JerseyClientConfiguration jerseyConfig;
     private final MessageQueueConsumerConfiguration consumerConfig;
     private final HealthcheckConfiguration healthcheckConfig;
     private final String systemCode;
+    private final int parallelism;
+    private final int maxInFlight;
+    private final Duration coalesceWindow;
 
     public ConsumerConfiguration(@JsonProperty("jerseyClient") JerseyClientConfiguration jerseyConfig,
                                  @JsonProperty("messageConsumer") MessageQueueConsumerConfiguration consumerConfig,
                                  @JsonProperty("healthCheck") HealthcheckConfiguration healthCheckConfig,
-                                 @JsonProperty("systemCode") String systemCode) {
+                                 @JsonProperty("systemCode") String systemCode,
+                                 @JsonProperty("parallelism") Integer parallelism,
+                                 @JsonProperty("maxInFlight") Integer maxInFlight,
+                                 @JsonProperty("coalesceWindow") Duration coalesceWindow) {
 
         this.jerseyConfig = jerseyConfig;
         this.consumerConfig = consumerConfig;
         this.healthcheckConfig = healthCheckConfig;
         this.systemCode = systemCode;
+        this.parallelism = MoreObjects.firstNonNull(parallelism, DEFAULT_PARALLELISM);
+        this.maxInFlight = MoreObjects.firstNonNull(maxInFlight, DEFAULT_MAX_IN_FLIGHT);
+        this.coalesceWindow = MoreObjects.firstNonNull(coalesceWindow, DEFAULT_COALESCE_WINDOW);
     }
 
     public JerseyClientConfiguration getJerseyClientConfiguration() {
@@ -38,4 +53,28 @@ public class ConsumerConfiguration {
     public String getSystemCode() {
         return systemCode;
     }
+
+    /**
+     * Number of posts mapped concurrently. Messages for the same post are always mapped in order; 1 maps every message
+     * on the consumer thread. Above 1, a message is acknowledged before it is mapped, so with auto-commit one that fails
+     * to map is logged and counted but not redelivered.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Number of consumed messages that may be waiting for or undergoing mapping before the consumer stops reading. With a
+     * coalesce window, it also caps the number of posts whose updates are held.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * How long updates to a post are held so that only the latest is mapped. Zero maps every update.
+     */
+    public Duration getCoalesceWindow() {
+        return coalesceWindow;
+    }
 }
@@ -0,0 +1,46 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+
+public class ContentReadBatchConfiguration {
+    private static final String DEFAULT_PATH = "/content/bulk";
+    private static final int DEFAULT_MAXIMUM_BATCH_SIZE = 50;
+
+    private final boolean enabled;
+    private final String path;
+    private final int maximumBatchSize;
+
+    public ContentReadBatchConfiguration(@JsonProperty("enabled") Boolean enabled,
+                                         @JsonProperty("path") String path,
+                                         @JsonProperty("maximumBatchSize") Integer maximumBatchSize) {
+        this.enabled = MoreObjects.firstNonNull(enabled, Boolean.FALSE);
+        this.path = MoreObjects.firstNonNull(path, DEFAULT_PATH);
+        this.maximumBatchSize = MoreObjects.firstNonNull(maximumBatchSize, DEFAULT_MAXIMUM_BATCH_SIZE);
+    }
+
+    public static ContentReadBatchConfiguration defaults() {
+        return new ContentReadBatchConfiguration(null, null, null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getMaximumBatchSize() {
+        return maximumBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("enabled", enabled)
+                .add("path", path)
+                .add("maximumBatchSize", maximumBatchSize)
+                .toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+public class ContentReadCacheConfiguration {
+    private static final long DEFAULT_MAXIMUM_SIZE = 10000;
+    private static final Duration DEFAULT_EXPIRE_FOUND_AFTER = Duration.minutes(30);
+    private static final Duration DEFAULT_EXPIRE_NOT_FOUND_AFTER = Duration.minutes(1);
+
+    private final long maximumSize;
+    private final Duration expireFoundAfter;
+    private final Duration expireNotFoundAfter;
+
+    public ContentReadCacheConfiguration(@JsonProperty("maximumSize") Long maximumSize,
+                                         @JsonProperty("expireFoundAfter") Duration expireFoundAfter,
+                                         @JsonProperty("expireNotFoundAfter") Duration expireNotFoundAfter) {
+        this.maximumSize = MoreObjects.firstNonNull(maximumSize, DEFAULT_MAXIMUM_SIZE);
+        this.expireFoundAfter = MoreObjects.firstNonNull(expireFoundAfter, DEFAULT_EXPIRE_FOUND_AFTER);
+        this.expireNotFoundAfter = MoreObjects.firstNonNull(expireNotFoundAfter, DEFAULT_EXPIRE_NOT_FOUND_AFTER);
+    }
+
+    public static ContentReadCacheConfiguration defaults() {
+        return new ContentReadCacheConfiguration(null, null, null);
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getExpireFoundAfter() {
+        return expireFoundAfter;
+    }
+
+    public Duration getExpireNotFoundAfter() {
+        return expireNotFoundAfter;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("maximumSize", maximumSize)
+                .add("expireFoundAfter", expireFoundAfter)
+                .add("expireNotFoundAfter", expireNotFoundAfter)
+                .toString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ft.wordpressarticlemapper.messaging.FingerprintMode;
+import com.google.common.base.MoreObjects;
+
+public class FingerprintConfiguration {
+    private final FingerprintMode mode;
+    private final CacheConfiguration storeConfiguration;
+
+    public FingerprintConfiguration(@JsonProperty("mode") FingerprintMode mode,
+                                    @JsonProperty("store") CacheConfiguration storeConfiguration) {
+        this.mode = MoreObjects.firstNonNull(mode, FingerprintMode.DISABLED);
+        this.storeConfiguration = MoreObjects.firstNonNull(storeConfiguration, CacheConfiguration.defaults());
+    }
+
+    public static FingerprintConfiguration defaults() {
+        return new FingerprintConfiguration(null, null);
+    }
+
+    public FingerprintMode getMode() {
+        return mode;
+    }
+
+    /**
+     * How many posts' fingerprints are kept, and for how long after each was last sent.
+     */
+    public CacheConfiguration getStoreConfiguration() {
+        return storeConfiguration;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("mode", mode)
+                .add("storeConfiguration", storeConfiguration)
+                .toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+public class ProducerBatchConfiguration {
+    private static final int DEFAULT_MAXIMUM_BATCH_SIZE = 50;
+    private static final Duration DEFAULT_LINGER = Duration.milliseconds(20);
+
+    private final boolean enabled;
+    private final int maximumBatchSize;
+    private final Duration linger;
+
+    public ProducerBatchConfiguration(@JsonProperty("enabled") Boolean enabled,
+                                      @JsonProperty("maximumBatchSize") Integer maximumBatchSize,
+                                      @JsonProperty("linger") Duration linger) {
+        this.enabled = MoreObjects.firstNonNull(enabled, Boolean.FALSE);
+        this.maximumBatchSize = MoreObjects.firstNonNull(maximumBatchSize, DEFAULT_MAXIMUM_BATCH_SIZE);
+        this.linger = MoreObjects.firstNonNull(linger, DEFAULT_LINGER);
+    }
+
+    public static ProducerBatchConfiguration defaults() {
+        return new ProducerBatchConfiguration(null, null, null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaximumBatchSize() {
+        return maximumBatchSize;
+    }
+
+    /**
+     * How long the first message of a batch waits for others to join it before the batch is sent.
+     */
+    public Duration getLinger() {
+        return linger;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("enabled", enabled)
+                .add("maximumBatchSize", maximumBatchSize)
+                .add("linger", linger)
+                .toString();
+    }
+}
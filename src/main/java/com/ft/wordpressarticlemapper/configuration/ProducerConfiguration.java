@@ -2,6 +2,7 @@ package com.ft.wordpressarticlemapper.configuration;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ft.messagequeueproducer.QueueProxyConfiguration;
+import com.google.common.base.MoreObjects;
 import io.dropwizard.client.JerseyClientConfiguration;
 
 public class ProducerConfiguration {
@@ -9,14 +10,17 @@ public class ProducerConfiguration {
     private final JerseyClientConfiguration jerseyConfig;
     private final QueueProxyConfiguration producerConfig;
     private final HealthcheckConfiguration healthcheckConfig;
+    private final ProducerBatchConfiguration batchConfig;
 
     public ProducerConfiguration(@JsonProperty("jerseyClient") JerseyClientConfiguration jerseyConfig,
                                  @JsonProperty("messageProducer") QueueProxyConfiguration producerConfig,
-                                 @JsonProperty("healthCheck") HealthcheckConfiguration healthcheckConfig) {
+                                 @JsonProperty("healthCheck") HealthcheckConfiguration healthcheckConfig,
+                                 @JsonProperty("batch") ProducerBatchConfiguration batchConfig) {
 
         this.jerseyConfig = jerseyConfig;
         this.producerConfig = producerConfig;
         this.healthcheckConfig = healthcheckConfig;
+        this.batchConfig = MoreObjects.firstNonNull(batchConfig, ProducerBatchConfiguration.defaults());
     }
 
     public JerseyClientConfiguration getJerseyClientConfiguration() {
@@ -30,4 +34,8 @@ public class ProducerConfiguration {
     public HealthcheckConfiguration getHealthcheckConfiguration() {
         return healthcheckConfig;
     }
+
+    public ProducerBatchConfiguration getBatchConfiguration() {
+        return batchConfig;
+    }
 }
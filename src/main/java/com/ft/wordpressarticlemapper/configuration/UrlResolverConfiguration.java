@@ -1,24 +1,46 @@
 package com.ft.wordpressarticlemapper.configuration;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ft.wordpressarticlemapper.transformer.ResolverSaturationPolicy;
+import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
 import io.dropwizard.client.JerseyClientConfiguration;
+import io.dropwizard.util.Duration;
 
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 public class UrlResolverConfiguration {
+    private static final int DEFAULT_QUEUE_SIZE = 256;
+    private static final Duration DEFAULT_LINK_RESOLUTION_BUDGET = Duration.seconds(10);
+
     private final Set<Pattern> patterns;
     private final JerseyClientConfiguration resolverConfiguration;
     private final ReaderConfiguration documentStoreConfiguration;
     private final ReaderConfiguration contentReadConfiguration;
     private final int threadPoolSize;
     private final int linksPerThread;
+    private final int queueSize;
+    private final ResolverSaturationPolicy saturationPolicy;
+    private final CacheConfiguration redirectCacheConfiguration;
+    private final ContentReadCacheConfiguration contentReadCacheConfiguration;
+    private final ContentReadBatchConfiguration contentReadBatchConfiguration;
+    private final ConnectionPoolConfiguration connectionPoolConfiguration;
+    private final Duration linkResolutionBudget;
+    private final CircuitBreakerConfiguration circuitBreakerConfiguration;
 
     public UrlResolverConfiguration(@JsonProperty("patterns") List<Pattern> patterns,
                                     @JsonProperty("threadPoolSize") int threadPoolSize,
                                     @JsonProperty("linksPerThread") int linksPerThread,
+                                    @JsonProperty("queueSize") Integer queueSize,
+                                    @JsonProperty("saturationPolicy") ResolverSaturationPolicy saturationPolicy,
+                                    @JsonProperty("redirectCache") CacheConfiguration redirectCacheConfiguration,
+                                    @JsonProperty("contentReadCache") ContentReadCacheConfiguration contentReadCacheConfiguration,
+                                    @JsonProperty("contentReadBatch") ContentReadBatchConfiguration contentReadBatchConfiguration,
+                                    @JsonProperty("connectionPool") ConnectionPoolConfiguration connectionPoolConfiguration,
+                                    @JsonProperty("linkResolutionBudget") Duration linkResolutionBudget,
+                                    @JsonProperty("circuitBreaker") CircuitBreakerConfiguration circuitBreakerConfiguration,
                                     @JsonProperty("resolverConfiguration") JerseyClientConfiguration resolverConfiguration,
                                     @JsonProperty("documentStoreConfiguration") ReaderConfiguration documentStoreConfiguration,
                                     @JsonProperty("contentReadConfiguration") ReaderConfiguration contentReadConfiguration) {
@@ -26,6 +48,14 @@ public class UrlResolverConfiguration {
         this.patterns = ImmutableSet.copyOf(patterns);
         this.threadPoolSize = threadPoolSize;
         this.linksPerThread = linksPerThread;
+        this.queueSize = MoreObjects.firstNonNull(queueSize, DEFAULT_QUEUE_SIZE);
+        this.saturationPolicy = MoreObjects.firstNonNull(saturationPolicy, ResolverSaturationPolicy.CALLER_RUNS);
+        this.redirectCacheConfiguration = MoreObjects.firstNonNull(redirectCacheConfiguration, CacheConfiguration.defaults());
+        this.contentReadCacheConfiguration = MoreObjects.firstNonNull(contentReadCacheConfiguration, ContentReadCacheConfiguration.defaults());
+        this.contentReadBatchConfiguration = MoreObjects.firstNonNull(contentReadBatchConfiguration, ContentReadBatchConfiguration.defaults());
+        this.connectionPoolConfiguration = MoreObjects.firstNonNull(connectionPoolConfiguration, ConnectionPoolConfiguration.defaults());
+        this.linkResolutionBudget = MoreObjects.firstNonNull(linkResolutionBudget, DEFAULT_LINK_RESOLUTION_BUDGET);
+        this.circuitBreakerConfiguration = MoreObjects.firstNonNull(circuitBreakerConfiguration, CircuitBreakerConfiguration.defaults());
         this.resolverConfiguration = resolverConfiguration;
         this.documentStoreConfiguration = documentStoreConfiguration;
         this.contentReadConfiguration = contentReadConfiguration;
@@ -47,6 +77,48 @@ public class UrlResolverConfiguration {
         return linksPerThread;
     }
 
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public ResolverSaturationPolicy getSaturationPolicy() {
+        return saturationPolicy;
+    }
+
+    public CacheConfiguration getRedirectCacheConfiguration() {
+        return redirectCacheConfiguration;
+    }
+
+    public ContentReadCacheConfiguration getContentReadCacheConfiguration() {
+        return contentReadCacheConfiguration;
+    }
+
+    public ContentReadBatchConfiguration getContentReadBatchConfiguration() {
+        return contentReadBatchConfiguration;
+    }
+
+    /**
+     * @return how the pooled connections of the resolver, document store and content read clients are evicted
+     */
+    public ConnectionPoolConfiguration getConnectionPoolConfiguration() {
+        return connectionPoolConfiguration;
+    }
+
+    /**
+     * @return how long the links of one body may take to resolve before the rest are left unresolved, or zero to wait
+     * for every link
+     */
+    public Duration getLinkResolutionBudget() {
+        return linkResolutionBudget;
+    }
+
+    /**
+     * @return the settings of each of the resolver's, document store's and content read's circuit breakers
+     */
+    public CircuitBreakerConfiguration getCircuitBreakerConfiguration() {
+        return circuitBreakerConfiguration;
+    }
+
     public ReaderConfiguration getDocumentStoreConfiguration() {
         return documentStoreConfiguration;
     }
@@ -5,6 +5,7 @@ import com.ft.bodyprocessing.richcontent.VideoSiteConfiguration;
 import com.ft.platform.dropwizard.AppInfo;
 import com.ft.platform.dropwizard.ConfigWithAppInfo;
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import io.dropwizard.Configuration;
 
@@ -20,6 +21,10 @@ public class WordPressArticleTransformerConfiguration extends Configuration impl
 
     private final List<VideoSiteConfiguration> videoSiteConfig;
     private final UrlResolverConfiguration urlResolverConfiguration;
+    private final BodyProcessingConfiguration bodyProcessingConfiguration;
+    private final FingerprintConfiguration fingerprintConfiguration;
+    private final BulkMappingConfiguration bulkMappingConfiguration;
+    private final BulkIngestConfiguration bulkIngestConfiguration;
     private final ConsumerConfiguration consumerConfiguration;
     private final ProducerConfiguration producerConfiguration;
     private final String contentUriPrefix;
@@ -29,6 +34,10 @@ public class WordPressArticleTransformerConfiguration extends Configuration impl
             @JsonProperty("blogApiEndpointMetadata") List<BlogApiEndpointMetadata> blogApiEndpointMetadataList,
             @JsonProperty("videoSiteConfig") List<VideoSiteConfiguration> videoSiteConfig,
             @JsonProperty("urlResolverConfiguration") final UrlResolverConfiguration urlResolverConfiguration,
+            @JsonProperty("bodyProcessing") BodyProcessingConfiguration bodyProcessingConfiguration,
+            @JsonProperty("fingerprint") FingerprintConfiguration fingerprintConfiguration,
+            @JsonProperty("bulkMapping") BulkMappingConfiguration bulkMappingConfiguration,
+            @JsonProperty("bulkIngest") BulkIngestConfiguration bulkIngestConfiguration,
             @JsonProperty("consumer") ConsumerConfiguration consumerConfiguration,
             @JsonProperty("producer") ProducerConfiguration producerConfiguration,
             @JsonProperty("contentUriPrefix") String contentUriPrefix,
@@ -38,6 +47,10 @@ public class WordPressArticleTransformerConfiguration extends Configuration impl
         this.hostToBrands = blogApiEndpointMetadataList;
         this.videoSiteConfig = videoSiteConfig;
         this.urlResolverConfiguration = urlResolverConfiguration;
+        this.bodyProcessingConfiguration = MoreObjects.firstNonNull(bodyProcessingConfiguration, BodyProcessingConfiguration.defaults());
+        this.fingerprintConfiguration = MoreObjects.firstNonNull(fingerprintConfiguration, FingerprintConfiguration.defaults());
+        this.bulkMappingConfiguration = MoreObjects.firstNonNull(bulkMappingConfiguration, BulkMappingConfiguration.defaults());
+        this.bulkIngestConfiguration = MoreObjects.firstNonNull(bulkIngestConfiguration, BulkIngestConfiguration.defaults());
         this.consumerConfiguration = consumerConfiguration;
         this.producerConfiguration = producerConfiguration;
         this.contentUriPrefix = contentUriPrefix;
@@ -59,12 +72,32 @@ public class WordPressArticleTransformerConfiguration extends Configuration impl
         return urlResolverConfiguration;
     }
 
+    public BodyProcessingConfiguration getBodyProcessingConfiguration() {
+        return bodyProcessingConfiguration;
+    }
+
+    public FingerprintConfiguration getFingerprintConfiguration() {
+        return fingerprintConfiguration;
+    }
+
+    public BulkMappingConfiguration getBulkMappingConfiguration() {
+        return bulkMappingConfiguration;
+    }
+
+    public BulkIngestConfiguration getBulkIngestConfiguration() {
+        return bulkIngestConfiguration;
+    }
+
     protected Objects.ToStringHelper toStringHelper() {
         return Objects.toStringHelper(this)
                 .add("super", super.toString())
                 .add("hostToBrands", hostToBrands)
                 .add("videoSiteConfig", videoSiteConfig)
-                .add("urlResolverConfiguration", urlResolverConfiguration);
+                .add("urlResolverConfiguration", urlResolverConfiguration)
+                .add("bodyProcessingConfiguration", bodyProcessingConfiguration)
+                .add("fingerprintConfiguration", fingerprintConfiguration)
+                .add("bulkMappingConfiguration", bulkMappingConfiguration)
+                .add("bulkIngestConfiguration", bulkIngestConfiguration);
     }
 
     @Override
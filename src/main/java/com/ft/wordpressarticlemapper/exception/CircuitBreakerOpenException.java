@@ -0,0 +1,7 @@
+package com.ft.wordpressarticlemapper.exception;
+
+public class CircuitBreakerOpenException extends RuntimeException {
+    public CircuitBreakerOpenException(String dependency) {
+        super(String.format("Circuit breaker for %s is open", dependency));
+    }
+}
@@ -3,6 +3,8 @@ package com.ft.wordpressarticlemapper.health;
 import com.ft.jerseyhttpwrapper.config.EndpointConfiguration;
 import com.ft.platform.dropwizard.AdvancedHealthCheck;
 import com.ft.platform.dropwizard.AdvancedResult;
+import com.ft.wordpressarticlemapper.transformer.CircuitBreaker;
+import com.google.common.collect.ImmutableList;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
 import org.slf4j.Logger;
@@ -10,6 +12,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class RemoteServiceDependencyHealthCheck extends AdvancedHealthCheck {
 
@@ -21,11 +26,24 @@ public class RemoteServiceDependencyHealthCheck extends AdvancedHealthCheck {
     private final String remoteHost;
     private final String businessImpact;
     private final String panicGuideUrl;
+    private final List<CircuitBreaker> circuitBreakers;
     
     public RemoteServiceDependencyHealthCheck(String remoteServiceName, String remoteServiceHost,
                                               String businessImpact, String panicGuideUrl,
                                               Client client, EndpointConfiguration endpointConfiguration) {
-      
+        this(remoteServiceName, remoteServiceHost, businessImpact, panicGuideUrl, client, endpointConfiguration,
+                Collections.emptyList());
+    }
+
+    /**
+     * @param circuitBreakers the breakers around the calls made to the service, any of which being open or half open
+     *                        makes the service unhealthy even though it answers its ping
+     */
+    public RemoteServiceDependencyHealthCheck(String remoteServiceName, String remoteServiceHost,
+                                              String businessImpact, String panicGuideUrl,
+                                              Client client, EndpointConfiguration endpointConfiguration,
+                                              List<CircuitBreaker> circuitBreakers) {
+
         super(String.format("%s is up and running", remoteServiceName));
         this.remoteServiceName = remoteServiceName;
         this.remoteHost = remoteServiceHost;
@@ -33,6 +51,7 @@ public class RemoteServiceDependencyHealthCheck extends AdvancedHealthCheck {
         this.panicGuideUrl = panicGuideUrl;
         this.endpointConfiguration = endpointConfiguration;
         this.client = client;
+        this.circuitBreakers = ImmutableList.copyOf(circuitBreakers);
     }
 
     @Override
@@ -55,6 +74,14 @@ public class RemoteServiceDependencyHealthCheck extends AdvancedHealthCheck {
                 return reportUnhealthy(message);
             }
 
+            String tripped = circuitBreakers.stream()
+                    .filter(circuitBreaker -> circuitBreaker.getState() != CircuitBreaker.State.CLOSED)
+                    .map(circuitBreaker -> circuitBreaker.getDependency() + " is " + circuitBreaker.getState())
+                    .collect(Collectors.joining(", "));
+            if (!tripped.isEmpty()) {
+                return reportUnhealthy("Circuit breaker for " + tripped);
+            }
+
             return AdvancedResult.healthy();
 
         } catch (Throwable e) {
@@ -90,6 +117,10 @@ public class RemoteServiceDependencyHealthCheck extends AdvancedHealthCheck {
 
     @Override
     protected String technicalSummary() {
-        return String.format("Tests that the /__health endpoint for the %s returns 200 HTTP status response", remoteServiceName);
+        if (circuitBreakers.isEmpty()) {
+            return String.format("Tests that the /__health endpoint for the %s returns 200 HTTP status response", remoteServiceName);
+        }
+        return String.format("Tests that the /__health endpoint for the %s returns 200 HTTP status response, and that "
+                + "the circuit breakers around calls to it are closed", remoteServiceName);
     }
 }
@@ -0,0 +1,202 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Gathers the messages sent by concurrent mappings into batches, so that one request to the queue proxy carries many
+ * messages. A batch is sent once it reaches {@code maximumBatchSize} messages or its first message has waited
+ * {@code linger}, whichever comes first.
+ * <p>
+ * {@link #send} still waits for the caller's messages to be sent and throws if the batch they went in failed, so
+ * callers handle errors as they would with the underlying producer. Before {@link #start()} and after
+ * {@link #stop()}, messages are sent directly.
+ */
+public class BatchingMessageProducer implements MessageProducer, Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchingMessageProducer.class);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final MessageProducer delegate;
+    private final int maximumBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<PendingSend> pending = new LinkedBlockingQueue<>();
+    private final ExecutorService sender;
+    private final Object lock = new Object();
+    private final Histogram batchSize;
+    private final Histogram linger;
+
+    private boolean running;
+
+    public BatchingMessageProducer(MessageProducer delegate, int maximumBatchSize, long linger, TimeUnit lingerUnit,
+                                   MetricRegistry metrics) {
+        this(null, delegate, maximumBatchSize, linger, lingerUnit, metrics);
+    }
+
+    /**
+     * @param name distinguishes this producer's sender thread and metrics from those of other batching producers, or
+     *             null for none
+     */
+    public BatchingMessageProducer(String name, MessageProducer delegate, int maximumBatchSize, long linger,
+                                   TimeUnit lingerUnit, MetricRegistry metrics) {
+        this.delegate = delegate;
+        this.maximumBatchSize = maximumBatchSize;
+        this.lingerNanos = lingerUnit.toNanos(linger);
+        this.sender = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat((name == null) ? "message-batcher-%d" : "message-batcher-" + name + "-%d")
+                .setDaemon(true)
+                .build());
+        this.batchSize = metrics.histogram(name(BatchingMessageProducer.class, name, "batch-size"));
+        this.linger = metrics.histogram(name(BatchingMessageProducer.class, name, "linger-millis"));
+    }
+
+    @Override
+    public void send(List<Message> messages) {
+        try {
+            sendAsync(messages).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("unable to send messages", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for messages to be sent", e);
+        }
+    }
+
+    /**
+     * Adds the messages to the next batch, returning a future that completes when that batch has been sent.
+     */
+    public CompletableFuture<Void> sendAsync(List<Message> messages) {
+        synchronized (lock) {
+            if (running) {
+                PendingSend send = new PendingSend(messages);
+                pending.add(send);
+                return send.sent;
+            }
+        }
+
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        try {
+            delegate.send(messages);
+            sent.complete(null);
+        } catch (RuntimeException e) {
+            sent.completeExceptionally(e);
+        }
+        return sent;
+    }
+
+    @Override
+    public void start() throws Exception {
+        synchronized (lock) {
+            running = true;
+        }
+        sender.execute(this::sendBatches);
+    }
+
+    /**
+     * Stops batching and waits for the messages already gathered to be sent.
+     */
+    @Override
+    public void stop() throws Exception {
+        synchronized (lock) {
+            running = false;
+        }
+        sender.shutdown();
+        if (!sender.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOG.warn("message batcher did not finish within {}s, abandoning {} pending sends",
+                    SHUTDOWN_TIMEOUT_SECONDS, pending.size());
+            sender.shutdownNow();
+        }
+    }
+
+    private void sendBatches() {
+        try {
+            while (isRunning() || !pending.isEmpty()) {
+                PendingSend first = pending.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    sendBatch(gatherBatch(first));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        RuntimeException abandoned = new IllegalStateException("message batcher was stopped before the messages were sent");
+        for (PendingSend send = pending.poll(); send != null; send = pending.poll()) {
+            send.sent.completeExceptionally(abandoned);
+        }
+    }
+
+    private List<PendingSend> gatherBatch(PendingSend first) throws InterruptedException {
+        List<PendingSend> batch = new ArrayList<>();
+        batch.add(first);
+        int messageCount = first.messages.size();
+
+        long deadline = first.queuedAt + lingerNanos;
+        while (messageCount < maximumBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingSend next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            messageCount += next.messages.size();
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<PendingSend> batch) {
+        List<Message> messages = new ArrayList<>();
+        batch.forEach(send -> messages.addAll(send.messages));
+
+        batchSize.update(messages.size());
+        linger.update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batch.get(0).queuedAt));
+
+        try {
+            delegate.send(messages);
+        } catch (RuntimeException e) {
+            LOG.warn("failed to send batch of {} messages", messages.size(), e);
+            batch.forEach(send -> send.sent.completeExceptionally(e));
+            return;
+        }
+        batch.forEach(send -> send.sent.complete(null));
+    }
+
+    private boolean isRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    private static class PendingSend {
+        private final List<Message> messages;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<Void> sent = new CompletableFuture<>();
+
+        private PendingSend(List<Message> messages) {
+            this.messages = messages;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ft.wordpressarticlemapper.model.WordPressContent;
+import com.ft.wordpressarticlemapper.response.Post;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.dropwizard.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Remembers, for each recently sent post, a fingerprint of the post as it was received and of the content it was mapped
+ * to, so that publishing the same post again can be recognised and suppressed.
+ * <p>
+ * The content fingerprint leaves out the fields that change on every publish even when nothing else does:
+ * {@code lastModified} and {@code publishReference}. Fingerprints are only recorded once the content has been sent, and
+ * are forgotten when the post is deleted.
+ */
+public class ContentFingerprints {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentFingerprints.class);
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    private static final List<String> VOLATILE_FIELDS = Arrays.asList("lastModified", "publishReference");
+
+    private final FingerprintMode mode;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Fingerprint> sent;
+    private final Meter suppressedMappings;
+    private final Meter suppressedSends;
+
+    public ContentFingerprints(FingerprintMode mode, long maximumSize, Duration expireAfterWrite,
+                               ObjectMapper objectMapper, MetricRegistry metrics) {
+        this.mode = mode;
+        this.objectMapper = objectMapper;
+        this.sent = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite.toMilliseconds(), TimeUnit.MILLISECONDS)
+                .build();
+        this.suppressedMappings = metrics.meter(name(ContentFingerprints.class, "suppressed-mappings"));
+        this.suppressedSends = metrics.meter(name(ContentFingerprints.class, "suppressed-sends"));
+    }
+
+    /**
+     * @return the post's fingerprint, or null if it could not be serialized
+     */
+    public HashCode ofPost(Post post) {
+        try {
+            return HASH.hashBytes(objectMapper.writeValueAsBytes(post));
+        } catch (JsonProcessingException e) {
+            LOG.warn("unable to fingerprint post uuid={}", post.getUuid(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the fingerprint of the content without its volatile fields, or null if it could not be serialized
+     */
+    public HashCode ofContent(WordPressContent content) {
+        try {
+            ObjectNode tree = objectMapper.valueToTree(content);
+            tree.remove(VOLATILE_FIELDS);
+            return HASH.hashBytes(objectMapper.writeValueAsBytes(tree));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            LOG.warn("unable to fingerprint content uuid={}", content.getUuid(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Whether the post can be left unmapped, because mapping is being skipped and the post is the same as when it was
+     * last sent.
+     */
+    public boolean isMappingSuppressed(String uuid, HashCode postFingerprint) {
+        if (mode != FingerprintMode.SKIP_MAPPING) {
+            return false;
+        }
+
+        Fingerprint last = sent.getIfPresent(uuid);
+        if (last == null || postFingerprint == null || !postFingerprint.equals(last.post)) {
+            return false;
+        }
+        suppressedMappings.mark();
+        return true;
+    }
+
+    /**
+     * Whether the content can be left unsent, because it is the same as was last sent for the post.
+     */
+    public boolean isSendSuppressed(String uuid, HashCode contentFingerprint) {
+        if (mode == FingerprintMode.DISABLED) {
+            return false;
+        }
+
+        Fingerprint last = sent.getIfPresent(uuid);
+        if (last == null || contentFingerprint == null || !contentFingerprint.equals(last.content)) {
+            return false;
+        }
+        suppressedSends.mark();
+        return true;
+    }
+
+    public void recordSent(String uuid, HashCode postFingerprint, HashCode contentFingerprint) {
+        if (uuid == null || contentFingerprint == null) {
+            return;
+        }
+        sent.put(uuid, new Fingerprint(postFingerprint, contentFingerprint));
+    }
+
+    public void forget(String uuid) {
+        if (uuid != null) {
+            sent.invalidate(uuid);
+        }
+    }
+
+    private static class Fingerprint {
+        private final HashCode post;
+        private final HashCode content;
+
+        private Fingerprint(HashCode post, HashCode content) {
+            this.post = post;
+            this.content = content;
+        }
+    }
+}
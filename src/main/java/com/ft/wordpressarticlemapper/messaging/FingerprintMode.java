@@ -0,0 +1,20 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+/**
+ * What {@link MessageProducingContentMapper} skips when a post is published again unchanged.
+ */
+public enum FingerprintMode {
+    /**
+     * Map and send every publish.
+     */
+    DISABLED,
+    /**
+     * Map every publish, but don't send content that maps to the same payload as was last sent for the post.
+     */
+    SKIP_SEND,
+    /**
+     * As {@link #SKIP_SEND}, and also don't map a post whose fields are the same as when it was last sent. Links in the
+     * body are then not resolved again until the post changes or its fingerprint expires.
+     */
+    SKIP_MAPPING
+}
@@ -0,0 +1,85 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ft.wordpressarticlemapper.model.WordPressContent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the JSON body of a CmsPublicationEvents message: the content URI, the last-modified date and, for a publish,
+ * the mapped content as its payload.
+ * <p>
+ * The body is generated field by field into a per-thread buffer that is reused from one message to the next, and decoded
+ * into a String once, so neither the wrapping map nor a second copy of a large live-blog body is ever built. The payload
+ * is written with an {@link ObjectWriter} cached for its content type.
+ */
+public class MessageBodyWriter {
+
+    /**
+     * A buffer that grew beyond this while writing one large body is not kept for the next.
+     */
+    private static final int MAX_RETAINED_BUFFER_BYTES = 1024 * 1024;
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final Map<Class<?>, ObjectWriter> payloadWriters = new ConcurrentHashMap<>();
+    private final ThreadLocal<ReusableBuffer> buffers = ThreadLocal.withInitial(ReusableBuffer::new);
+
+    public MessageBodyWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public String write(String contentUri, String lastModified) throws IOException {
+        return write(contentUri, lastModified, null);
+    }
+
+    /**
+     * @param payload the mapped content, or null to leave the payload out
+     */
+    public String write(String contentUri, String lastModified, WordPressContent payload) throws IOException {
+        ReusableBuffer buffer = buffers.get();
+        try {
+            try (JsonGenerator generator = jsonFactory.createGenerator(buffer, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeStringField("contentUri", contentUri);
+                generator.writeStringField("lastModified", lastModified);
+                if (payload != null) {
+                    generator.writeFieldName("payload");
+                    payloadWriterFor(payload).writeValue(generator, payload);
+                }
+                generator.writeEndObject();
+            }
+            return buffer.toString(StandardCharsets.UTF_8.name());
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_BYTES) {
+                buffers.remove();
+            } else {
+                buffer.reset();
+            }
+        }
+    }
+
+    private ObjectWriter payloadWriterFor(WordPressContent payload) {
+        return payloadWriters.computeIfAbsent(payload.getClass(), objectMapper::writerWithType);
+    }
+
+    private static class ReusableBuffer extends ByteArrayOutputStream {
+        private ReusableBuffer() {
+            super(INITIAL_BUFFER_BYTES);
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.ft.messaging.standards.message.v1.Message;
+import com.ft.messaging.standards.message.v1.SystemId;
+import com.ft.wordpressarticlemapper.response.WordPressPostType;
+import com.ft.wordpressarticlemapper.response.WordPressStatus;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Decides cheaply whether a consumed message is worth reading in full, so that other systems' traffic on the topic and
+ * posts that would only be rejected by validation are dropped before the message body is bound.
+ * <p>
+ * Headers are checked first. The body is then scanned for just the top-level {@code status} and the post's
+ * {@code type}: other values are skipped over without being decoded, and the scan stops as soon as both are known.
+ * Only a post whose status is {@code ok} can be dropped for its type, since deletes arrive as errors that may not name
+ * a type. A body that can't be scanned is passed on, for the full read to report. Each dropped message is counted under
+ * its {@link SkipReason}.
+ */
+public class MessagePreFilter {
+
+    public enum SkipReason {
+        /**
+         * The message was published by another system.
+         */
+        FOREIGN_ORIGIN,
+        /**
+         * The message declares a content type other than JSON.
+         */
+        UNSUPPORTED_CONTENT_TYPE,
+        /**
+         * The WordPress status is neither ok nor error. Such a message is acknowledged and dropped, where it used to fail
+         * validation with an {@link com.ft.wordpressarticlemapper.exception.UnexpectedStatusFieldException}; it is
+         * logged as a warning, since it means the native store is sending something this mapper does not understand.
+         */
+        UNEXPECTED_STATUS,
+        /**
+         * The post is of a type that is not mapped.
+         */
+        UNSUPPORTED_POST_TYPE;
+
+        private String metricName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final Set<String> SUPPORTED_POST_TYPES = WordPressPostType.stringValues();
+
+    private final SystemId systemId;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Map<SkipReason, Meter> skipped = new EnumMap<>(SkipReason.class);
+
+    public MessagePreFilter(String systemCode, MetricRegistry metrics) {
+        this.systemId = SystemId.systemIdFromCode(systemCode);
+        for (SkipReason reason : SkipReason.values()) {
+            skipped.put(reason, metrics.meter(name(MessagePreFilter.class, "skipped", reason.metricName())));
+        }
+    }
+
+    /**
+     * @return why the message should not be processed, or empty if it should be read in full
+     */
+    public Optional<SkipReason> reasonToSkip(Message message) {
+        Optional<SkipReason> reason = check(message);
+        reason.ifPresent(r -> skipped.get(r).mark());
+        return reason;
+    }
+
+    private Optional<SkipReason> check(Message message) {
+        if (!systemId.equals(message.getOriginSystemId())) {
+            return Optional.of(SkipReason.FOREIGN_ORIGIN);
+        }
+
+        Object contentType = message.getContentType();
+        if (contentType != null && !contentType.toString().toLowerCase(Locale.ROOT).startsWith(JSON_CONTENT_TYPE)) {
+            return Optional.of(SkipReason.UNSUPPORTED_CONTENT_TYPE);
+        }
+
+        String body = message.getMessageBody();
+        if (body == null) {
+            return Optional.empty();
+        }
+
+        Scan scan;
+        try {
+            scan = scan(body);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+
+        if (scan.status == null || WordPressStatus.error.name().equals(scan.status)) {
+            return Optional.empty();
+        }
+        if (!WordPressStatus.ok.name().equals(scan.status)) {
+            return Optional.of(SkipReason.UNEXPECTED_STATUS);
+        }
+        if (scan.postType != null && !SUPPORTED_POST_TYPES.contains(scan.postType)) {
+            return Optional.of(SkipReason.UNSUPPORTED_POST_TYPE);
+        }
+        return Optional.empty();
+    }
+
+    private Scan scan(String body) throws IOException {
+        Scan scan = new Scan();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return scan;
+            }
+
+            while (!scan.isComplete() && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("status".equals(field) && value == JsonToken.VALUE_STRING) {
+                    scan.status = parser.getText();
+                } else if ("post".equals(field) && value == JsonToken.START_OBJECT) {
+                    scan.postType = scanPostType(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return scan;
+    }
+
+    private String scanPostType(JsonParser parser) throws IOException {
+        String type = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                type = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return type;
+    }
+
+    private static class Scan {
+        private String status;
+        private String postType;
+
+        private boolean isComplete() {
+            return status != null && (postType != null || !WordPressStatus.ok.name().equals(status));
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.ft.wordpressarticlemapper.messaging;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ft.messagequeueproducer.MessageProducer;
 import com.ft.messagequeueproducer.model.KeyedMessage;
@@ -13,18 +12,18 @@ import com.ft.wordpressarticlemapper.response.WordPressPostType;
 import com.ft.wordpressarticlemapper.transformer.WordPressBlogPostContentMapper;
 import com.ft.wordpressarticlemapper.transformer.WordPressContentMapper;
 import com.ft.wordpressarticlemapper.transformer.WordPressLiveBlogContentMapper;
+import com.google.common.hash.HashCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.UriBuilder;
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.ResolverStyle;
 import java.util.Collections;
 import java.util.Date;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -39,71 +38,119 @@ public class MessageProducingContentMapper {
             DateTimeFormatter.ISO_OFFSET_DATE_TIME.withResolverStyle(ResolverStyle.STRICT);
 
     private final MessageProducer producer;
-    private final ObjectMapper objectMapper;
+    private final MessageBodyWriter messageBodyWriter;
     private final String systemId;
     private final UriBuilder contentUriBuilder;
     private final WordPressBlogPostContentMapper blogTransformer;
     private final WordPressLiveBlogContentMapper liveBlogTransformer;
+    private final ContentFingerprints fingerprints;
 
     public MessageProducingContentMapper(WordPressBlogPostContentMapper blogTransformer,
                                          WordPressLiveBlogContentMapper liveBlogTransformer,
                                          ObjectMapper objectMapper, String systemId,
                                          MessageProducer producer, UriBuilder contentUriBuilder) {
+        this(blogTransformer, liveBlogTransformer, objectMapper, systemId, producer, contentUriBuilder, null);
+    }
+
+    /**
+     * @param fingerprints recognises unchanged republishes, or null to map and send every publish
+     */
+    public MessageProducingContentMapper(WordPressBlogPostContentMapper blogTransformer,
+                                         WordPressLiveBlogContentMapper liveBlogTransformer,
+                                         ObjectMapper objectMapper, String systemId,
+                                         MessageProducer producer, UriBuilder contentUriBuilder,
+                                         ContentFingerprints fingerprints) {
         this.blogTransformer = blogTransformer;
         this.liveBlogTransformer = liveBlogTransformer;
-        this.objectMapper = objectMapper;
+        this.messageBodyWriter = new MessageBodyWriter(objectMapper);
         this.systemId = systemId;
         this.producer = producer;
         this.contentUriBuilder = contentUriBuilder;
+        this.fingerprints = fingerprints;
     }
 
+    /**
+     * Maps the post without sending it.
+     */
+    public WordPressContent map(String transactionId, Post post, Date lastModified) {
+        return mapperFor(post).mapWordPressArticle(transactionId, post, lastModified);
+    }
+
+    /**
+     * @return the mapped content, or null if the post was unchanged and mapping it was skipped
+     */
     public WordPressContent mapForPublish(String transactionId, Post post, Date lastModified) {
+        if (fingerprints == null) {
+            WordPressContent content = mapperFor(post).mapWordPressArticle(transactionId, post, lastModified);
+            send(content);
+            return content;
+        }
+
+        String uuid = post.getUuid();
+        HashCode postFingerprint = fingerprints.ofPost(post);
+        if (fingerprints.isMappingSuppressed(uuid, postFingerprint)) {
+            LOG.info("post uuid={} is unchanged since it was last sent, not mapping it", uuid);
+            return null;
+        }
+
         WordPressContent content = mapperFor(post).mapWordPressArticle(transactionId, post, lastModified);
+        HashCode contentFingerprint = fingerprints.ofContent(content);
+        if (fingerprints.isSendSuppressed(uuid, contentFingerprint)) {
+            LOG.info("content uuid={} is unchanged since it was last sent, not sending it", uuid);
+        } else {
+            send(content);
+        }
+        fingerprints.recordSent(uuid, postFingerprint, contentFingerprint);
+        return content;
+    }
+
+    private void send(WordPressContent content) {
         List<WordPressContent> contents = Collections.singletonList(content);
         producer.send(contents.stream().map(this::createMessageForPublish).collect(Collectors.toList()));
         LOG.info("sent {} messages", contents.size());
-        return content;
     }
 
     public void mapForDelete(String uuid, Date lastModifiedDate, String transactionId) {
-        Map<String, Object> messageBody = getCommonMessageBody(uuid, lastModifiedDate);
+        if (fingerprints != null) {
+            fingerprints.forget(uuid);
+        }
 
         try {
-            Message msg = getMessage(messageBody, uuid, transactionId);
-            producer.send(Collections.singletonList(msg));
-        } catch (JsonProcessingException e) {
-            handleJsonProcessingException(e);
+            String messageBody = messageBodyWriter.write(contentUri(uuid), formatLastModified(lastModifiedDate));
+            producer.send(Collections.singletonList(getMessage(messageBody, uuid, transactionId)));
+        } catch (IOException e) {
+            handleSerializationException(e);
         }
     }
 
-    private Map<String, Object> getCommonMessageBody(String uuid, Date lastModifiedDate) {
-        Map<String, Object> messageBody = new LinkedHashMap<>();
-        messageBody.put("contentUri", contentUriBuilder.build(uuid).toString());
-        messageBody.put("lastModified", RFC3339_FMT.format(OffsetDateTime.ofInstant(lastModifiedDate.toInstant(), UTC)));
-        return messageBody;
+    private String contentUri(String uuid) {
+        return contentUriBuilder.build(uuid).toString();
+    }
+
+    private String formatLastModified(Date lastModifiedDate) {
+        return RFC3339_FMT.format(OffsetDateTime.ofInstant(lastModifiedDate.toInstant(), UTC));
     }
 
     private Message createMessageForPublish(WordPressContent content) {
         Message msg = null;
         String uuid = content.getUuid();
-        Map<String, Object> messageBody = getCommonMessageBody(uuid, content.getLastModified());
-        messageBody.put("payload", content);
 
         try {
+            String messageBody = messageBodyWriter.write(contentUri(uuid), formatLastModified(content.getLastModified()), content);
             msg = getMessage(messageBody, uuid, content.getPublishReference());
-        } catch (JsonProcessingException e) {
-            handleJsonProcessingException(e);
+        } catch (IOException e) {
+            handleSerializationException(e);
         }
         return msg;
     }
 
-    private Message getMessage(Map<String, Object> messageBody, String uuid, String transactionId) throws JsonProcessingException {
+    private Message getMessage(String messageBody, String uuid, String transactionId) {
         Message msg = new Message.Builder().withMessageId(UUID.randomUUID())
                 .withMessageType(CMS_CONTENT_PUBLISHED)
                 .withMessageTimestamp(new Date())
                 .withOriginSystemId(systemId)
                 .withContentType("application/json")
-                .withMessageBody(objectMapper.writeValueAsString(messageBody))
+                .withMessageBody(messageBody)
                 .build();
 
         msg.addCustomMessageHeader(TRANSACTION_ID_HEADER, transactionId);
@@ -134,7 +181,7 @@ public class MessageProducingContentMapper {
         }
     }
 
-    private void handleJsonProcessingException(JsonProcessingException e) {
+    private void handleSerializationException(IOException e) {
         LOG.error("unable to write JSON for message", e);
         throw new WordPressContentException("unable to write JSON for message", e);
     }
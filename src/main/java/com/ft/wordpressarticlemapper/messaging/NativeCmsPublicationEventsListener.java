@@ -1,48 +1,74 @@
 package com.ft.wordpressarticlemapper.messaging;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ft.message.consumer.MessageListener;
 import com.ft.messaging.standards.message.v1.Message;
-import com.ft.messaging.standards.message.v1.SystemId;
 import com.ft.wordpressarticlemapper.exception.PostNotFoundException;
 import com.ft.wordpressarticlemapper.exception.WordPressContentException;
 import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
+import com.ft.wordpressarticlemapper.response.Post;
 import com.ft.wordpressarticlemapper.validation.NativeWordPressContentValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Date;
-import java.util.function.Predicate;
+import java.util.Optional;
 
 public class NativeCmsPublicationEventsListener implements MessageListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(NativeCmsPublicationEventsListener.class);
 
-    private final Predicate<Message> filter;
-    private final ObjectMapper objectMapper;
-    private final SystemId systemId;
+    private final MessagePreFilter preFilter;
+    private final NativeWordPressContentReader contentReader;
     private final MessageProducingContentMapper contentMapper;
     private final NativeWordPressContentValidator nativeWordPressContentValidator;
+    private final PartitionedMessageDispatcher dispatcher;
+    private final SupersededUpdateCoalescer coalescer;
 
     public NativeCmsPublicationEventsListener(MessageProducingContentMapper contentMapper,
                                               ObjectMapper objectMapper,
                                               String systemCode,
                                               NativeWordPressContentValidator nativeWordPressContentValidator) {
+        this(contentMapper, objectMapper, new MessagePreFilter(systemCode, new MetricRegistry()),
+                nativeWordPressContentValidator, null, null);
+    }
+
+    /**
+     * @param preFilter  drops messages that need not be read in full
+     * @param dispatcher maps messages on partitions keyed by post UUID, or null to map them on the consumer thread;
+     *                   a message that then fails to map has already been acknowledged, and is not redelivered
+     * @param coalescer  holds messages so that only the latest for each post is mapped, or null to map every message;
+     *                   it hands the latest to the same dispatcher
+     */
+    public NativeCmsPublicationEventsListener(MessageProducingContentMapper contentMapper,
+                                              ObjectMapper objectMapper,
+                                              MessagePreFilter preFilter,
+                                              NativeWordPressContentValidator nativeWordPressContentValidator,
+                                              PartitionedMessageDispatcher dispatcher,
+                                              SupersededUpdateCoalescer coalescer) {
         this.contentMapper = contentMapper;
-        this.systemId = SystemId.systemIdFromCode(systemCode);
-        this.filter = msg -> (systemId.equals(msg.getOriginSystemId()));
-        this.objectMapper = objectMapper;
+        this.preFilter = preFilter;
+        this.contentReader = new NativeWordPressContentReader(objectMapper);
         this.nativeWordPressContentValidator = nativeWordPressContentValidator;
+        this.dispatcher = dispatcher;
+        this.coalescer = coalescer;
     }
 
     @Override
     public boolean onMessage(Message message, String transactionId) {
-        if (filter.test(message)) {
+        Optional<MessagePreFilter.SkipReason> skipReason = preFilter.reasonToSkip(message);
+        if (skipReason.isPresent()) {
+            if (skipReason.get() == MessagePreFilter.SkipReason.UNEXPECTED_STATUS) {
+                LOG.warn("Skip message from [{}] with transaction_id={}, reason={}", message.getOriginSystemId(),
+                        transactionId, skipReason.get());
+            } else {
+                LOG.info("Skip message from [{}], reason={}", message.getOriginSystemId(), skipReason.get());
+            }
+        } else {
             LOG.info("process message");
             handleMessage(message, transactionId);
-        } else {
-            LOG.info("Skip message from [{}]", message.getOriginSystemId());
         }
         return true;
     }
@@ -52,15 +78,35 @@ public class NativeCmsPublicationEventsListener implements MessageListener {
         Date lastModified = message.getMessageTimestamp();
 
         try {
-            content = objectMapper.reader(NativeWordPressContent.class).readValue(message.getMessageBody());
-            try {
-                nativeWordPressContentValidator.validate(content);
-                contentMapper.mapForPublish(transactionId, content.getPost(), lastModified);
-            } catch (PostNotFoundException e) {
-                contentMapper.mapForDelete(content.getPost().getUuid(), lastModified, transactionId);
-            }
+            content = contentReader.read(message.getMessageBody());
         } catch (IOException e) {
             throw new WordPressContentException("Unable to parse Wordpress content message", e);
         }
+
+        Post post = content.getPost();
+        String uuid = post == null ? null : post.getUuid();
+        Runnable mapping = () -> mapContent(content, lastModified, transactionId);
+
+        try {
+            if (coalescer != null && uuid != null) {
+                coalescer.submit(uuid, lastModified, content.getLastModified(), mapping);
+            } else if (dispatcher == null) {
+                mapping.run();
+            } else {
+                dispatcher.dispatch(uuid, mapping);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WordPressContentException("Interrupted while waiting to process Wordpress content message", e);
+        }
+    }
+
+    private void mapContent(NativeWordPressContent content, Date lastModified, String transactionId) {
+        try {
+            nativeWordPressContentValidator.validate(content);
+            contentMapper.mapForPublish(transactionId, content.getPost(), lastModified);
+        } catch (PostNotFoundException e) {
+            contentMapper.mapForDelete(content.getPost().getUuid(), lastModified, transactionId);
+        }
     }
 }
@@ -0,0 +1,98 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Reads the WordPress content carried by a NativeCmsPublicationEvents message, binding only the fields that
+ * {@link com.ft.wordpressarticlemapper.validation.NativeWordPressContentValidator} and the content mappers use.
+ * <p>
+ * Everything else is skipped in the token stream without being built into objects: notably a post's comments,
+ * attachments, categories, tags and custom fields, which can run to thousands of entries and would otherwise end up in
+ * lists and in the post's additional properties. The fields that are kept are bound by a cached {@link ObjectReader},
+ * so they are read exactly as before.
+ */
+public class NativeWordPressContentReader {
+
+    static final Set<String> CONTENT_FIELDS = ImmutableSet.of("status", "apiUrl", "error", "lastModified", "post");
+
+    static final Set<String> POST_FIELDS = ImmutableSet.of(
+            "id", "type", "url", "uuid",
+            "title", "content", "excerpt",
+            "modified", "date_gmt", "modified_gmt",
+            "author", "authors",
+            "comment_status", "main_image",
+            "access_level", "default_access_level", "is_scoop");
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final ObjectReader reader;
+
+    public NativeWordPressContentReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.reader = objectMapper.reader(NativeWordPressContent.class);
+    }
+
+    public NativeWordPressContent read(String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                throw new JsonMappingException("No content to map due to end-of-input");
+            }
+            return bind(select(parser));
+        }
+    }
+
+    /**
+     * Copies the consumed fields of the object the parser is at the start of, leaving the parser at the object's end, so
+     * that content can be picked out of a larger document and bound later, or on another thread.
+     */
+    public TokenBuffer select(JsonParser parser) throws IOException {
+        JsonToken current = parser.getCurrentToken();
+        if (current != JsonToken.START_OBJECT) {
+            throw new JsonMappingException("Expected WordPress content to be a JSON object, not " + current, parser.getCurrentLocation());
+        }
+
+        TokenBuffer selected = new TokenBuffer(objectMapper);
+        copyFields(parser, selected, CONTENT_FIELDS, true);
+        return selected;
+    }
+
+    public NativeWordPressContent bind(TokenBuffer selected) throws IOException {
+        return reader.readValue(selected.asParser());
+    }
+
+    /**
+     * Copies the named fields of the object the parser is at the start of, skipping the others.
+     */
+    private void copyFields(JsonParser parser, TokenBuffer out, Set<String> fields, boolean isContent) throws IOException {
+        out.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (!fields.contains(field)) {
+                parser.skipChildren();
+                continue;
+            }
+
+            out.writeFieldName(field);
+            if (isContent && "post".equals(field) && value == JsonToken.START_OBJECT) {
+                copyFields(parser, out, POST_FIELDS, false);
+            } else {
+                out.copyCurrentStructure(parser);
+            }
+        }
+        out.writeEndObject();
+    }
+}
@@ -0,0 +1,114 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Runs message handling on a fixed set of single-threaded partitions, chosen by a key such as the post UUID. Messages
+ * with the same key run one at a time in the order they were dispatched, while messages for different keys can run
+ * concurrently.
+ * <p>
+ * At most {@code maxInFlight} messages are queued or running at once. {@link #dispatch} blocks the consumer thread
+ * until there is room, so a backlog stays on the queue rather than in memory.
+ * <p>
+ * Delivery is at most once. A message is acknowledged to the consumer as soon as it has been dispatched, and the
+ * consumer auto-commits its offset, so a task that then fails is logged and counted on the {@code failed} meter but
+ * not redelivered. Failed publishes have to be replayed from that log, for example through {@code /ingest}.
+ */
+public class PartitionedMessageDispatcher implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionedMessageDispatcher.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final List<ExecutorService> partitions;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Meter failed;
+
+    public PartitionedMessageDispatcher(int parallelism, int maxInFlight, MetricRegistry metrics) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (maxInFlight < parallelism) {
+            throw new IllegalArgumentException("maxInFlight must be at least parallelism");
+        }
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("message-partition-%d").setDaemon(true).build();
+        this.partitions = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            partitions.add(Executors.newSingleThreadExecutor(threadFactory));
+        }
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+
+        this.failed = metrics.meter(name(PartitionedMessageDispatcher.class, "failed"));
+        metrics.register(name(PartitionedMessageDispatcher.class, "in-flight"),
+                (Gauge<Integer>) () -> this.maxInFlight - inFlight.availablePermits());
+    }
+
+    /**
+     * Queues the task on the partition for the key, waiting while {@code maxInFlight} messages are already queued or
+     * running. A task that throws is logged and counted; it isn't rethrown to the caller, and it doesn't hold up the
+     * tasks queued behind it.
+     */
+    public void dispatch(String key, Runnable task) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            partitionFor(key).execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    failed.mark();
+                    LOG.error("failed to process message with key={}", key, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private ExecutorService partitionFor(String key) {
+        return partitions.get(Math.floorMod(Objects.hashCode(key), partitions.size()));
+    }
+
+    @Override
+    public void start() throws Exception {
+    }
+
+    /**
+     * Stops accepting messages and waits for those already dispatched to finish.
+     */
+    @Override
+    public void stop() throws Exception {
+        partitions.forEach(ExecutorService::shutdown);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        for (ExecutorService partition : partitions) {
+            long remaining = deadline - System.nanoTime();
+            if (!partition.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                LOG.warn("message partitions did not finish within {}s, abandoning {} in-flight messages",
+                        SHUTDOWN_TIMEOUT_SECONDS, maxInFlight - inFlight.availablePermits());
+                partitions.forEach(ExecutorService::shutdownNow);
+                return;
+            }
+        }
+    }
+}
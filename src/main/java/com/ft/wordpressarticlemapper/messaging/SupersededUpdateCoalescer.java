@@ -0,0 +1,171 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Holds updates to a post for a short window and processes only the latest, so a post that is republished many times
+ * in quick succession, as live blogs are, is mapped and published once per window rather than once per update.
+ * <p>
+ * The latest update is the one with the latest message timestamp, then the latest last-modified date; of two that
+ * are equal, the one consumed last. Every update dropped in favour of a later one is counted as superseded. When the
+ * window closes the latest update is handed to the {@link PartitionedMessageDispatcher}, or run on the coalescer's
+ * thread if there is none.
+ * <p>
+ * At most {@code maxHeld} posts have an update held or being run on the coalescer's thread at once. {@link #submit}
+ * blocks the consumer thread until there is room, so a backlog stays on the queue rather than in memory. Held updates
+ * have already been consumed, and with auto-commit their offsets may already be committed, so updates still held when
+ * the process dies are lost rather than redelivered.
+ */
+public class SupersededUpdateCoalescer implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SupersededUpdateCoalescer.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final Comparator<PendingUpdate> RECENCY = Comparator
+            .comparing((PendingUpdate update) -> update.messageTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(update -> update.lastModified, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final long windowMillis;
+    private final PartitionedMessageDispatcher dispatcher;
+    private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactoryBuilder().setNameFormat("update-coalescer-%d").setDaemon(true).build());
+    private final Semaphore held;
+    private final Meter superseded;
+
+    /**
+     * @param maxHeld    how many posts may have an update held at once before {@link #submit} waits
+     * @param dispatcher processes the latest update for each post, or null to process it on the coalescer's thread
+     */
+    public SupersededUpdateCoalescer(long window, TimeUnit windowUnit, int maxHeld,
+                                     PartitionedMessageDispatcher dispatcher, MetricRegistry metrics) {
+        if (maxHeld < 1) {
+            throw new IllegalArgumentException("maxHeld must be at least 1");
+        }
+
+        this.windowMillis = windowUnit.toMillis(window);
+        this.held = new Semaphore(maxHeld);
+        // windows still open at shutdown are released by stop(), not left to run out
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.dispatcher = dispatcher;
+        this.superseded = metrics.meter(name(SupersededUpdateCoalescer.class, "superseded"));
+        metrics.register(name(SupersededUpdateCoalescer.class, "pending"), (Gauge<Integer>) pending::size);
+    }
+
+    /**
+     * Holds the update until the post's window closes, unless a later update for the post is already held, waiting
+     * while {@code maxHeld} posts already have an update held.
+     *
+     * @throws RejectedExecutionException if the coalescer has been stopped
+     */
+    public void submit(String postUuid, Date messageTimestamp, Date lastModified, Runnable task)
+            throws InterruptedException {
+        PendingUpdate update = new PendingUpdate(messageTimestamp, lastModified, task);
+        held.acquire();
+        boolean[] opened = new boolean[1];
+        pending.compute(postUuid, (uuid, current) -> {
+            if (current == null) {
+                opened[0] = true;
+                return update;
+            }
+
+            superseded.mark();
+            if (RECENCY.compare(update, current) >= 0) {
+                LOG.info("update for uuid={} supersedes one held since {}", uuid, current.messageTimestamp);
+                return update;
+            }
+            LOG.info("update for uuid={} from {} is older than one already held, dropping it", uuid, messageTimestamp);
+            return current;
+        });
+        if (!opened[0]) {
+            // the post already had its window open, and its permit
+            held.release();
+            return;
+        }
+
+        try {
+            scheduler.schedule(() -> release(postUuid), windowMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (pending.remove(postUuid) != null) {
+                held.release();
+            }
+            throw e;
+        }
+    }
+
+    private void release(String postUuid) {
+        PendingUpdate update = pending.remove(postUuid);
+        if (update == null) {
+            return;
+        }
+
+        try {
+            if (dispatcher == null) {
+                update.task.run();
+            } else {
+                dispatcher.dispatch(postUuid, update.task);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("failed to process update for uuid={}", postUuid, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("interrupted while dispatching update for uuid={}, it will not be processed", postUuid);
+        } finally {
+            held.release();
+        }
+    }
+
+    @Override
+    public void start() throws Exception {
+    }
+
+    /**
+     * Processes the updates still held without waiting for their windows to close.
+     */
+    @Override
+    public void stop() throws Exception {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+
+        List<String> held = new ArrayList<>(pending.keySet());
+        scheduler.execute(() -> held.forEach(this::release));
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOG.warn("update coalescer did not finish within {}s, abandoning {} held updates",
+                    SHUTDOWN_TIMEOUT_SECONDS, pending.size());
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static class PendingUpdate {
+        private final Date messageTimestamp;
+        private final Date lastModified;
+        private final Runnable task;
+
+        private PendingUpdate(Date messageTimestamp, Date lastModified, Runnable task) {
+            this.messageTimestamp = messageTimestamp;
+            this.lastModified = lastModified;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ft.wordpressarticlemapper.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Publishes the statistics of a Guava {@link Cache} (built with {@code recordStats()}) as gauges.
+ */
+public final class CacheMetrics {
+
+    private CacheMetrics() {
+    }
+
+    public static void register(MetricRegistry metrics, String cacheName, Cache<?, ?> cache) {
+        metrics.register(name(cacheName, "hits"), (Gauge<Long>) () -> cache.stats().hitCount());
+        metrics.register(name(cacheName, "misses"), (Gauge<Long>) () -> cache.stats().missCount());
+        metrics.register(name(cacheName, "evictions"), (Gauge<Long>) () -> cache.stats().evictionCount());
+        metrics.register(name(cacheName, "hit-ratio"), (Gauge<Double>) () -> cache.stats().hitRate());
+        metrics.register(name(cacheName, "size"), (Gauge<Long>) cache::size);
+    }
+}
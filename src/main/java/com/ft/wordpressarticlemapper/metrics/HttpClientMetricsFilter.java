@@ -0,0 +1,145 @@
+package com.ft.wordpressarticlemapper.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Records the latency, outcome and response size of each request a Jersey client makes to a dependency, both for the
+ * dependency as a whole and for each known host it is sent to.
+ * <p>
+ * Under {@code <prefix>} and {@code <prefix>.hosts.<host>} there are a {@code latency} timer, up to the response's
+ * headers, a {@code status.<code>} counter for each status returned, {@code timeouts} and {@code errors} meters for
+ * requests that got no response, and a {@code response-bytes} histogram of the response entities read. Requests to
+ * any other host, such as the sites that shortened links redirect to, are recorded together under
+ * {@code <prefix>.hosts.other}, so that the number of metrics stays bounded.
+ */
+public class HttpClientMetricsFilter extends ClientFilter {
+
+    private static final String OTHER_HOSTS = "other";
+
+    private final MetricRegistry metrics;
+    private final String prefix;
+    private final Set<String> knownHosts;
+
+    /**
+     * @param knownHosts the hosts to record metrics for one by one
+     */
+    public HttpClientMetricsFilter(MetricRegistry metrics, String prefix, Set<String> knownHosts) {
+        this.metrics = metrics;
+        this.prefix = prefix;
+        this.knownHosts = knownHosts.stream().map(String::toLowerCase).collect(Collectors.toSet());
+    }
+
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+        String hostPrefix = name(prefix, "hosts", hostOf(request.getURI()));
+        Timer.Context dependencyTimer = metrics.timer(name(prefix, "latency")).time();
+        Timer.Context hostTimer = metrics.timer(name(hostPrefix, "latency")).time();
+        ClientResponse response;
+        try {
+            response = getNext().handle(request);
+        } catch (ClientHandlerException e) {
+            String outcome = (e.getCause() instanceof SocketTimeoutException) ? "timeouts" : "errors";
+            metrics.meter(name(prefix, outcome)).mark();
+            metrics.meter(name(hostPrefix, outcome)).mark();
+            throw e;
+        } finally {
+            dependencyTimer.stop();
+            hostTimer.stop();
+        }
+
+        String status = Integer.toString(response.getStatus());
+        metrics.counter(name(prefix, "status", status)).inc();
+        metrics.counter(name(hostPrefix, "status", status)).inc();
+
+        if (response.hasEntity()) {
+            response.setEntityInputStream(new SizeRecordingInputStream(response.getEntityInputStream(),
+                    metrics.histogram(name(prefix, "response-bytes")),
+                    metrics.histogram(name(hostPrefix, "response-bytes"))));
+        }
+        return response;
+    }
+
+    private String hostOf(URI uri) {
+        String host = (uri.getHost() == null) ? null : uri.getHost().toLowerCase();
+        if (!knownHosts.contains(host)) {
+            return OTHER_HOSTS;
+        }
+        // keep each host a single part of the metric name
+        return host.replace('.', '_');
+    }
+
+    /**
+     * Records how many bytes of the entity were read once it is closed.
+     */
+    private static class SizeRecordingInputStream extends FilterInputStream {
+        private final Histogram dependencyBytes;
+        private final Histogram hostBytes;
+        private long count;
+        private boolean closed;
+
+        private SizeRecordingInputStream(InputStream in, Histogram dependencyBytes, Histogram hostBytes) {
+            super(in);
+            this.dependencyBytes = dependencyBytes;
+            this.hostBytes = hostBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read != -1) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    dependencyBytes.update(count);
+                    hostBytes.update(count);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ft.wordpressarticlemapper.model;
+
+import com.google.common.base.MoreObjects;
+
+import java.net.URI;
+
+/**
+ * A post's URI together with the configured blog it belongs to, resolved once per mapping so that brands,
+ * identifiers and syndication are all derived from the same lookup.
+ */
+public class ResolvedPostMetadata {
+
+    private final URI requestUri;
+    private final BlogApiEndpointMetadata blogApiEndpointMetadata;
+
+    public ResolvedPostMetadata(URI requestUri, BlogApiEndpointMetadata blogApiEndpointMetadata) {
+        this.requestUri = requestUri;
+        this.blogApiEndpointMetadata = blogApiEndpointMetadata;
+    }
+
+    public URI getRequestUri() {
+        return requestUri;
+    }
+
+    /**
+     * @return the blog the post belongs to, or null if it doesn't belong to a configured blog
+     */
+    public BlogApiEndpointMetadata getBlogApiEndpointMetadata() {
+        return blogApiEndpointMetadata;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("requestUri", requestUri)
+                .add("blogApiEndpointMetadata", blogApiEndpointMetadata)
+                .toString();
+    }
+}
@@ -3,6 +3,7 @@ package com.ft.wordpressarticlemapper.resources;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
 import com.ft.wordpressarticlemapper.model.Brand;
+import com.ft.wordpressarticlemapper.model.ResolvedPostMetadata;
 
 import java.net.URI;
 import java.util.Set;
@@ -16,14 +17,19 @@ public class BrandSystemResolver {
     }
 
     public Set<Brand> getBrand(URI requestUri) {
+        return getBrand(blogApiEndpointMetadataManager.getBlogApiEndpointMetadataByUri(requestUri));
+    }
+
+    public Set<Brand> getBrandFor(ResolvedPostMetadata postMetadata) {
+        return getBrand(postMetadata.getBlogApiEndpointMetadata());
+    }
 
-        BlogApiEndpointMetadata blogApiEndpointMetadata = blogApiEndpointMetadataManager.getBlogApiEndpointMetadataByUri(requestUri);
+    private Set<Brand> getBrand(BlogApiEndpointMetadata blogApiEndpointMetadata) {
         if (blogApiEndpointMetadata == null) {
             return null;
         }
 
         return blogApiEndpointMetadata.getBrands();
-
     }
 
 
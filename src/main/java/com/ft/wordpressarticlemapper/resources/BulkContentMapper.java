@@ -0,0 +1,356 @@
+package com.ft.wordpressarticlemapper.resources;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.ft.api.jaxrs.errors.ErrorEntity;
+import com.ft.wordpressarticlemapper.messaging.NativeWordPressContentReader;
+import com.ft.wordpressarticlemapper.model.WordPressContent;
+import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.WebApplicationException;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
+import static org.apache.http.HttpStatus.SC_INTERNAL_SERVER_ERROR;
+import static org.apache.http.HttpStatus.SC_NO_CONTENT;
+import static org.apache.http.HttpStatus.SC_OK;
+
+/**
+ * Maps or ingests a batch of WordPress content, read as either a JSON array or newline-delimited JSON, on a bounded pool
+ * of threads shared by every bulk request of its kind, and writes one NDJSON result line per item in input order.
+ * <p>
+ * Items are read one at a time. At most {@code maxInFlight} items are queued or being processed at once across all
+ * requests, a request waiting for room before it reads on, and at most {@code maxInFlight} of a request's results wait
+ * to be written. No more than {@code maxItemsPerSecond} items are started across all requests. An item
+ * that can't be read or processed gets an error line with the status and message that {@code /map} or {@code /ingest}
+ * would have responded with, and the rest of the batch carries on. A JSON array that is malformed can't be read past
+ * the fault, so its error line ends the results.
+ */
+public class BulkContentMapper implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkContentMapper.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final byte[] LINE_SEPARATOR = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final NativeWordPressContentReader contentReader;
+    private final String name;
+    private final int maxInFlight;
+    private final RateLimiter rateLimiter;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore queued;
+    private final Meter processed;
+    private final Meter failed;
+
+    public BulkContentMapper(ObjectMapper objectMapper, int threadPoolSize, int maxInFlight, MetricRegistry metrics) {
+        this("mapper", objectMapper, threadPoolSize, maxInFlight, 0, metrics);
+    }
+
+    /**
+     * @param name distinguishes this pool's threads and metrics from those of other bulk content mappers
+     * @param maxItemsPerSecond how many items may be started each second, or 0 for no limit
+     */
+    public BulkContentMapper(String name, ObjectMapper objectMapper, int threadPoolSize, int maxInFlight,
+                             double maxItemsPerSecond, MetricRegistry metrics) {
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.contentReader = new NativeWordPressContentReader(objectMapper);
+        this.maxInFlight = maxInFlight;
+        this.rateLimiter = (maxItemsPerSecond > 0) ? RateLimiter.create(maxItemsPerSecond) : null;
+        this.executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("bulk-" + name + "-%d").setDaemon(true).build());
+        // the queue is left unbounded because this caps what can be put on it
+        this.queued = new Semaphore(maxInFlight);
+
+        this.processed = metrics.meter(name(BulkContentMapper.class, name, "processed"));
+        this.failed = metrics.meter(name(BulkContentMapper.class, name, "failed"));
+        metrics.register(name(BulkContentMapper.class, name, "queue-depth"), (Gauge<Integer>) () -> executor.getQueue().size());
+        metrics.register(name(BulkContentMapper.class, name, "active-threads"), (Gauge<Integer>) executor::getActiveCount);
+    }
+
+    /**
+     * Writes each item's mapped content.
+     *
+     * @param mapping maps one item, throwing a {@link WebApplicationException} for an item that can't be mapped
+     */
+    public void map(InputStream in, OutputStream out, Function<NativeWordPressContent, WordPressContent> mapping)
+            throws IOException {
+        process(in, out, (index, content, result) -> {
+            WordPressContent mappedContent = mapping.apply(content);
+            result.writeNumberField("status", SC_OK);
+            result.writeFieldName("content");
+            objectMapper.writeValue(result, mappedContent);
+        });
+    }
+
+    /**
+     * Writes only the status of each item.
+     *
+     * @param ingestion publishes or deletes one item, given with its index in the request, throwing a
+     *                  {@link WebApplicationException} for an item that can't be ingested
+     */
+    public void ingest(InputStream in, OutputStream out, ObjIntConsumer<NativeWordPressContent> ingestion) throws IOException {
+        process(in, out, (index, content, result) -> {
+            ingestion.accept(content, index);
+            result.writeNumberField("status", SC_NO_CONTENT);
+            String uuid = uuidOf(content);
+            if (uuid != null) {
+                result.writeStringField("uuid", uuid);
+            }
+        });
+    }
+
+    private void process(InputStream in, OutputStream out, ItemHandler handler) throws IOException {
+
+        PushbackInputStream input = new PushbackInputStream(in);
+        int first = input.read();
+        while (first != -1 && Character.isWhitespace(first)) {
+            first = input.read();
+        }
+        if (first == -1) {
+            return;
+        }
+        input.unread(first);
+
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        try {
+            if (first == '[') {
+                processArray(input, out, handler, inFlight);
+            } else {
+                processLines(input, out, handler, inFlight);
+            }
+            while (!inFlight.isEmpty()) {
+                writeHead(inFlight, out);
+            }
+            out.flush();
+        } finally {
+            // the client has gone away or the batch failed, so nobody will read the rest
+            inFlight.forEach(result -> result.cancel(true));
+        }
+    }
+
+    private void processArray(InputStream input, OutputStream out, ItemHandler handler, Deque<Future<byte[]>> inFlight) throws IOException {
+        int index = 0;
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            try {
+                parser.nextToken();
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    int itemIndex = index;
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        index++;
+                        submit(inFlight, out, () -> unreadable(itemIndex, "item is not a JSON object"));
+                        continue;
+                    }
+                    TokenBuffer selected = contentReader.select(parser);
+                    index++;
+                    submit(inFlight, out, () -> processItem(itemIndex, () -> contentReader.bind(selected), handler));
+                }
+            } catch (JsonProcessingException e) {
+                while (!inFlight.isEmpty()) {
+                    writeHead(inFlight, out);
+                }
+                writeLine(out, error(index, SC_BAD_REQUEST, null, "Malformed bulk request: " + e.getOriginalMessage()));
+                failed.mark();
+            }
+        }
+    }
+
+    private void processLines(InputStream input, OutputStream out, ItemHandler handler, Deque<Future<byte[]>> inFlight) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            int itemIndex = index++;
+            String item = line;
+            submit(inFlight, out, () -> processItem(itemIndex, () -> contentReader.read(item), handler));
+        }
+    }
+
+    private void submit(Deque<Future<byte[]>> inFlight, OutputStream out, ResultLine task) throws IOException {
+        if (inFlight.size() >= maxInFlight) {
+            writeHead(inFlight, out);
+        }
+        if (rateLimiter != null) {
+            rateLimiter.acquire();
+        }
+
+        try {
+            queued.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting to queue bulk " + name + " item", e);
+        }
+        FutureTask<byte[]> result = new FutureTask<byte[]>(task::write) {
+            @Override
+            protected void done() {
+                // also when cancelled before it ran
+                queued.release();
+            }
+        };
+        try {
+            executor.execute(result);
+        } catch (RejectedExecutionException e) {
+            queued.release();
+            throw e;
+        }
+        inFlight.addLast(result);
+    }
+
+    /**
+     * Writes the result of the earliest item still in flight, waiting for it if need be.
+     */
+    private void writeHead(Deque<Future<byte[]>> inFlight, OutputStream out) throws IOException {
+        Future<byte[]> head = inFlight.peekFirst();
+        if (!head.isDone()) {
+            // let the client have the results written so far while this one is processed
+            out.flush();
+        }
+
+        byte[] result;
+        try {
+            result = head.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for bulk " + name + " result", e);
+        } catch (ExecutionException e) {
+            throw new IOException("unable to write bulk " + name + " result", e.getCause());
+        }
+        inFlight.removeFirst();
+        writeLine(out, result);
+    }
+
+    private byte[] processItem(int index, ItemSource source, ItemHandler handler) throws IOException {
+        NativeWordPressContent content;
+        try {
+            content = source.read();
+        } catch (IOException e) {
+            return unreadable(index, e.getMessage());
+        }
+
+        String uuid = uuidOf(content);
+        try {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            try (JsonGenerator generator = jsonFactory.createGenerator(line, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeNumberField("index", index);
+                handler.handle(index, content, generator);
+                generator.writeEndObject();
+            }
+            processed.mark();
+            return line.toByteArray();
+        } catch (WebApplicationException e) {
+            failed.mark();
+            return error(index, e.getResponse().getStatus(), uuid, messageOf(e));
+        } catch (RuntimeException e) {
+            LOG.error("unable to process bulk {} item {} with uuid={}", name, index, uuid, e);
+            failed.mark();
+            return error(index, SC_INTERNAL_SERVER_ERROR, uuid, "Unable to process content");
+        }
+    }
+
+    private byte[] unreadable(int index, String reason) throws IOException {
+        failed.mark();
+        return error(index, SC_BAD_REQUEST, null, "Wordpress content could not be read: " + reason);
+    }
+
+    private static String uuidOf(NativeWordPressContent content) {
+        return (content.getPost() == null) ? null : content.getPost().getUuid();
+    }
+
+    private static String messageOf(WebApplicationException e) {
+        Object entity = e.getResponse().getEntity();
+        return (entity instanceof ErrorEntity) ? ((ErrorEntity) entity).getMessage() : e.getMessage();
+    }
+
+    private byte[] error(int index, int status, String uuid, String message) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(line, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeNumberField("index", index);
+            generator.writeNumberField("status", status);
+            if (uuid != null) {
+                generator.writeStringField("uuid", uuid);
+            }
+            generator.writeStringField("message", message);
+            generator.writeEndObject();
+        }
+        return line.toByteArray();
+    }
+
+    private static void writeLine(OutputStream out, byte[] line) throws IOException {
+        out.write(line);
+        out.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void start() throws Exception {
+        executor.prestartAllCoreThreads();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOG.warn("bulk {} did not terminate within {}s, abandoning outstanding items", name, SHUTDOWN_TIMEOUT_SECONDS);
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ItemSource {
+        NativeWordPressContent read() throws IOException;
+    }
+
+    private interface ItemHandler {
+        /**
+         * Processes the item and writes its status, and anything else to report, to its result line.
+         */
+        void handle(int index, NativeWordPressContent content, JsonGenerator result) throws IOException;
+    }
+
+    private interface ResultLine {
+        byte[] write() throws IOException;
+    }
+}
@@ -3,6 +3,7 @@ package com.ft.wordpressarticlemapper.resources;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
 import com.ft.wordpressarticlemapper.model.Identifier;
+import com.ft.wordpressarticlemapper.model.ResolvedPostMetadata;
 import com.ft.wordpressarticlemapper.response.Post;
 
 import javax.ws.rs.core.UriBuilder;
@@ -27,12 +28,28 @@ public class IdentifierBuilder {
             return null;
         }
 
-        SortedSet<Identifier> identifiers = new TreeSet<>();
         BlogApiEndpointMetadata blogApiEndpointMetadata = blogApiEndpointMetadataManager.getBlogApiEndpointMetadataByUri(requestUri);
+        return buildIdentifiers(blogApiEndpointMetadata, UriBuilder.fromUri(post.getUrl()).build(), post);
+    }
+
+    /**
+     * Builds the identifiers from metadata already resolved for the post, whose request URI is the post's URL.
+     */
+    public SortedSet<Identifier> buildIdentifiersFor(ResolvedPostMetadata postMetadata, Post post) {
+        if (postMetadata.getRequestUri() == null || post == null) {
+            return null;
+        }
+
+        return buildIdentifiers(postMetadata.getBlogApiEndpointMetadata(), postMetadata.getRequestUri(), post);
+    }
+
+    private SortedSet<Identifier> buildIdentifiers(BlogApiEndpointMetadata blogApiEndpointMetadata, URI postUri, Post post) {
         if (blogApiEndpointMetadata == null) {
             return null;
         }
 
+        SortedSet<Identifier> identifiers = new TreeSet<>();
+
         String originatingSystemId = String.format(SYSTEM_ID, blogApiEndpointMetadata.getId());
         if (originatingSystemId == null) {
             return null;
@@ -40,15 +57,14 @@ public class IdentifierBuilder {
 
         identifiers.add(new Identifier(originatingSystemId, post.getUrl()));
 
-        String additionalIdentifierValue = buildWordpressAdditionalIdentifier(blogApiEndpointMetadata, post);
+        String additionalIdentifierValue = buildWordpressAdditionalIdentifier(blogApiEndpointMetadata, postUri, post);
         identifiers.add(new Identifier(originatingSystemId, additionalIdentifierValue));
 
         return identifiers;
     }
 
-    private String buildWordpressAdditionalIdentifier(BlogApiEndpointMetadata blogApiEndpointMetadata, Post post) {
+    private String buildWordpressAdditionalIdentifier(BlogApiEndpointMetadata blogApiEndpointMetadata, URI postUri, Post post) {
 
-        URI postUri = UriBuilder.fromUri(post.getUrl()).build();
         String host = postUri.getHost();
         String scheme = postUri.getScheme();
         String path = "/";
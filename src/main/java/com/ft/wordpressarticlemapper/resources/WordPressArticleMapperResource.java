@@ -16,6 +16,7 @@ import com.ft.wordpressarticlemapper.transformer.WordPressContentMapper;
 import com.ft.wordpressarticlemapper.transformer.WordPressLiveBlogContentMapper;
 import com.ft.wordpressarticlemapper.validation.NativeWordPressContentValidator;
 
+import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -23,6 +24,8 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
 import java.util.Date;
 
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
@@ -33,20 +36,33 @@ import static org.apache.http.HttpStatus.SC_UNPROCESSABLE_ENTITY;
 public class WordPressArticleMapperResource {
 
     private static final String CHARSET_UTF_8 = ";charset=utf-8";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
 
     private final WordPressBlogPostContentMapper blogTransformer;
     private final WordPressLiveBlogContentMapper liveBlogTransformer;
     private final MessageProducingContentMapper contentMapper;
     private final NativeWordPressContentValidator contentValidator;
+    private final BulkContentMapper bulkContentMapper;
+    private final BulkContentMapper bulkContentIngester;
+    private final MessageProducingContentMapper bulkIngestContentMapper;
 
+    /**
+     * @param bulkIngestContentMapper publishes the content ingested in bulk, in producer batches
+     */
     public WordPressArticleMapperResource(WordPressBlogPostContentMapper blogTransformer,
                                           WordPressLiveBlogContentMapper liveBlogTransformer,
                                           MessageProducingContentMapper contentMapper,
-                                          NativeWordPressContentValidator contentValidator) {
+                                          NativeWordPressContentValidator contentValidator,
+                                          BulkContentMapper bulkContentMapper,
+                                          BulkContentMapper bulkContentIngester,
+                                          MessageProducingContentMapper bulkIngestContentMapper) {
         this.blogTransformer = blogTransformer;
         this.liveBlogTransformer = liveBlogTransformer;
         this.contentMapper = contentMapper;
         this.contentValidator = contentValidator;
+        this.bulkContentMapper = bulkContentMapper;
+        this.bulkContentIngester = bulkContentIngester;
+        this.bulkIngestContentMapper = bulkIngestContentMapper;
     }
 
     @POST
@@ -55,6 +71,26 @@ public class WordPressArticleMapperResource {
     @Produces(MediaType.APPLICATION_JSON + CHARSET_UTF_8)
     public final WordPressContent map(NativeWordPressContent nativeWordPressContent, @Context HttpHeaders httpHeaders) {
         String transactionId = TransactionIdUtils.getTransactionIdOrDie(httpHeaders);
+        return mapContent(transactionId, nativeWordPressContent);
+    }
+
+    /**
+     * Maps a JSON array or newline-delimited stream of WordPress content, responding with one NDJSON line per item in
+     * input order: the mapped content, or the status and message that {@code /map} would have responded with.
+     */
+    @POST
+    @Timed
+    @Path("/map/bulk")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    @Produces(APPLICATION_NDJSON + CHARSET_UTF_8)
+    public Response mapBulk(InputStream nativeWordPressContents, @Context HttpHeaders httpHeaders) {
+        String transactionId = TransactionIdUtils.getTransactionIdOrDie(httpHeaders);
+        StreamingOutput results = out -> bulkContentMapper.map(nativeWordPressContents, out,
+                content -> mapContent(transactionId, content));
+        return Response.ok(results).build();
+    }
+
+    private WordPressContent mapContent(String transactionId, NativeWordPressContent nativeWordPressContent) {
         try {
             contentValidator.validate(nativeWordPressContent);
             Post postDetails = nativeWordPressContent.getPost();
@@ -71,17 +107,39 @@ public class WordPressArticleMapperResource {
     @Path("/ingest")
     public Response ingest(NativeWordPressContent nativeWordPressContent, @Context HttpHeaders httpHeaders) {
         String transactionId = TransactionIdUtils.getTransactionIdOrDie(httpHeaders);
+        ingestContent(transactionId, nativeWordPressContent, contentMapper);
+        return Response.noContent().build();
+    }
+
+    /**
+     * Publishes or deletes each post of a JSON array or newline-delimited stream of WordPress content, as {@code /ingest}
+     * would, responding with one NDJSON status line per item in input order. Each item is published under the request's
+     * transaction id suffixed with {@code _<index>}, so that its messages can be told apart from the other items'.
+     */
+    @POST
+    @Timed
+    @Path("/ingest/bulk")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    @Produces(APPLICATION_NDJSON + CHARSET_UTF_8)
+    public Response ingestBulk(InputStream nativeWordPressContents, @Context HttpHeaders httpHeaders) {
+        String transactionId = TransactionIdUtils.getTransactionIdOrDie(httpHeaders);
+        StreamingOutput results = out -> bulkContentIngester.ingest(nativeWordPressContents, out,
+                (content, index) -> ingestContent(transactionId + "_" + index, content, bulkIngestContentMapper));
+        return Response.ok(results).build();
+    }
+
+    private void ingestContent(String transactionId, NativeWordPressContent nativeWordPressContent,
+                               MessageProducingContentMapper publisher) {
         try {
             contentValidator.validate(nativeWordPressContent);
             Post post = nativeWordPressContent.getPost();
-            contentMapper.mapForPublish(transactionId, post, new Date());
+            publisher.mapForPublish(transactionId, post, new Date());
         } catch (PostNotFoundException e) {
             Post post = nativeWordPressContent.getPost();
-            contentMapper.mapForDelete(post.getUuid(), new Date(), transactionId);
+            publisher.mapForDelete(post.getUuid(), new Date(), transactionId);
         } catch (IllegalArgumentException | WordPressContentException e) {
             throw new ClientError.ClientErrorBuilder(SC_UNPROCESSABLE_ENTITY).error("Wordpress content is not valid").exception(e);
         }
-        return Response.noContent().build();
     }
 
     private WordPressContentMapper<?> transformerFor(Post post) {
@@ -7,14 +7,32 @@ import com.ft.bodyprocessing.transformer.FieldTransformer;
 public class BodyProcessingFieldTransformer implements FieldTransformer {
 
     private final BodyProcessorChain bodyProcessorChain;
+    private final BodyProcessingMetrics bodyProcessingMetrics;
 
     public BodyProcessingFieldTransformer(BodyProcessorChain bodyProcessorChain) {
+        this(bodyProcessorChain, null);
+    }
+
+    /**
+     * @param bodyProcessingMetrics records the time taken by each body and its stages, or is null to record nothing
+     */
+    public BodyProcessingFieldTransformer(BodyProcessorChain bodyProcessorChain, BodyProcessingMetrics bodyProcessingMetrics) {
         this.bodyProcessorChain = bodyProcessorChain;
+        this.bodyProcessingMetrics = bodyProcessingMetrics;
     }
 
     @Override
     public String transform(String originalBody, String transactionId) {
-        BodyProcessingContext bodyProcessingContext = new DefaultTransactionIdBodyProcessingContext(transactionId);
-        return bodyProcessorChain.process(originalBody, bodyProcessingContext);
+        if (bodyProcessingMetrics == null) {
+            BodyProcessingContext bodyProcessingContext = new DefaultTransactionIdBodyProcessingContext(transactionId);
+            return bodyProcessorChain.process(originalBody, bodyProcessingContext);
+        }
+
+        StageTimingBodyProcessingContext bodyProcessingContext = new StageTimingBodyProcessingContext(transactionId);
+        long start = System.nanoTime();
+        String transformed = bodyProcessorChain.process(originalBody, bodyProcessingContext);
+        bodyProcessingMetrics.recordBody(bodyProcessingContext, System.nanoTime() - start,
+                originalBody == null ? 0 : originalBody.length());
+        return transformed;
     }
 }
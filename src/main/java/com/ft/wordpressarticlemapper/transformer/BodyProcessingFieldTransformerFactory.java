@@ -12,14 +12,20 @@ import com.ft.bodyprocessing.xml.StAXTransformingBodyProcessor;
 import com.ft.bodyprocessing.xml.TagSoupCleanupHtmlBodyProcessor;
 import com.ft.bodyprocessing.xml.TagSoupHtmlBodyProcessor;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
+import com.ft.wordpressarticlemapper.model.Identifier;
 import com.ft.wordpressarticlemapper.transformer.html.RemoveEmptyElementsBodyProcessor;
 
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableSet;
 import com.sun.jersey.api.client.Client;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 
 import static java.util.Arrays.asList;
@@ -39,45 +45,135 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
     private final Client contentReadClient;
     private final URI contentReadBaseUri;
     private String contentReadHostHeader;
+    private final URI contentReadBulkUri;
+    private final int contentReadBatchSize;
 
-    private final int resolverThreadPoolSize;
+    private final ExecutorService resolverExecutor;
     private final int maxLinks;
+    private final Cache<URI, Identifier> redirectCache;
+    private final ContentReadCache contentReadCache;
+    private final boolean singleParsePipeline;
+    private final BodyProcessingMetrics bodyProcessingMetrics;
+    private final LinkResolutionBudget linkResolutionBudget;
+    private final LinkResolverCircuitBreakers circuitBreakers;
 
+    public BodyProcessingFieldTransformerFactory(VideoMatcher videoMatcher,
+                                                 Set<Pattern> shortenerPatterns,
+                                                 BlogApiEndpointMetadataManager blogApiEndpointMetadataManager,
+                                                 Client resolverClient,
+                                                 ExecutorService resolverExecutor,
+                                                 int maxLinks,
+                                                 Client documentStoreClient,
+                                                 URI documentStoreBaseUri,
+                                                 String documentStoreHostHeader,
+                                                 Client contentReadClient,
+                                                 URI contentReadBaseUri,
+                                                 String contentReadHostHeader,
+                                                 URI contentReadBulkUri,
+                                                 int contentReadBatchSize,
+                                                 Cache<URI, Identifier> redirectCache,
+                                                 ContentReadCache contentReadCache,
+                                                 boolean singleParsePipeline) {
+        this(videoMatcher, shortenerPatterns, blogApiEndpointMetadataManager, resolverClient, resolverExecutor, maxLinks,
+                documentStoreClient, documentStoreBaseUri, documentStoreHostHeader, contentReadClient, contentReadBaseUri,
+                contentReadHostHeader, contentReadBulkUri, contentReadBatchSize, redirectCache, contentReadCache,
+                singleParsePipeline, null, null, null);
+    }
 
+    /**
+     * @param bodyProcessingMetrics times each processing stage, or is null to leave them untimed
+     * @param linkResolutionBudget  how long each body's links may take to resolve, or null to wait for every link
+     * @param circuitBreakers       the breakers around link resolution's dependencies, or null for none
+     */
     public BodyProcessingFieldTransformerFactory(VideoMatcher videoMatcher,
                                                  Set<Pattern> shortenerPatterns,
                                                  BlogApiEndpointMetadataManager blogApiEndpointMetadataManager,
                                                  Client resolverClient,
-                                                 int resolverThreadPoolSize,
+                                                 ExecutorService resolverExecutor,
                                                  int maxLinks,
                                                  Client documentStoreClient,
                                                  URI documentStoreBaseUri,
                                                  String documentStoreHostHeader,
                                                  Client contentReadClient,
                                                  URI contentReadBaseUri,
-                                                 String contentReadHostHeader) {
-      
+                                                 String contentReadHostHeader,
+                                                 URI contentReadBulkUri,
+                                                 int contentReadBatchSize,
+                                                 Cache<URI, Identifier> redirectCache,
+                                                 ContentReadCache contentReadCache,
+                                                 boolean singleParsePipeline,
+                                                 BodyProcessingMetrics bodyProcessingMetrics,
+                                                 LinkResolutionBudget linkResolutionBudget,
+                                                 LinkResolverCircuitBreakers circuitBreakers) {
+
         this.videoMatcher = videoMatcher;
         this.shortenerPatterns = ImmutableSet.copyOf(shortenerPatterns);
         this.blogApiEndpointMetadataManager = blogApiEndpointMetadataManager;
         this.resolverClient = resolverClient;
-        this.resolverThreadPoolSize = resolverThreadPoolSize;
+        this.resolverExecutor = resolverExecutor;
         this.documentStoreClient = documentStoreClient;
         this.contentReadClient = contentReadClient;
         this.documentStoreBaseUri = documentStoreBaseUri;
         this.contentReadBaseUri = contentReadBaseUri;
         this.contentReadHostHeader = contentReadHostHeader;
+        this.contentReadBulkUri = contentReadBulkUri;
+        this.contentReadBatchSize = contentReadBatchSize;
         this.documentStoreHostHeader = documentStoreHostHeader;
         this.maxLinks = maxLinks;
+        this.redirectCache = redirectCache;
+        this.contentReadCache = contentReadCache;
+        this.singleParsePipeline = singleParsePipeline;
+        this.bodyProcessingMetrics = bodyProcessingMetrics;
+        this.linkResolutionBudget = linkResolutionBudget;
+        this.circuitBreakers = circuitBreakers;
     }
 
     @Override
     public FieldTransformer newInstance() {
-        BodyProcessorChain bodyProcessorChain = new BodyProcessorChain(bodyProcessors());
-        return new BodyProcessingFieldTransformer(bodyProcessorChain);
+        BodyProcessorChain bodyProcessorChain = new BodyProcessorChain(timed(bodyProcessors()));
+        return new BodyProcessingFieldTransformer(bodyProcessorChain, bodyProcessingMetrics);
+    }
+
+    /**
+     * Wraps each processor to be timed as a stage named after its class, numbering the repeats of a class in order.
+     */
+    private List<BodyProcessor> timed(List<BodyProcessor> processors) {
+        if (bodyProcessingMetrics == null) {
+            return processors;
+        }
+
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<BodyProcessor> timed = new ArrayList<>(processors.size());
+        for (BodyProcessor processor : processors) {
+            timed.add(bodyProcessingMetrics.timed(processor, stageName(processor, occurrences)));
+        }
+        return timed;
+    }
+
+    private DocumentBodyProcessorChain timedDocumentChain(List<DocumentBodyProcessor> processors) {
+        if (bodyProcessingMetrics == null) {
+            return new DocumentBodyProcessorChain(processors);
+        }
+
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<DocumentBodyProcessor> timed = new ArrayList<>(processors.size());
+        for (DocumentBodyProcessor processor : processors) {
+            timed.add(bodyProcessingMetrics.timedDocumentProcessor(processor, stageName(processor, occurrences)));
+        }
+        return new DocumentBodyProcessorChain(timed);
     }
 
-    private List<BodyProcessor> bodyProcessors() {
+    private static String stageName(Object processor, Map<String, Integer> occurrences) {
+        String name = processor.getClass().getSimpleName();
+        int occurrence = occurrences.merge(name, 1, Integer::sum);
+        return (occurrence == 1) ? name : name + "-" + occurrence;
+    }
+
+    List<BodyProcessor> bodyProcessors() {
+        if (singleParsePipeline) {
+            return singleParseBodyProcessors();
+        }
+
         return asList(
                 new RegexRemoverBodyProcessor("(\\s|&nbsp;)*<a\\s[^>]*class=\"more-link\"[^>]*>.*?<\\/a\\s*>"),
                 new RegexRemoverBodyProcessor("(<p>)\\s*(</p>)|(<p/>)"),
@@ -85,25 +181,60 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
 				new TagSoupCleanupHtmlBodyProcessor(),
                 new ImageExtractorBodyProcessor(),
                 stAXTransformingBodyProcessor(),
-                new RemoveEmptyElementsBodyProcessor(asList("p"),asList("img")),
+                removeEmptyElementsBodyProcessor(),
                 new Html5SelfClosingTagBodyProcessor(),
 				new RegexReplacerBodyProcessor("</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>"),
                 new RegexReplacerBodyProcessor("</p> +<p>", "</p><p>"),
-                new LinkResolverBodyProcessor(
-                        shortenerPatterns,
-                        resolverClient,
-                        blogApiEndpointMetadataManager,
-                        documentStoreClient,
-                        documentStoreBaseUri,
-                        documentStoreHostHeader,
-                        contentReadClient,
-                        contentReadBaseUri,
-                        contentReadHostHeader,
-                        resolverThreadPoolSize,
-                        maxLinks)
+                linkResolverBodyProcessor()
+        );
+    }
+
+    /**
+     * The same processing, except that empty elements are removed and links resolved on one parse of the body, after
+     * which the self-closing tag and paragraph whitespace clean-ups are applied to the links' replacements as well.
+     */
+    private List<BodyProcessor> singleParseBodyProcessors() {
+        return asList(
+                new RegexRemoverBodyProcessor("(\\s|&nbsp;)*<a\\s[^>]*class=\"more-link\"[^>]*>.*?<\\/a\\s*>"),
+                new RegexRemoverBodyProcessor("(<p>)\\s*(</p>)|(<p/>)"),
+                new TagSoupHtmlBodyProcessor(),
+                new TagSoupCleanupHtmlBodyProcessor(),
+                new ImageExtractorBodyProcessor(),
+                stAXTransformingBodyProcessor(),
+                timedDocumentChain(asList(
+                        removeEmptyElementsBodyProcessor(),
+                        linkResolverBodyProcessor())),
+                new Html5SelfClosingTagBodyProcessor(),
+                new RegexReplacerBodyProcessor("</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>"),
+                new RegexReplacerBodyProcessor("</p> +<p>", "</p><p>")
         );
     }
 
+    private RemoveEmptyElementsBodyProcessor removeEmptyElementsBodyProcessor() {
+        return new RemoveEmptyElementsBodyProcessor(asList("p"),asList("img"));
+    }
+
+    private LinkResolverBodyProcessor linkResolverBodyProcessor() {
+        return new LinkResolverBodyProcessor(
+                shortenerPatterns,
+                resolverClient,
+                blogApiEndpointMetadataManager,
+                documentStoreClient,
+                documentStoreBaseUri,
+                documentStoreHostHeader,
+                contentReadClient,
+                contentReadBaseUri,
+                contentReadHostHeader,
+                contentReadBulkUri,
+                contentReadBatchSize,
+                resolverExecutor,
+                maxLinks,
+                redirectCache,
+                contentReadCache,
+                linkResolutionBudget,
+                circuitBreakers);
+    }
+
     private BodyProcessor stAXTransformingBodyProcessor() {
         return new StAXTransformingBodyProcessor(new StructuredWordPressSourcedBodyXMLEventHandlerRegistry(videoMatcher));
     }
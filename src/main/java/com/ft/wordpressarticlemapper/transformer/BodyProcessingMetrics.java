@@ -0,0 +1,130 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Times each stage of body processing, and the whole of it, under {@link BodyProcessingFieldTransformer}'s metrics.
+ * <p>
+ * Each stage, named after its processor's class, has a {@code duration} timer and histograms of the {@code input-chars}
+ * and {@code output-chars} of the body and of the {@code allocated-bytes} of the processing thread, where the JVM can
+ * measure them. Allocations made on other threads, such as the link resolver pool's, are not counted. A body that takes
+ * longer than the slow-body threshold is logged with its transaction ID and the time taken by each stage; stages nested
+ * in a {@link DocumentBodyProcessorChain} are listed on their own as well as within the chain's own time.
+ */
+public class BodyProcessingMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BodyProcessingMetrics.class);
+
+    private final MetricRegistry metrics;
+    private final long slowBodyThresholdNanos;
+    private final Timer total;
+    private final Meter slowBodies;
+    private final com.sun.management.ThreadMXBean allocations;
+
+    public BodyProcessingMetrics(MetricRegistry metrics, long slowBodyThreshold, TimeUnit slowBodyThresholdUnit) {
+        this.metrics = metrics;
+        this.slowBodyThresholdNanos = slowBodyThresholdUnit.toNanos(slowBodyThreshold);
+        this.total = metrics.timer(name(BodyProcessingFieldTransformer.class, "total"));
+        this.slowBodies = metrics.meter(name(BodyProcessingFieldTransformer.class, "slow-bodies"));
+        this.allocations = allocationCounter();
+    }
+
+    public BodyProcessor timed(BodyProcessor processor, String stage) {
+        Stage timings = new Stage(stage);
+        return (body, context) -> {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            String processed = processor.process(body, context);
+            timings.record(System.nanoTime() - start, allocatedBefore, context);
+            timings.inputChars.update(body == null ? 0 : body.length());
+            timings.outputChars.update(processed == null ? 0 : processed.length());
+            return processed;
+        };
+    }
+
+    public DocumentBodyProcessor timedDocumentProcessor(DocumentBodyProcessor processor, String stage) {
+        Stage timings = new Stage(stage);
+        return (document, context) -> {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            processor.process(document, context);
+            timings.record(System.nanoTime() - start, allocatedBefore, context);
+        };
+    }
+
+    /**
+     * Records the time taken to process a whole body, logging the body's stages if it was slow.
+     */
+    void recordBody(StageTimingBodyProcessingContext context, long elapsedNanos, int inputChars) {
+        total.update(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos < slowBodyThresholdNanos) {
+            return;
+        }
+
+        slowBodies.mark();
+        LOG.warn("slow body: transaction_id={} took {}ms for {} chars, stages: {}", context.getTransactionId(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), inputChars, describe(context.getStageNanos()));
+    }
+
+    private static String describe(Map<String, Long> stageNanos) {
+        return stageNanos.entrySet().stream()
+                .map(stage -> stage.getKey() + "=" + TimeUnit.NANOSECONDS.toMillis(stage.getValue()) + "ms")
+                .collect(Collectors.joining(", "));
+    }
+
+    private long allocatedBytes() {
+        return (allocations == null) ? -1 : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    private class Stage {
+        private final String name;
+        private final Timer duration;
+        private final Histogram inputChars;
+        private final Histogram outputChars;
+        private final Histogram allocatedBytes;
+
+        private Stage(String name) {
+            this.name = name;
+            this.duration = metrics.timer(name(BodyProcessingFieldTransformer.class, name, "duration"));
+            this.inputChars = metrics.histogram(name(BodyProcessingFieldTransformer.class, name, "input-chars"));
+            this.outputChars = metrics.histogram(name(BodyProcessingFieldTransformer.class, name, "output-chars"));
+            this.allocatedBytes = metrics.histogram(name(BodyProcessingFieldTransformer.class, name, "allocated-bytes"));
+        }
+
+        private void record(long elapsedNanos, long allocatedBefore, BodyProcessingContext context) {
+            duration.update(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (allocatedBefore >= 0) {
+                allocatedBytes.update(allocatedBytes() - allocatedBefore);
+            }
+            if (context instanceof StageTimingBodyProcessingContext) {
+                ((StageTimingBodyProcessingContext) context).recordStage(name, elapsedNanos);
+            }
+        }
+    }
+}
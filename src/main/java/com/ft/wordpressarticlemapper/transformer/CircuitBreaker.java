@@ -0,0 +1,167 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.wordpressarticlemapper.exception.CircuitBreakerOpenException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Stops calls to a dependency that keeps failing, so that link resolution fails fast instead of waiting out a timeout
+ * per link during an outage.
+ * <p>
+ * The breaker opens after a number of consecutive failed calls, and refuses calls while it is open. Once it has been
+ * open for a while, it lets one call through as a probe: the breaker closes if the probe succeeds, and opens again if it
+ * fails. Only the probe decides that; calls that were let through before the breaker opened and finish while it is
+ * open or half open are not counted. Its state is published as a {@code circuit-state} gauge (0 closed, 1 half open, 2 open), alongside meters of
+ * the calls {@code circuit-rejected} and of the times the breaker {@code circuit-opened}.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final String dependency;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final Meter rejected;
+    private final Meter opened;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    public CircuitBreaker(String dependency, int failureThreshold, long openDuration, TimeUnit openDurationUnit,
+                          MetricRegistry metrics) {
+        this(dependency, failureThreshold, openDuration, openDurationUnit, metrics, System::nanoTime);
+    }
+
+    CircuitBreaker(String dependency, int failureThreshold, long openDuration, TimeUnit openDurationUnit,
+                   MetricRegistry metrics, LongSupplier clock) {
+        this.dependency = dependency;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDurationUnit.toNanos(openDuration);
+        this.clock = clock;
+        this.rejected = metrics.meter(name(LinkResolverBodyProcessor.class, dependency, "circuit-rejected"));
+        this.opened = metrics.meter(name(LinkResolverBodyProcessor.class, dependency, "circuit-opened"));
+        metrics.register(name(LinkResolverBodyProcessor.class, dependency, "circuit-state"),
+                (Gauge<Integer>) () -> getState().ordinal());
+    }
+
+    /**
+     * A breaker that never opens.
+     */
+    public static CircuitBreaker disabled(String dependency) {
+        return new CircuitBreaker(dependency, Integer.MAX_VALUE, 0, TimeUnit.NANOSECONDS, new MetricRegistry());
+    }
+
+    /**
+     * Makes a call that fails only by throwing.
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, result -> false);
+    }
+
+    /**
+     * Makes a call through the breaker, counting it as failed if it throws or if its result is a failure.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open, without making the call
+     */
+    public <T> T call(Supplier<T> call, Predicate<? super T> isFailure) {
+        State admittedIn = allowCall();
+        if (admittedIn == null) {
+            rejected.mark();
+            throw new CircuitBreakerOpenException(dependency);
+        }
+
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            recordFailure(admittedIn);
+            throw e;
+        }
+
+        if (isFailure.test(result)) {
+            recordFailure(admittedIn);
+        } else {
+            recordSuccess(admittedIn);
+        }
+        return result;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    /**
+     * @return the state the call is let through in, {@link State#HALF_OPEN} for the probe, or null if it is refused
+     */
+    private synchronized State allowCall() {
+        switch (state) {
+            case CLOSED:
+                return State.CLOSED;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openNanos) {
+                    return null;
+                }
+                state = State.HALF_OPEN;
+                probing = true;
+                LOG.info("circuit breaker for {} is half open, probing", dependency);
+                return State.HALF_OPEN;
+            default:
+                // one probe at a time
+                if (probing) {
+                    return null;
+                }
+                probing = true;
+                return State.HALF_OPEN;
+        }
+    }
+
+    private synchronized void recordSuccess(State admittedIn) {
+        if (admittedIn == State.HALF_OPEN) {
+            LOG.info("circuit breaker for {} is closed", dependency);
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probing = false;
+        } else if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+        // otherwise a call made before the breaker opened, which does not show that the dependency has recovered
+    }
+
+    private synchronized void recordFailure(State admittedIn) {
+        if ((admittedIn != State.HALF_OPEN) && (state != State.CLOSED)) {
+            // a call made before the breaker opened, which has already been accounted for
+            return;
+        }
+        consecutiveFailures++;
+        if ((admittedIn == State.HALF_OPEN) || (consecutiveFailures >= failureThreshold)) {
+            LOG.warn("circuit breaker for {} is open after {} consecutive failures", dependency, consecutiveFailures);
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            probing = false;
+            opened.mark();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+/**
+ * What link resolution does with a body when a lookup is refused because its dependency's circuit breaker is open.
+ */
+public enum CircuitOpenPolicy {
+    /**
+     * Leave the link in the body unresolved, as if the lookup had failed.
+     */
+    LEAVE_UNRESOLVED,
+    /**
+     * Fail the processing of the body, so that it is not published with links left unresolved.
+     */
+    FAIL
+}
@@ -0,0 +1,162 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.ft.wordpressarticlemapper.model.ReadEndpointContent;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.dropwizard.util.Duration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Caches content-read lookups by content UUID, shared by every {@link LinkResolverBodyProcessor}.
+ * <p>
+ * Content that was found and content that was not found expire after separately configured times. Lookups that fail
+ * are not cached. Concurrent lookups of a UUID that is not yet cached wait on the same request rather than making one
+ * each.
+ */
+public class ContentReadCache {
+
+    private final Cache<UUID, Entry> entries;
+    private final Ticker ticker;
+    private final long expireFoundAfterNanos;
+    private final long expireNotFoundAfterNanos;
+    private final Meter hits;
+    private final Meter coalesced;
+    private final Meter misses;
+
+    public ContentReadCache(long maximumSize, Duration expireFoundAfter, Duration expireNotFoundAfter, MetricRegistry metrics) {
+        this(maximumSize, expireFoundAfter, expireNotFoundAfter, metrics, Ticker.systemTicker());
+    }
+
+    ContentReadCache(long maximumSize, Duration expireFoundAfter, Duration expireNotFoundAfter, MetricRegistry metrics, Ticker ticker) {
+        this.ticker = ticker;
+        this.expireFoundAfterNanos = expireFoundAfter.toNanoseconds();
+        this.expireNotFoundAfterNanos = expireNotFoundAfter.toNanoseconds();
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Math.max(expireFoundAfterNanos, expireNotFoundAfterNanos), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .build();
+
+        this.hits = metrics.meter(name(ContentReadCache.class, "hits"));
+        this.coalesced = metrics.meter(name(ContentReadCache.class, "coalesced"));
+        this.misses = metrics.meter(name(ContentReadCache.class, "misses"));
+        metrics.register(name(ContentReadCache.class, "hit-ratio"), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                long saved = hits.getCount() + coalesced.getCount();
+                return Ratio.of(saved, saved + misses.getCount());
+            }
+        });
+        metrics.register(name(ContentReadCache.class, "size"), (Gauge<Long>) entries::size);
+    }
+
+    /**
+     * Returns the cached lookup for the UUID, or starts one with the loader, whose result (or <code>null</code> if the
+     * content does not exist) is then cached.
+     */
+    public CompletableFuture<ReadEndpointContent> get(UUID uuid, Function<UUID, CompletableFuture<ReadEndpointContent>> loader) {
+        return getAll(Collections.singleton(uuid), missing -> Collections.singletonMap(uuid, loader.apply(uuid))).get(uuid);
+    }
+
+    /**
+     * Returns the cached lookups for the UUIDs. The UUIDs that are neither cached nor already being looked up are
+     * passed to the loader in a single call, so that it can fetch them together.
+     */
+    public Map<UUID, CompletableFuture<ReadEndpointContent>> getAll(Set<UUID> uuids,
+                                                                    Function<Set<UUID>, Map<UUID, CompletableFuture<ReadEndpointContent>>> loader) {
+        Map<UUID, CompletableFuture<ReadEndpointContent>> results = new HashMap<>();
+        Map<UUID, Entry> missing = new HashMap<>();
+        for (UUID uuid : uuids) {
+            Entry candidate = new Entry();
+            Entry entry = lookup(uuid, candidate);
+            if (entry == candidate) {
+                missing.put(uuid, candidate);
+            }
+            results.put(uuid, entry.content);
+        }
+
+        if (!missing.isEmpty()) {
+            load(missing, loader);
+        }
+        return results;
+    }
+
+    private Entry lookup(UUID uuid, Entry candidate) {
+        while (true) {
+            Entry entry = entries.asMap().putIfAbsent(uuid, candidate);
+
+            if (entry == null) {
+                misses.mark();
+                return candidate;
+            }
+
+            if (!entry.content.isDone()) {
+                coalesced.mark();
+                return entry;
+            }
+
+            if (ticker.read() - entry.expiresAt < 0) {
+                hits.mark();
+                return entry;
+            }
+
+            entries.asMap().remove(uuid, entry);
+        }
+    }
+
+    private void load(Map<UUID, Entry> missing, Function<Set<UUID>, Map<UUID, CompletableFuture<ReadEndpointContent>>> loader) {
+        Map<UUID, CompletableFuture<ReadEndpointContent>> lookups;
+        try {
+            lookups = loader.apply(Collections.unmodifiableSet(missing.keySet()));
+        } catch (RuntimeException e) {
+            missing.forEach((uuid, entry) -> fail(uuid, entry, e));
+            return;
+        }
+
+        missing.forEach((uuid, entry) -> {
+            CompletableFuture<ReadEndpointContent> lookup = lookups.get(uuid);
+            if (lookup == null) {
+                fail(uuid, entry, new IllegalStateException("no lookup was made for content UUID=" + uuid));
+                return;
+            }
+
+            lookup.whenComplete((content, failure) -> {
+                if (failure != null) {
+                    fail(uuid, entry, failure);
+                } else {
+                    entry.expiresAt = ticker.read() + expiryFor(content);
+                    entry.content.complete(content);
+                }
+            });
+        });
+    }
+
+    private void fail(UUID uuid, Entry entry, Throwable failure) {
+        entries.asMap().remove(uuid, entry);
+        entry.content.completeExceptionally(failure);
+    }
+
+    private long expiryFor(ReadEndpointContent content) {
+        return (content == null) ? expireNotFoundAfterNanos : expireFoundAfterNanos;
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<ReadEndpointContent> content = new CompletableFuture<>();
+        private volatile long expiresAt;
+    }
+}
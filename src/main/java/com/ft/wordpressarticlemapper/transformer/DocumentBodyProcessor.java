@@ -0,0 +1,14 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import org.w3c.dom.Document;
+
+/**
+ * A body processor that works on an already parsed body, changing it in place, so that consecutive processors can
+ * share a single parse and serialization in a {@link DocumentBodyProcessorChain}.
+ */
+public interface DocumentBodyProcessor {
+
+    void process(Document document, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException;
+}
@@ -0,0 +1,56 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.Xml;
+import com.google.common.collect.ImmutableList;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Parses the body once, runs each {@link DocumentBodyProcessor} over the same document and serializes it once at the
+ * end, rather than each processor parsing and serializing the body for itself.
+ */
+public class DocumentBodyProcessorChain implements BodyProcessor {
+
+    private final List<DocumentBodyProcessor> processors;
+    private final XmlFactories xmlFactories = XmlFactories.shared();
+
+    public DocumentBodyProcessorChain(List<DocumentBodyProcessor> processors) {
+        this.processors = ImmutableList.copyOf(processors);
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        if (body == null) {
+            throw new BodyProcessingException("Body is null");
+        }
+
+        if ("".equals(body.trim())) {
+            return "";
+        }
+
+        Document document = createDocument(body);
+        for (DocumentBodyProcessor processor : processors) {
+            processor.process(document, bodyProcessingContext);
+        }
+
+        if (!document.getDocumentElement().hasChildNodes()) {
+            return "";
+        }
+
+        return Xml.writeToString(document.getDocumentElement());
+    }
+
+    private Document createDocument(String body) throws BodyProcessingException {
+        try {
+            return xmlFactories.parse(body);
+        } catch (SAXException | IOException e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+}
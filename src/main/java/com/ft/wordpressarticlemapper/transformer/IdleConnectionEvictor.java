@@ -0,0 +1,57 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.apache.http.conn.ClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically closes the expired connections, and those idle for too long, in the pools of the clients that
+ * {@link LinkResolverBodyProcessor} resolves links with, so that a connection the other end has since dropped is not
+ * handed out again.
+ */
+public class IdleConnectionEvictor implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdleConnectionEvictor.class);
+
+    private final List<ClientConnectionManager> connectionManagers;
+    private final long intervalMillis;
+    private final long idleTimeoutMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("idle-connection-evictor-%d").setDaemon(true).build());
+
+    public IdleConnectionEvictor(List<ClientConnectionManager> connectionManagers, long intervalMillis, long idleTimeoutMillis) {
+        this.connectionManagers = ImmutableList.copyOf(connectionManagers);
+        this.intervalMillis = intervalMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public void start() throws Exception {
+        scheduler.scheduleWithFixedDelay(this::evict, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        scheduler.shutdownNow();
+    }
+
+    void evict() {
+        for (ClientConnectionManager connectionManager : connectionManagers) {
+            try {
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // keep the schedule going, whatever went wrong with this pool
+                LOG.warn("failed to evict idle connections", e);
+            }
+        }
+    }
+}
@@ -8,30 +8,17 @@ import org.apache.commons.lang.StringUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 public class ImageExtractorBodyProcessor implements BodyProcessor {
 
@@ -48,6 +35,8 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
     };
 
+    private final XmlFactories xmlFactories = XmlFactories.shared();
+
     @Override
     public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
         if (StringUtils.isBlank(body)) {
@@ -55,23 +44,21 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
 
         try {
-            DocumentBuilder documentBuilder = getDocumentBuilder();
-            Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
-            XPath xPath = XPathFactory.newInstance().newXPath();
+            Document document = xmlFactories.parse(body);
 
-            deleteNodeIncludingAncestors(IMG_EMPTY_SRC, xPath, document);
-            deleteNodeIncludingAncestors(IMG_MISSING_SRC, xPath, document);
-            paragraphImageExtractWithAncestorsDeletion(xPath, document);
+            deleteNodeIncludingAncestors(IMG_EMPTY_SRC, document);
+            deleteNodeIncludingAncestors(IMG_MISSING_SRC, document);
+            paragraphImageExtractWithAncestorsDeletion(document);
 
-            body = serializeBody(document);
-        } catch (ParserConfigurationException | SAXException | IOException | TransformerException | XPathExpressionException e) {
+            body = xmlFactories.serialize(document);
+        } catch (SAXException | IOException | TransformerException | XPathExpressionException e) {
             throw new BodyProcessingException(e);
         }
         return body;
     }
 
-    private void deleteNodeIncludingAncestors(String expression, XPath xPath, Document document) throws XPathExpressionException {
-        NodeList nodeList = (NodeList) xPath.compile(expression).evaluate(document, XPathConstants.NODESET);
+    private void deleteNodeIncludingAncestors(String expression, Document document) throws XPathExpressionException {
+        NodeList nodeList = (NodeList) xmlFactories.xpath(expression).evaluate(document, XPathConstants.NODESET);
         Set<Node> nodesToDelete = new HashSet<>();
 
         for (int i = 0; i < nodeList.getLength(); i++) {
@@ -89,8 +76,8 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
     }
 
-    private void paragraphImageExtractWithAncestorsDeletion(XPath xPath, Document document) throws XPathExpressionException {
-        NodeList nodeList = (NodeList) xPath.compile(IMG_INSIDE_PARAGRAPH_TAG).evaluate(document, XPathConstants.NODESET);
+    private void paragraphImageExtractWithAncestorsDeletion(Document document) throws XPathExpressionException {
+        NodeList nodeList = (NodeList) xmlFactories.xpath(IMG_INSIDE_PARAGRAPH_TAG).evaluate(document, XPathConstants.NODESET);
         Set<Node> nodesToDelete = new HashSet<>();
 
         for (int i = 0; i < nodeList.getLength(); i++) {
@@ -139,26 +126,4 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
         return true;
     }
-
-
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-        return builderFactory.newDocumentBuilder();
-    }
-
-    private String serializeBody(Document document) throws TransformerException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
-
-        DOMSource domSource = new DOMSource(document);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
-
-        transformer.transform(domSource, result);
-
-        writer.flush();
-        return writer.toString();
-    }
 }
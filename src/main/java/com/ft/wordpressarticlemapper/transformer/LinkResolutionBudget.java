@@ -0,0 +1,45 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * How long {@link LinkResolverBodyProcessor} may spend resolving the links of one body, after which the links still
+ * unresolved are left as they are and counted as {@code links-skipped}.
+ */
+public class LinkResolutionBudget {
+
+    private final long budgetNanos;
+    private final Meter linksSkipped;
+
+    public LinkResolutionBudget(long budget, TimeUnit unit, MetricRegistry metrics) {
+        this.budgetNanos = unit.toNanos(budget);
+        this.linksSkipped = metrics.meter(name(LinkResolverBodyProcessor.class, "links-skipped"));
+    }
+
+    /**
+     * A budget that never runs out, so that every link is waited for until its lookups finish or time out.
+     */
+    public static LinkResolutionBudget unlimited() {
+        return new LinkResolutionBudget(0, TimeUnit.NANOSECONDS, new MetricRegistry());
+    }
+
+    public boolean isUnlimited() {
+        return budgetNanos <= 0;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} by which a body whose links start resolving now must be done
+     */
+    long deadlineFromNow() {
+        return System.nanoTime() + budgetNanos;
+    }
+
+    void linkSkipped() {
+        linksSkipped.mark();
+    }
+}
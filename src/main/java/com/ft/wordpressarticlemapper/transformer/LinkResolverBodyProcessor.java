@@ -4,14 +4,18 @@ import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
+import com.ft.wordpressarticlemapper.exception.CircuitBreakerOpenException;
 import com.ft.wordpressarticlemapper.exception.ContentReadServiceUnavailableException;
 import com.ft.wordpressarticlemapper.model.Identifier;
 import com.ft.wordpressarticlemapper.model.ReadEndpointContent;
 import com.ft.wordpressarticlemapper.resources.IdentifierBuilder;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
@@ -25,25 +29,33 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -52,26 +64,19 @@ import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
+import static javax.servlet.http.HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
 import static javax.servlet.http.HttpServletResponse.SC_MOVED_PERMANENTLY;
 import static javax.servlet.http.HttpServletResponse.SC_MOVED_TEMPORARILY;
+import static javax.servlet.http.HttpServletResponse.SC_MULTIPLE_CHOICES;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
 
 
 public class LinkResolverBodyProcessor
-        implements BodyProcessor {
+        implements BodyProcessor, DocumentBodyProcessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(LinkResolverBodyProcessor.class);
 
@@ -82,6 +87,7 @@ public class LinkResolverBodyProcessor
     private static final Pattern HREF_UUID = Pattern.compile(".*ft\\.com\\/\\S*" + UUID_REGEX + ".*");
     private static final Pattern FT_WORDPRESS_URL = Pattern.compile("https?:\\/\\/([^.]+\\.)?[^.]+\\.ft\\.com\\/(\\S*\\/)?\\d{4}\\/\\d{2}\\/\\d{2}\\/.*\\/");
     private static final String THING_PREFIX = "http://www.ft.com/thing/";
+    private static final Pattern THING_UUID = Pattern.compile(Pattern.quote(THING_PREFIX) + UUID_REGEX);
 
     private final Set<Pattern> urlShortenerPatterns;
     private final IdentifierBuilder identifierBuilder;
@@ -90,11 +96,18 @@ public class LinkResolverBodyProcessor
     private final Client contentReadClient;
     private final UriBuilder contentReadUriBuilder;
     private final URI documentStoreQueryURI;
-    private final int poolSize;
+    private final ExecutorService resolverExecutor;
+    private final Cache<URI, Identifier> redirectCache;
+    private final ContentReadCache contentReadCache;
     private final int maxLinks;
     private final String contentReadHostHeader;
+    private final URI contentReadBulkURI;
+    private final int contentReadBatchSize;
     private final ObjectMapper mapper = new ObjectMapper();
+    private final XmlFactories xmlFactories = XmlFactories.shared();
     private final String documentStoreHostHeader;
+    private final LinkResolutionBudget budget;
+    private final LinkResolverCircuitBreakers circuitBreakers;
 
     public LinkResolverBodyProcessor(Set<Pattern> urlShortenerPatterns,
                                      Client resolverClient,
@@ -105,8 +118,39 @@ public class LinkResolverBodyProcessor
                                      Client contentReadClient,
                                      URI contentReadBaseURI,
                                      String contentReadHostHeader,
-                                     int queryThreadPoolSize,
-                                     int maxLinks) {
+                                     URI contentReadBulkURI,
+                                     int contentReadBatchSize,
+                                     ExecutorService resolverExecutor,
+                                     int maxLinks,
+                                     Cache<URI, Identifier> redirectCache,
+                                     ContentReadCache contentReadCache) {
+        this(urlShortenerPatterns, resolverClient, blogApiEndpointMetadataManager, documentStoreClient,
+                documentStoreBaseURI, documentStoreHostHeader, contentReadClient, contentReadBaseURI,
+                contentReadHostHeader, contentReadBulkURI, contentReadBatchSize, resolverExecutor, maxLinks,
+                redirectCache, contentReadCache, null, null);
+    }
+
+    /**
+     * @param budget          how long the links of each body may take to resolve, or null to wait for every link
+     * @param circuitBreakers the breakers around each dependency, or null to call the dependencies whatever happens
+     */
+    public LinkResolverBodyProcessor(Set<Pattern> urlShortenerPatterns,
+                                     Client resolverClient,
+                                     BlogApiEndpointMetadataManager blogApiEndpointMetadataManager,
+                                     Client documentStoreClient,
+                                     URI documentStoreBaseURI,
+                                     String documentStoreHostHeader,
+                                     Client contentReadClient,
+                                     URI contentReadBaseURI,
+                                     String contentReadHostHeader,
+                                     URI contentReadBulkURI,
+                                     int contentReadBatchSize,
+                                     ExecutorService resolverExecutor,
+                                     int maxLinks,
+                                     Cache<URI, Identifier> redirectCache,
+                                     ContentReadCache contentReadCache,
+                                     LinkResolutionBudget budget,
+                                     LinkResolverCircuitBreakers circuitBreakers) {
 
         this.urlShortenerPatterns = ImmutableSet.copyOf(urlShortenerPatterns);
 
@@ -124,10 +168,16 @@ public class LinkResolverBodyProcessor
         this.contentReadUriBuilder = UriBuilder.fromUri(contentReadBaseURI).path("{uuid}");
 
         this.contentReadHostHeader = contentReadHostHeader;
+        this.contentReadBulkURI = contentReadBulkURI;
+        this.contentReadBatchSize = contentReadBatchSize;
         this.documentStoreHostHeader = documentStoreHostHeader;
 
-        this.poolSize = queryThreadPoolSize;
+        this.resolverExecutor = resolverExecutor;
         this.maxLinks = maxLinks;
+        this.redirectCache = redirectCache;
+        this.contentReadCache = contentReadCache;
+        this.budget = (budget == null) ? LinkResolutionBudget.unlimited() : budget;
+        this.circuitBreakers = (circuitBreakers == null) ? LinkResolverCircuitBreakers.disabled() : circuitBreakers;
     }
 
     @Override
@@ -140,18 +190,35 @@ public class LinkResolverBodyProcessor
 
         Document document;
         try {
-            DocumentBuilder documentBuilder = getDocumentBuilder();
-            document = documentBuilder.parse(new InputSource(new StringReader(body)));
-        } catch (ParserConfigurationException | SAXException | IOException e) {
+            document = xmlFactories.parse(body);
+        } catch (SAXException | IOException e) {
             throw new BodyProcessingException(e);
         }
 
-        List<Element> links = new ArrayList<>();
+        if (resolveLinks(document)) {
+            body = serializeBody(document);
+        }
 
+        return body;
+    }
+
+    @Override
+    public void process(Document document, BodyProcessingContext bodyProcessingContext)
+            throws BodyProcessingException {
+
+        resolveLinks(document);
+    }
+
+    /**
+     * Replaces the links in the document that resolve to FT content, returning whether any were replaced. Links still
+     * being resolved when the budget runs out are left as they are, and their outstanding lookups are cancelled.
+     */
+    private boolean resolveLinks(Document document) {
+        long deadline = budget.deadlineFromNow();
+        List<Element> links = new ArrayList<>();
 
-        XPath xpath = XPathFactory.newInstance().newXPath();
         try {
-            final NodeList aTags = (NodeList) xpath.evaluate("//a", document, XPathConstants.NODESET);
+            final NodeList aTags = (NodeList) xmlFactories.xpath("//a").evaluate(document, XPathConstants.NODESET);
             for (int i = 0; i < aTags.getLength(); i++) {
                 final Element aTag = (Element) aTags.item(i);
 
@@ -169,32 +236,57 @@ public class LinkResolverBodyProcessor
 
             }
 
-            ForkJoinPool pool = new ForkJoinPool(poolSize);
-            ForkJoinTask<Boolean> task = pool.submit(() -> {
-                Optional<Boolean> shortLinkChanged = links.subList(0, Math.min(linksCount, maxLinks))
-                        .parallelStream()
-                        .map(link -> {
-                            try {
-                                return resolveAndReplaceTag(link);
-                            } catch (Exception e) {
-                                return false;
-                            }
-                        })
-                        .reduce((t, u) -> t | u);
-
-                return shortLinkChanged.orElse(false);
-            });
+            List<Element> linksToResolve = links.subList(0, Math.min(linksCount, maxLinks));
+            List<Future<UUID>> resolutions = new ArrayList<>(linksToResolve.size());
+            for (Element link : linksToResolve) {
+                String href = link.getAttribute("href");
+                try {
+                    resolutions.add(resolveContentUuid(href, deadline));
+                } catch (RejectedExecutionException e) {
+                    LOG.warn("link resolver is saturated, leaving href={} unresolved", href);
+                    resolutions.add(null);
+                }
+            }
 
-            boolean anyLinkChanged = task.join();
+            List<UUID> contentUuids = new ArrayList<>(linksToResolve.size());
+            try {
+                for (int i = 0; i < linksToResolve.size(); i++) {
+                    contentUuids.add(awaitResolution(resolutions.get(i), linksToResolve.get(i).getAttribute("href"), deadline));
+                }
+            } finally {
+                // stops the lookups of any link that ran out of budget, or was given up on, from going on to its next step
+                resolutions.stream().filter(Objects::nonNull).forEach(resolution -> resolution.cancel(false));
+            }
+
+            Set<UUID> distinctUuids = contentUuids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+            Map<UUID, CompletableFuture<ReadEndpointContent>> contents = distinctUuids.isEmpty()
+                    ? Collections.emptyMap()
+                    : contentReadCache.getAll(distinctUuids, this::readContents);
 
-            if (anyLinkChanged) {
-                body = serializeBody(document);
+            boolean anyLinkChanged = false;
+            for (int i = 0; i < linksToResolve.size(); i++) {
+                UUID contentUuid = contentUuids.get(i);
+                if (contentUuid == null) {
+                    continue;
+                }
+
+                Element link = linksToResolve.get(i);
+                String href = link.getAttribute("href");
+                // the reads are shared through the cache with other bodies, so are waited for but never cancelled
+                ReadEndpointContent readEndpointContent = awaitResolution(contents.get(contentUuid), href, deadline);
+                if (readEndpointContent != null) {
+                    LOG.info("replace link href={} with FT content UUID={}", href, contentUuid);
+                    replaceTag(link, readEndpointContent);
+                    anyLinkChanged = true;
+                } else {
+                    LOG.info("link href={} with FT is NOT replaced with content UUID={}: Content does not exist in document store", href, contentUuid);
+                }
             }
+
+            return anyLinkChanged;
         } catch (XPathExpressionException e) {
             throw new BodyProcessingException(e);
         }
-
-        return body;
     }
 
     private boolean isFtWordpressLink(Element aTag) {
@@ -205,17 +297,11 @@ public class LinkResolverBodyProcessor
         return FT_WORDPRESS_URL.matcher(url).matches();
     }
 
-    private DocumentBuilder getDocumentBuilder()
-            throws ParserConfigurationException {
-
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-
-        return documentBuilderFactory.newDocumentBuilder();
+    private boolean isFTContentLink(Element aTag) {
+        return isFTContentLink(aTag.getAttribute("href"));
     }
 
-    private boolean isFTContentLink(Element aTag) {
-        String url = aTag.getAttribute("href");
+    private boolean isFTContentLink(String url) {
         if (Strings.isNullOrEmpty(url)) {
             return false;
         }
@@ -223,8 +309,7 @@ public class LinkResolverBodyProcessor
         return HREF_UUID.matcher(url).matches();
     }
 
-    private UUID extractUUID(Element aTag) {
-        String url = aTag.getAttribute("href");
+    private UUID extractUUID(String url) {
         UUID uuid = null;
 
         Matcher m = HREF_UUID.matcher(url);
@@ -250,62 +335,124 @@ public class LinkResolverBodyProcessor
         return false;
     }
 
-    private boolean resolveAndReplaceTag(Element aTag) {
+    private <T> T awaitResolution(Future<T> resolution, String href, long deadline) {
+        if (resolution == null) {
+            return null;
+        }
 
-        if (isFTContentLink(aTag)) {
-            UUID uuid = extractUUID(aTag);
-            if (uuid == null) {
-                return false;
+        try {
+            if (budget.isUnlimited()) {
+                return resolution.get();
             }
-            return replaceTag(aTag, uuid);
+            return resolution.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            budget.linkSkipped();
+            LOG.warn("link resolution budget exhausted, leaving href={} unresolved", href);
+        } catch (CancellationException e) {
+            LOG.warn("resolution of href={} was cancelled", href);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("interrupted while resolving href={}", href);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof CircuitBreakerOpenException)) {
+                LOG.warn("failed to resolve href={}", href, e.getCause());
+            } else if (circuitBreakers.getOpenPolicy() == CircuitOpenPolicy.FAIL) {
+                throw new BodyProcessingException(e.getCause());
+            } else {
+                LOG.warn("{}, leaving href={} unresolved", e.getCause().getMessage(), href);
+            }
+        }
+        return null;
+    }
 
-        } else {
-            String url = aTag.getAttribute("href");
+    /**
+     * Resolves a link to a content UUID as a chain of lookups, each of which is a separate task on the resolver executor.
+     * The lookups are blocking HTTP calls, so each holds a resolver thread while it runs; chaining them only means that a
+     * link does not hold a thread between its lookups, and that a lookup the executor rejects fails its own link alone.
+     */
+    private CompletableFuture<UUID> resolveContentUuid(String url, long deadline) {
+        if (isFTContentLink(url)) {
+            return CompletableFuture.completedFuture(extractUUID(url));
+        }
 
-            Identifier identifier = resolveToFTIdentifier(URI.create(url));
-            if (identifier.getAuthority() == null) {
-                return false;
-            }
+        return onResolverExecutor(() -> resolveToFTIdentifier(URI.create(url)), deadline)
+                .thenCompose(identifier -> (identifier.getAuthority() == null)
+                        ? CompletableFuture.<UUID>completedFuture(null)
+                        : onResolverExecutor(() -> findFTContent(identifier), deadline));
+    }
 
-            UUID uuid = findFTContent(identifier);
-            if (uuid == null) {
-                return false;
-            }
+    /**
+     * Reads the content for all of an article's uncached UUIDs, in batches from the bulk endpoint when one is
+     * configured. A batch that the bulk endpoint fails to return is read one UUID at a time instead.
+     */
+    private Map<UUID, CompletableFuture<ReadEndpointContent>> readContents(Set<UUID> uuids) {
+        Map<UUID, CompletableFuture<ReadEndpointContent>> contents = new HashMap<>();
+        if (contentReadBulkURI == null) {
+            uuids.forEach(uuid -> contents.put(uuid, onResolverExecutor(() -> readContent(uuid))));
+            return contents;
+        }
 
-            return replaceTag(aTag, uuid);
+        for (List<UUID> batch : Iterables.partition(uuids, contentReadBatchSize)) {
+            CompletableFuture<Map<UUID, ReadEndpointContent>> bulkRead = onResolverExecutor(
+                    () -> getReadEndpointContents(batch));
+            bulkRead.whenComplete((found, failure) -> {
+                if (failure != null) {
+                    LOG.warn("bulk content read of {} UUIDs failed, reading them individually", batch.size(), failure);
+                }
+            });
+
+            for (UUID uuid : batch) {
+                contents.put(uuid, bulkRead
+                        .thenApply(found -> CompletableFuture.completedFuture(found.get(uuid)))
+                        .exceptionally(failure -> onResolverExecutor(() -> readContent(uuid)))
+                        .thenCompose(Function.identity()));
+            }
         }
+        return contents;
+    }
 
+    private <T> CompletableFuture<T> onResolverExecutor(Supplier<T> lookup) {
+        return CompletableFuture.supplyAsync(lookup, resolverExecutor);
     }
 
-    private boolean replaceTag(Element aTag, UUID uuid) {
+    /**
+     * Runs a lookup for one body's link, unless the body's budget has run out while the lookup was queued.
+     */
+    private <T> CompletableFuture<T> onResolverExecutor(Supplier<T> lookup, long deadline) {
+        if (budget.isUnlimited()) {
+            return onResolverExecutor(lookup);
+        }
 
-        ReadEndpointContent readEndpointContent = getReadEndpointContent(uuid);
+        return onResolverExecutor(() -> {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new CancellationException("link resolution budget exhausted");
+            }
+            return lookup.get();
+        });
+    }
 
-        if (readEndpointContent != null) {
-            LOG.info("replace link href={} with FT content UUID={}", aTag.getAttribute("href"), uuid);
+    private void replaceTag(Element aTag, ReadEndpointContent readEndpointContent) {
+        Node parent = aTag.getParentNode();
+        Element content = aTag.getOwnerDocument().createElement("content");
 
-            Node parent = aTag.getParentNode();
-            Element content = aTag.getOwnerDocument().createElement("content");
 
+        content.setAttribute("id", readEndpointContent.getId().replace(THING_PREFIX, ""));
+        content.setAttribute("type", readEndpointContent.getType());
 
-            content.setAttribute("id", readEndpointContent.getId().replace(THING_PREFIX, ""));
-            content.setAttribute("type", readEndpointContent.getType());
+        NodeList children = aTag.getChildNodes();
+        Node n = children.item(0);
+        while (n != null) {
+            aTag.removeChild(n);
+            content.appendChild(n);
+            n = children.item(0);
+        }
 
-            NodeList children = aTag.getChildNodes();
-            Node n = children.item(0);
-            while (n != null) {
-                aTag.removeChild(n);
-                content.appendChild(n);
-                n = children.item(0);
-            }
+        parent.insertBefore(content, aTag);
+        parent.removeChild(aTag);
+    }
 
-            parent.insertBefore(content, aTag);
-            parent.removeChild(aTag);
-            return true;
-        } else {
-            LOG.info("link href={} with FT is NOT replaced with content UUID={}: Content does not exist in document store", aTag.getAttribute("href"), uuid);
-            return false;
-        }
+    private ReadEndpointContent readContent(UUID uuid) {
+        return circuitBreakers.getContentRead().call(() -> getReadEndpointContent(uuid));
     }
 
     private ReadEndpointContent getReadEndpointContent(UUID uuid) {
@@ -317,19 +464,60 @@ public class LinkResolverBodyProcessor
                 .header("Host", contentReadHostHeader)
                 .accept(MediaType.APPLICATION_JSON_TYPE)
                 .get(ClientResponse.class);
-        if (clientResponse.getStatus() == Response.Status.SERVICE_UNAVAILABLE.getStatusCode() ||
-                clientResponse.getStatus() == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
-            throw new ContentReadServiceUnavailableException(clientResponse.getClientResponseStatus().getReasonPhrase());
+        try {
+            if (clientResponse.getStatus() == Response.Status.SERVICE_UNAVAILABLE.getStatusCode() ||
+                    clientResponse.getStatus() == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
+                throw new ContentReadServiceUnavailableException(clientResponse.getClientResponseStatus().getReasonPhrase());
+            }
+
+            if (clientResponse.getStatus() == Response.Status.OK.getStatusCode()) {
+                try {
+                    return mapper.readValue(clientResponse.getEntityInputStream(), ReadEndpointContent.class);
+                } catch (IOException e) {
+                    throw new ContentReadServiceUnavailableException(e.getMessage());
+                }
+            }
+            return null;
+        } finally {
+            // return the connection to the pool whatever the status
+            clientResponse.close();
         }
+    }
+
+    private Map<UUID, ReadEndpointContent> getReadEndpointContents(List<UUID> uuids) {
+        LOG.info("look up content by UUIDs: {}", uuids);
+        // only outages count towards the bulk breaker: a bulk endpoint that rejects the request is no reason to stop
+        // asking it, and either way the UUIDs are read one at a time instead
+        ClientResponse clientResponse = circuitBreakers.getContentReadBulk().call(
+                () -> contentReadClient.resource(contentReadBulkURI)
+                        .header("Host", contentReadHostHeader)
+                        .type(MediaType.APPLICATION_JSON_TYPE)
+                        .accept(MediaType.APPLICATION_JSON_TYPE)
+                        .post(ClientResponse.class, uuids.stream().map(UUID::toString).collect(Collectors.toList())),
+                bulkResponse -> bulkResponse.getStatus() >= SC_INTERNAL_SERVER_ERROR);
+        try {
+            if (clientResponse.getStatus() != Response.Status.OK.getStatusCode()) {
+                throw new ContentReadServiceUnavailableException("bulk content read returned status " + clientResponse.getStatus());
+            }
 
-        if (clientResponse.getStatus() == Response.Status.OK.getStatusCode()) {
+            List<ReadEndpointContent> found;
             try {
-                return mapper.readValue(clientResponse.getEntityInputStream(), ReadEndpointContent.class);
+                found = mapper.readValue(clientResponse.getEntityInputStream(), new TypeReference<List<ReadEndpointContent>>() {});
             } catch (IOException e) {
                 throw new ContentReadServiceUnavailableException(e.getMessage());
             }
+
+            Map<UUID, ReadEndpointContent> contents = new HashMap<>();
+            for (ReadEndpointContent content : found) {
+                Matcher m = THING_UUID.matcher(Strings.nullToEmpty(content.getId()));
+                if (m.matches()) {
+                    contents.put(UUID.fromString(m.group(1)), content);
+                }
+            }
+            return contents;
+        } finally {
+            clientResponse.close();
         }
-        return null;
     }
 
     private Identifier resolveToFTIdentifier(final URI source) {
@@ -341,6 +529,26 @@ public class LinkResolverBodyProcessor
                 return identifier;
             }
         }
+
+        identifier = redirectCache.getIfPresent(source);
+        if (identifier == null) {
+            Redirection redirection = followRedirects(source);
+            identifier = redirection.identifier;
+            if (redirection.cacheable) {
+                redirectCache.put(source, identifier);
+            }
+        }
+        return identifier;
+    }
+
+    /**
+     * Follows the redirect chain from the source. The outcome is only worth caching if the chain ended somewhere
+     * definite: at an FT identifier, at a page that returned 2xx, or back where it had already been. A chain ending in
+     * any other status, such as a shortener's 503 or 429, is looked up again next time.
+     */
+    private Redirection followRedirects(final URI source) {
+        Identifier identifier = null;
+        boolean cacheable = true;
         Set<URI> visited = new LinkedHashSet<>();
         URI url = source;
 
@@ -359,7 +567,13 @@ public class LinkResolverBodyProcessor
                     resource = resource.cookie(NEXT_COOKIE);
                 }
 
-                response = ((UniformInterface) resource).head();
+                UniformInterface request = (UniformInterface) resource;
+                // only the hops to a shortener count towards its breaker; the sites that links go on to are many and
+                // unrelated, and one of them failing says nothing about the others
+                CircuitBreaker shortener = circuitBreakers.getShortener(url.getHost());
+                response = (shortener == null)
+                        ? request.head()
+                        : shortener.call(request::head, hopResponse -> hopResponse.getStatus() >= SC_INTERNAL_SERVER_ERROR);
 
                 visited.add(url);
 
@@ -379,6 +593,7 @@ public class LinkResolverBodyProcessor
                     if (status != SC_OK) {
                         LOG.warn("{} was resolved to {}, which returned unexpected status {}", source, url, status);
                     }
+                    cacheable = (status >= SC_OK) && (status < SC_MULTIPLE_CHOICES);
                 }
             } finally {
                 if (response != null) {
@@ -388,7 +603,7 @@ public class LinkResolverBodyProcessor
 
         } while (identifier == null);
 
-        return identifier;
+        return new Redirection(identifier, cacheable);
     }
 
     private UUID findFTContent(Identifier identifier) {
@@ -402,19 +617,25 @@ public class LinkResolverBodyProcessor
                     .build();
 
             LOG.info("query URI: {}", queryURI);
-            ClientResponse response = documentStoreClient.resource(queryURI)
-                    .header("Host", documentStoreHostHeader)
-                    .head();
-
-            int status = response.getStatus();
-            LOG.info("query response: {}", status);
-            if ((status == SC_MOVED_PERMANENTLY) || (status == SC_MOVED_TEMPORARILY)) {
-                String contentURI = response.getLocation().toString();
-                LOG.info("query response redirected to: {}", contentURI);
-                Matcher m = CONTENT_UUID.matcher(contentURI);
-                if (m.matches()) {
-                    uuid = UUID.fromString(m.group(1));
+            ClientResponse response = circuitBreakers.getDocumentStore().call(
+                    () -> documentStoreClient.resource(queryURI)
+                            .header("Host", documentStoreHostHeader)
+                            .head(),
+                    queryResponse -> queryResponse.getStatus() >= SC_INTERNAL_SERVER_ERROR);
+
+            try {
+                int status = response.getStatus();
+                LOG.info("query response: {}", status);
+                if ((status == SC_MOVED_PERMANENTLY) || (status == SC_MOVED_TEMPORARILY)) {
+                    String contentURI = response.getLocation().toString();
+                    LOG.info("query response redirected to: {}", contentURI);
+                    Matcher m = CONTENT_UUID.matcher(contentURI);
+                    if (m.matches()) {
+                        uuid = UUID.fromString(m.group(1));
+                    }
                 }
+            } finally {
+                response.close();
             }
         } catch (ClientHandlerException | UnsupportedEncodingException e) {
             LOG.warn("failed to query document store", e);
@@ -423,20 +644,19 @@ public class LinkResolverBodyProcessor
         return uuid;
     }
 
-    private String serializeBody(Document document) {
-        DOMSource domSource = new DOMSource(document);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
+    private static class Redirection {
+        private final Identifier identifier;
+        private final boolean cacheable;
+
+        private Redirection(Identifier identifier, boolean cacheable) {
+            this.identifier = identifier;
+            this.cacheable = cacheable;
+        }
+    }
 
-        TransformerFactory tf = TransformerFactory.newInstance();
+    private String serializeBody(Document document) {
         try {
-            Transformer transformer = tf.newTransformer();
-            transformer.setOutputProperty("omit-xml-declaration", "yes");
-            transformer.setOutputProperty("standalone", "yes");
-            transformer.transform(domSource, result);
-            writer.flush();
-            String body = writer.toString();
-            return body;
+            return xmlFactories.serialize(document);
         } catch (TransformerException e) {
             throw new BodyProcessingException(e);
         }
@@ -0,0 +1,71 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The circuit breakers around the dependencies that {@link LinkResolverBodyProcessor} looks links up in, and what it
+ * does with a body when one of them is open.
+ */
+public class LinkResolverCircuitBreakers {
+
+    private final Map<String, CircuitBreaker> shorteners;
+    private final CircuitBreaker documentStore;
+    private final CircuitBreaker contentRead;
+    private final CircuitBreaker contentReadBulk;
+    private final CircuitOpenPolicy openPolicy;
+
+    /**
+     * @param shorteners      the breakers around each configured URL shortener, by host
+     * @param contentReadBulk the breaker around the bulk content read endpoint, kept apart from the one around single
+     *                        reads because those are what a failed bulk read falls back to
+     */
+    public LinkResolverCircuitBreakers(Map<String, CircuitBreaker> shorteners, CircuitBreaker documentStore,
+                                       CircuitBreaker contentRead, CircuitBreaker contentReadBulk,
+                                       CircuitOpenPolicy openPolicy) {
+        this.shorteners = ImmutableMap.copyOf(shorteners);
+        this.documentStore = documentStore;
+        this.contentRead = contentRead;
+        this.contentReadBulk = contentReadBulk;
+        this.openPolicy = openPolicy;
+    }
+
+    /**
+     * Breakers that never open.
+     */
+    public static LinkResolverCircuitBreakers disabled() {
+        return new LinkResolverCircuitBreakers(Collections.emptyMap(),
+                CircuitBreaker.disabled("document-store"), CircuitBreaker.disabled("content-read"),
+                CircuitBreaker.disabled("content-read-bulk"), CircuitOpenPolicy.LEAVE_UNRESOLVED);
+    }
+
+    /**
+     * @return the breaker around the URL shortener at the host, or null if the host is not a configured shortener, such
+     * as a blog or other site that a shortened link redirects to
+     */
+    public CircuitBreaker getShortener(String host) {
+        return (host == null) ? null : shorteners.get(host);
+    }
+
+    public Map<String, CircuitBreaker> getShorteners() {
+        return shorteners;
+    }
+
+    public CircuitBreaker getDocumentStore() {
+        return documentStore;
+    }
+
+    public CircuitBreaker getContentRead() {
+        return contentRead;
+    }
+
+    public CircuitBreaker getContentReadBulk() {
+        return contentReadBulk;
+    }
+
+    public CircuitOpenPolicy getOpenPolicy() {
+        return openPolicy;
+    }
+}
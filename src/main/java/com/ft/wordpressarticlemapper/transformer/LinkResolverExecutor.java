@@ -0,0 +1,71 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Bounded pool of threads, shared by every {@link LinkResolverBodyProcessor}, on which link lookups are run.
+ */
+public class LinkResolverExecutor implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LinkResolverExecutor.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ThreadPoolExecutor executor;
+    private final Meter rejected;
+
+    public LinkResolverExecutor(int poolSize, int queueSize, ResolverSaturationPolicy saturationPolicy, MetricRegistry metrics) {
+        boolean callerRuns = (saturationPolicy == ResolverSaturationPolicy.CALLER_RUNS);
+
+        this.rejected = metrics.meter(name(LinkResolverExecutor.class, "rejected"));
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("link-resolver-%d").setDaemon(true).build(),
+                (task, pool) -> {
+                    rejected.mark();
+                    // unlike CallerRunsPolicy, which silently drops the task once the pool is shut down and so leaves
+                    // whoever waits on it hanging, a lookup submitted after stop() fails
+                    if (callerRuns && !pool.isShutdown()) {
+                        task.run();
+                    } else {
+                        throw new RejectedExecutionException("link lookup rejected by " + pool);
+                    }
+                });
+
+        metrics.register(name(LinkResolverExecutor.class, "queue-depth"), (Gauge<Integer>) () -> executor.getQueue().size());
+        metrics.register(name(LinkResolverExecutor.class, "active-threads"), (Gauge<Integer>) executor::getActiveCount);
+        metrics.register(name(LinkResolverExecutor.class, "pool-size"), (Gauge<Integer>) executor::getPoolSize);
+    }
+
+    public ExecutorService getExecutorService() {
+        return executor;
+    }
+
+    @Override
+    public void start() throws Exception {
+        executor.prestartAllCoreThreads();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOG.warn("link resolver executor did not terminate within {}s, abandoning outstanding lookups", SHUTDOWN_TIMEOUT_SECONDS);
+            executor.shutdownNow();
+        }
+    }
+}
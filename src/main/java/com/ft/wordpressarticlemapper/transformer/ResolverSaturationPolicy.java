@@ -0,0 +1,15 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+/**
+ * What the link resolver executor does with a lookup when all of its threads are busy and its queue is full.
+ */
+public enum ResolverSaturationPolicy {
+    /**
+     * Run the lookup on the thread that is processing the body, slowing the publisher down.
+     */
+    CALLER_RUNS,
+    /**
+     * Reject the lookup, leaving the link in the body unresolved.
+     */
+    ABORT
+}
@@ -0,0 +1,29 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects how long each stage took while processing one body, for {@link BodyProcessingMetrics} to report if the body
+ * turns out to be slow.
+ */
+public class StageTimingBodyProcessingContext extends DefaultTransactionIdBodyProcessingContext {
+
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+
+    public StageTimingBodyProcessingContext(String transactionId) {
+        super(transactionId);
+    }
+
+    void recordStage(String stage, long elapsedNanos) {
+        stageNanos.merge(stage, elapsedNanos, Long::sum);
+    }
+
+    /**
+     * @return the time taken by each stage, in the order the stages finished
+     */
+    public Map<String, Long> getStageNanos() {
+        return Collections.unmodifiableMap(stageNanos);
+    }
+}
@@ -3,6 +3,7 @@ package com.ft.wordpressarticlemapper.transformer;
 import com.ft.content.model.Syndication;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
+import com.ft.wordpressarticlemapper.model.ResolvedPostMetadata;
 
 import java.net.URI;
 
@@ -23,8 +24,14 @@ public class SyndicationManager {
             return Syndication.VERIFY;
         }
 
-        BlogApiEndpointMetadata blogApiEndpointMetadata = blogApiEndpointMetadataManager.getBlogApiEndpointMetadataByUri(uri);
+        return getSyndication(blogApiEndpointMetadataManager.getBlogApiEndpointMetadataByUri(uri));
+    }
+
+    public Syndication getSyndicationFor(ResolvedPostMetadata postMetadata) {
+        return getSyndication(postMetadata.getBlogApiEndpointMetadata());
+    }
 
+    private Syndication getSyndication(BlogApiEndpointMetadata blogApiEndpointMetadata) {
         if(blogApiEndpointMetadata == null) {
             return Syndication.VERIFY;
         }
@@ -2,6 +2,7 @@ package com.ft.wordpressarticlemapper.transformer;
 
 import com.ft.content.model.Standout;
 import com.ft.content.model.Syndication;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.exception.UnpublishablePostException;
 import com.ft.wordpressarticlemapper.exception.UntransformablePostException;
 import com.ft.wordpressarticlemapper.model.AccessLevel;
@@ -28,13 +29,14 @@ public class WordPressBlogPostContentMapper extends WordPressContentMapper<WordP
 
     private final BodyProcessingFieldTransformer bodyProcessingFieldTransformer;
 
-    public WordPressBlogPostContentMapper(BrandSystemResolver brandSystemResolver,
+    public WordPressBlogPostContentMapper(BlogApiEndpointMetadataManager blogApiEndpointMetadataManager,
+                                          BrandSystemResolver brandSystemResolver,
                                           BodyProcessingFieldTransformer bodyProcessingFieldTransformer,
                                           IdentifierBuilder identifierBuilder,
                                           SyndicationManager syndicationManager,
                                           String canonicalWebUrlTemplate) {
 
-        super(brandSystemResolver, identifierBuilder, syndicationManager, canonicalWebUrlTemplate);
+        super(blogApiEndpointMetadataManager, brandSystemResolver, identifierBuilder, syndicationManager, canonicalWebUrlTemplate);
         this.bodyProcessingFieldTransformer = bodyProcessingFieldTransformer;
     }
 
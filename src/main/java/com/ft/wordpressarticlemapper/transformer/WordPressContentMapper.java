@@ -5,6 +5,7 @@ import com.ft.content.model.Syndication;
 import com.ft.uuidutils.DeriveUUID;
 import com.ft.uuidutils.DeriveUUID.Salts;
 import com.ft.uuidutils.GenerateV5UUID;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.exception.BrandResolutionException;
 import com.ft.wordpressarticlemapper.exception.IdentifiersBuildException;
 import com.ft.wordpressarticlemapper.exception.WordPressContentException;
@@ -39,15 +40,18 @@ public abstract class WordPressContentMapper<C extends WordPressContent> {
     private static final DateTimeFormatter PUBLISH_DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ssX");
     private static final String COMMENT_OPEN_STATUS = "open";
 
+    private final BlogApiEndpointMetadataManager blogApiEndpointMetadataManager;
     private final BrandSystemResolver brandSystemResolver;
     private final IdentifierBuilder identifierBuilder;
     private final SyndicationManager syndicationManager;
     private final String canonicalWebUrlTemplate;
 
-    public WordPressContentMapper(BrandSystemResolver brandSystemResolver,
+    public WordPressContentMapper(BlogApiEndpointMetadataManager blogApiEndpointMetadataManager,
+                                  BrandSystemResolver brandSystemResolver,
                                   IdentifierBuilder identifierBuilder,
                                   SyndicationManager syndicationManager,
                                   String canonicalWebUrlTemplate) {
+        this.blogApiEndpointMetadataManager = blogApiEndpointMetadataManager;
         this.brandSystemResolver = brandSystemResolver;
         this.identifierBuilder = identifierBuilder;
         this.syndicationManager = syndicationManager;
@@ -60,12 +64,13 @@ public abstract class WordPressContentMapper<C extends WordPressContent> {
             throw new IllegalArgumentException("No post Url supplied");
         }
         URI requestUri = UriBuilder.fromUri(postUrl).build();
+        ResolvedPostMetadata postMetadata = blogApiEndpointMetadataManager.resolve(requestUri);
 
         Date publishedDate = extractPublishedDate(requestUri, post);
 
-        SortedSet<Brand> brands = new TreeSet<>(extractBrand(requestUri));
+        SortedSet<Brand> brands = new TreeSet<>(extractBrand(postMetadata));
 
-        SortedSet<Identifier> identifiers = generateIdentifiers(requestUri, post);
+        SortedSet<Identifier> identifiers = generateIdentifiers(postMetadata, post);
         UUID featuredImageUuid = createMainImageUuid(post);
         AccessLevel accessLevel = getAccessLevel(post);
 
@@ -73,7 +78,7 @@ public abstract class WordPressContentMapper<C extends WordPressContent> {
 
         Date firstPublishedDate = extractFirstPublishedDate(requestUri, post);
         String canBeDistributed = getCanBeDistributed();
-        Syndication canBeSyndicated = syndicationManager.getSyndicationByUri(requestUri);
+        Syndication canBeSyndicated = syndicationManager.getSyndicationFor(postMetadata);
         String canonicalWebUrl = String.format(canonicalWebUrlTemplate, uuid);
 
         Standout standout = getStandout(post);
@@ -98,10 +103,10 @@ public abstract class WordPressContentMapper<C extends WordPressContent> {
         return new Standout(false, false, scoop);
     }
 
-    private SortedSet<Identifier> generateIdentifiers(URI requestUri, Post post) {
-        SortedSet<Identifier> identifiers = identifierBuilder.buildIdentifiers(requestUri, post);
+    private SortedSet<Identifier> generateIdentifiers(ResolvedPostMetadata postMetadata, Post post) {
+        SortedSet<Identifier> identifiers = identifierBuilder.buildIdentifiersFor(postMetadata, post);
         if (identifiers == null) {
-            String msg = String.format("Failed to build identifiers for uri [%s].", requestUri);
+            String msg = String.format("Failed to build identifiers for uri [%s].", postMetadata.getRequestUri());
             LOG.error(msg);
             throw new IdentifiersBuildException(msg);
         }
@@ -114,11 +119,11 @@ public abstract class WordPressContentMapper<C extends WordPressContent> {
                                    AccessLevel accessLevel, String canBeDistributed, Syndication canBeSyndicated,
                                    String webUrl, String canonicalWebUrl, Standout standout);
 
-    private Set<Brand> extractBrand(URI requestUri) {
-        Set<Brand> brand = brandSystemResolver.getBrand(requestUri);
+    private Set<Brand> extractBrand(ResolvedPostMetadata postMetadata) {
+        Set<Brand> brand = brandSystemResolver.getBrandFor(postMetadata);
 
         if (brand == null) {
-            String msg = String.format("Failed to resolve brand for uri [%s].", requestUri);
+            String msg = String.format("Failed to resolve brand for uri [%s].", postMetadata.getRequestUri());
             LOG.error(msg);
             throw new BrandResolutionException(msg);
         }
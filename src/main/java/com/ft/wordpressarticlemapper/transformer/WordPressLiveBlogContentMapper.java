@@ -1,6 +1,7 @@
 package com.ft.wordpressarticlemapper.transformer;
 
 import com.ft.content.model.Syndication;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.AccessLevel;
 import com.ft.wordpressarticlemapper.model.Brand;
 import com.ft.wordpressarticlemapper.model.Identifier;
@@ -21,11 +22,12 @@ import static org.apache.commons.lang3.StringEscapeUtils.unescapeHtml4;
 public class WordPressLiveBlogContentMapper
         extends WordPressContentMapper<WordPressLiveBlogContent> {
 
-    public WordPressLiveBlogContentMapper(BrandSystemResolver brandSystemResolver,
+    public WordPressLiveBlogContentMapper(BlogApiEndpointMetadataManager blogApiEndpointMetadataManager,
+                                          BrandSystemResolver brandSystemResolver,
                                           IdentifierBuilder identifierBuilder,
                                           SyndicationManager syndicationManager,
                                           String canonicalWebUrlTemplate) {
-        super(brandSystemResolver, identifierBuilder, syndicationManager, canonicalWebUrlTemplate);
+        super(blogApiEndpointMetadataManager, brandSystemResolver, identifierBuilder, syndicationManager, canonicalWebUrlTemplate);
     }
 
     @Override
@@ -0,0 +1,142 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Parsers, serializers and compiled XPath expressions shared by the body processors.
+ * <p>
+ * None of these are thread-safe, so each thread gets its own, created on first use and then reused for every body the
+ * thread processes. The JAXP factories are looked up once rather than per body.
+ */
+public class XmlFactories {
+
+    private static final XmlFactories SHARED = new XmlFactories();
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+    private final XPathFactory xPathFactory = XPathFactory.newInstance();
+
+    private final ThreadLocal<DocumentBuilder> documentBuilders = ThreadLocal.withInitial(this::newDocumentBuilder);
+    private final ThreadLocal<Transformer> transformers = ThreadLocal.withInitial(this::newTransformer);
+    private final ThreadLocal<XPath> xPaths = ThreadLocal.withInitial(xPathFactory::newXPath);
+    private final ThreadLocal<Map<String, XPathExpression>> expressions = ThreadLocal.withInitial(HashMap::new);
+
+    private final LongAdder documentBuildersCreated = new LongAdder();
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder transformersCreated = new LongAdder();
+    private final LongAdder serializations = new LongAdder();
+    private final LongAdder expressionsCompiled = new LongAdder();
+    private final LongAdder expressionLookups = new LongAdder();
+
+    XmlFactories() {
+        documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        try {
+            documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static XmlFactories shared() {
+        return SHARED;
+    }
+
+    public Document parse(String xml) throws SAXException, IOException {
+        parses.increment();
+        DocumentBuilder documentBuilder = documentBuilders.get();
+        try {
+            return documentBuilder.parse(new InputSource(new StringReader(xml)));
+        } finally {
+            documentBuilder.reset();
+        }
+    }
+
+    /**
+     * Serializes the node without an XML declaration.
+     */
+    public String serialize(Node node) throws TransformerException {
+        serializations.increment();
+        StringWriter writer = new StringWriter();
+        Transformer transformer = transformers.get();
+        try {
+            transformer.transform(new DOMSource(node), new StreamResult(writer));
+        } finally {
+            transformer.clearParameters();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Returns the expression compiled for the calling thread, which must not pass it to another thread.
+     */
+    public XPathExpression xpath(String expression) throws XPathExpressionException {
+        expressionLookups.increment();
+        Map<String, XPathExpression> compiled = expressions.get();
+        XPathExpression xPathExpression = compiled.get(expression);
+        if (xPathExpression == null) {
+            expressionsCompiled.increment();
+            xPathExpression = xPaths.get().compile(expression);
+            compiled.put(expression, xPathExpression);
+        }
+        return xPathExpression;
+    }
+
+    public void registerMetrics(MetricRegistry metrics) {
+        metrics.register(name(XmlFactories.class, "document-builders", "created"), (Gauge<Long>) documentBuildersCreated::sum);
+        metrics.register(name(XmlFactories.class, "document-builders", "uses"), (Gauge<Long>) parses::sum);
+        metrics.register(name(XmlFactories.class, "transformers", "created"), (Gauge<Long>) transformersCreated::sum);
+        metrics.register(name(XmlFactories.class, "transformers", "uses"), (Gauge<Long>) serializations::sum);
+        metrics.register(name(XmlFactories.class, "xpath-expressions", "compiled"), (Gauge<Long>) expressionsCompiled::sum);
+        metrics.register(name(XmlFactories.class, "xpath-expressions", "uses"), (Gauge<Long>) expressionLookups::sum);
+    }
+
+    private DocumentBuilder newDocumentBuilder() {
+        documentBuildersCreated.increment();
+        try {
+            return documentBuilderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Transformer newTransformer() {
+        transformersCreated.increment();
+        try {
+            Transformer transformer = transformerFactory.newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
+            return transformer;
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,20 +1,18 @@
 package com.ft.wordpressarticlemapper.transformer.html;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.List;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
 import com.ft.bodyprocessing.Xml;
+import com.ft.wordpressarticlemapper.transformer.DocumentBodyProcessor;
+import com.ft.wordpressarticlemapper.transformer.XmlFactories;
 import com.google.common.base.Strings;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 /**
@@ -22,10 +20,11 @@ import org.xml.sax.SAXException;
  *
  * @author Simon
  */
-public class RemoveEmptyElementsBodyProcessor implements BodyProcessor {
+public class RemoveEmptyElementsBodyProcessor implements BodyProcessor, DocumentBodyProcessor {
 
 	private final List<String> removableElements;
 	private final List<String> nonTextContentElements;
+	private final XmlFactories xmlFactories = XmlFactories.shared();
 
 	public RemoveEmptyElementsBodyProcessor(List<String> removableElements, List<String> nonTextContentElements) {
 		this.removableElements = removableElements;
@@ -44,6 +43,18 @@ public class RemoveEmptyElementsBodyProcessor implements BodyProcessor {
 		}
 
 		Document doc = createDocument(bodyHtml);
+		process(doc, bodyProcessingContext);
+
+		Element body = (Element) doc.getElementsByTagName("body").item(0);
+		if(!body.hasChildNodes()) {
+			return "";
+		}
+
+		return Xml.writeToString(body);
+	}
+
+	@Override
+	public void process(Document doc, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
 		Element body = (Element) doc.getElementsByTagName("body").item(0);
 
 		int removedElements;
@@ -65,12 +76,6 @@ public class RemoveEmptyElementsBodyProcessor implements BodyProcessor {
 				}
 			}
 		} while(removedElements>0);
-
-		if(!body.hasChildNodes()) {
-			return "";
-		}
-
-		return Xml.writeToString(body);
 	}
 
 	private boolean hasNonTextContent(Element element) {
@@ -89,11 +94,9 @@ public class RemoveEmptyElementsBodyProcessor implements BodyProcessor {
 	private Document createDocument(String html) throws BodyProcessingException {
 
 		try {
-			InputSource is = new InputSource();
-			is.setCharacterStream(new StringReader(html));
-			return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(is);
+			return xmlFactories.parse(html);
 
-		} catch (SAXException | IOException | ParserConfigurationException e) {
+		} catch (SAXException | IOException e) {
 			throw new BodyProcessingException(e);
 		}
 	}
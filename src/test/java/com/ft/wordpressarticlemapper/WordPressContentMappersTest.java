@@ -0,0 +1,148 @@
+package com.ft.wordpressarticlemapper;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
+import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
+import com.ft.wordpressarticlemapper.transformer.ContentReadCache;
+import com.ft.wordpressarticlemapper.transformer.LinkResolverBodyProcessor;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.common.base.Charsets;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
+import io.dropwizard.client.JerseyClientConfiguration;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.util.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import static com.ft.wordpressarticlemapper.util.TestFileUtil.resourceFilePath;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.head;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class WordPressContentMappersTest {
+
+    private static final int PORT = freePort();
+    private static final String BASE_URL = "http://localhost:" + PORT;
+    private static final String RESOLVED_URL = "http://www.ft.com/resolved/foo/bar";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(PORT);
+
+    private ExecutorService clientExecutor;
+    private Client resolverClient;
+    private Client documentStoreClient;
+    private Client contentReadClient;
+
+    @Before
+    public void setUp() {
+        MetricRegistry metrics = new MetricRegistry();
+        clientExecutor = Executors.newSingleThreadExecutor();
+        resolverClient = WordPressContentMappers.buildClient(metrics, new JerseyClientConfiguration(), "resolver",
+                Collections.singleton("localhost"), clientExecutor, Jackson.newObjectMapper());
+        documentStoreClient = WordPressContentMappers.buildClient(metrics, new JerseyClientConfiguration(), "document-store",
+                Collections.singleton("localhost"), clientExecutor, Jackson.newObjectMapper());
+        contentReadClient = WordPressContentMappers.buildClient(metrics, new JerseyClientConfiguration(), "content-read",
+                Collections.singleton("localhost"), clientExecutor, Jackson.newObjectMapper());
+    }
+
+    @After
+    public void tearDown() {
+        resolverClient.destroy();
+        documentStoreClient.destroy();
+        contentReadClient.destroy();
+        clientExecutor.shutdownNow();
+    }
+
+    @Test
+    public void thatClientLeavesRedirectsToTheCallerWhenAskedTo() {
+        wireMockRule.stubFor(head(urlEqualTo("/short/1"))
+                .willReturn(aResponse().withStatus(302).withHeader("Location", BASE_URL + "/short/2")));
+        resolverClient.setFollowRedirects(false);
+
+        ClientResponse response = resolverClient.resource(BASE_URL + "/short/1").head();
+        try {
+            assertThat(response.getStatus(), is(302));
+            assertThat(response.getLocation(), is(equalTo(URI.create(BASE_URL + "/short/2"))));
+        } finally {
+            response.close();
+        }
+    }
+
+    @Test
+    public void thatRedirectsReachTheLinkResolversRedirectWalker() {
+        UUID contentUuid = UUID.randomUUID();
+        wireMockRule.stubFor(head(urlEqualTo("/short/1"))
+                .willReturn(aResponse().withStatus(302).withHeader("Location", BASE_URL + "/short/2")));
+        wireMockRule.stubFor(head(urlEqualTo("/short/2"))
+                .willReturn(aResponse().withStatus(301).withHeader("Location", RESOLVED_URL)));
+        wireMockRule.stubFor(head(urlPathEqualTo("/content-query"))
+                .willReturn(aResponse().withStatus(301).withHeader("Location", "http://www.ft.com/content/" + contentUuid)));
+        wireMockRule.stubFor(get(urlEqualTo("/content-read/" + contentUuid))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody(contentReadOutput(contentUuid))));
+
+        LinkResolverBodyProcessor processor = new LinkResolverBodyProcessor(
+                Collections.singleton(Pattern.compile(Pattern.quote(BASE_URL + "/short/") + ".*")),
+                resolverClient,
+                new BlogApiEndpointMetadataManager(ImmutableList.of(new BlogApiEndpointMetadata("www.ft.com/resolved",
+                        ImmutableSet.of("http://api.ft.com/system/JUNIT"), "FT-LABS-WP-Y-XXX", null))),
+                documentStoreClient,
+                URI.create(BASE_URL + "/"),
+                "document-store-api",
+                contentReadClient,
+                URI.create(BASE_URL + "/content-read"),
+                "content-read",
+                null,
+                1,
+                MoreExecutors.newDirectExecutorService(),
+                2,
+                CacheBuilder.newBuilder().build(),
+                new ContentReadCache(100, Duration.minutes(1), Duration.minutes(1), new MetricRegistry()));
+
+        String actual = processor.process("<body><p><a href=\"" + BASE_URL + "/short/1\">usw</a></p></body>", null);
+
+        assertThat(actual, containsString("<content id=\"" + contentUuid + "\""));
+    }
+
+    private static String contentReadOutput(UUID uuid) {
+        try {
+            String template = Files.toString(new File(resourceFilePath("content-read-output-template.json")), Charsets.UTF_8);
+            return String.format(template, uuid, uuid, uuid);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
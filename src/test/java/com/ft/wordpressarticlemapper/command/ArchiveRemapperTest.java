@@ -0,0 +1,143 @@
+package com.ft.wordpressarticlemapper.command;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ArchiveRemapperTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path input;
+    private Path output;
+    private List<String> remapped;
+
+    @Before
+    public void setUp() throws Exception {
+        input = folder.newFolder("dump").toPath();
+        output = folder.getRoot().toPath().resolve("remapped");
+        remapped = new ArrayList<>();
+    }
+
+    @Test
+    public void thatEachDumpFileIsRemappedIntoItsOwnOutput() throws Exception {
+        write(input.resolve("alphaville.ndjson"), "{\"a\":1}\n{\"a\":2}\n");
+        Files.createDirectories(input.resolve("2015"));
+        write(input.resolve("2015/markets-live.json"), "[{\"a\":3}]");
+        writeGzipped(input.resolve("2015/tech.ndjson.gz"), "{\"a\":4}\n");
+        write(input.resolve("README.txt"), "not a dump");
+
+        new ArchiveRemapper(copying(), new MetricRegistry()).remapAll(input, output);
+
+        assertThat(read(output.resolve("alphaville.out")), is(equalTo("{\"a\":1}\n{\"a\":2}\n")));
+        assertThat(read(output.resolve("2015_markets-live.out")), is(equalTo("[{\"a\":3}]")));
+        assertThat(read(output.resolve("2015_tech.out")), is(equalTo("{\"a\":4}\n")));
+        assertThat(Files.readAllLines(output.resolve(ArchiveRemapper.CHECKPOINT_FILE)),
+                contains("2015/markets-live.json", "2015/tech.ndjson.gz", "alphaville.ndjson"));
+    }
+
+    @Test
+    public void thatDocumentHoldingOnePostIsReadAsAnArray() throws Exception {
+        write(input.resolve("post.json"), "\n  {\"a\":1}\n");
+
+        new ArchiveRemapper(copying(), new MetricRegistry()).remapAll(input, output);
+
+        assertThat(read(output.resolve("post.out")), is(equalTo("[{\"a\":1}\n]")));
+    }
+
+    @Test
+    public void thatCompletedFilesAreSkippedWhenResumed() throws Exception {
+        write(input.resolve("first.ndjson"), "{\"a\":1}\n");
+        write(input.resolve("second.ndjson"), "{\"a\":2}\n");
+        new ArchiveRemapper(copying(), new MetricRegistry()).remapAll(input, output);
+        remapped.clear();
+
+        write(input.resolve("third.ndjson"), "{\"a\":3}\n");
+        MetricRegistry metrics = new MetricRegistry();
+        new ArchiveRemapper(copying(), metrics).remapAll(input, output);
+
+        assertThat(remapped, contains("{\"a\":3}\n"));
+        assertThat(metrics.meter(MetricRegistry.name(ArchiveRemapper.class, "files-skipped")).getCount(), is(2L));
+    }
+
+    @Test
+    public void thatFailedFileIsNeitherCompletedNorCheckpointed() throws Exception {
+        write(input.resolve("broken.ndjson"), "{\"a\":1}\n");
+
+        try {
+            new ArchiveRemapper((posts, outputs) -> {
+                outputs.open(".out").write('x');
+                throw new IOException("mapping failed");
+            }, new MetricRegistry()).remapAll(input, output);
+            fail("expected the failure to be reported");
+        } catch (IOException expected) {
+        }
+
+        assertThat(Files.exists(output.resolve("broken.out")), is(false));
+        assertThat(Files.readAllLines(output.resolve(ArchiveRemapper.CHECKPOINT_FILE)), is(empty()));
+    }
+
+    @Test
+    public void thatSingleDumpFileCanBeRemapped() throws Exception {
+        Path dump = input.resolve("alphaville.ndjson");
+        write(dump, "{\"a\":1}\n");
+
+        new ArchiveRemapper(copying(), new MetricRegistry()).remapAll(dump, output);
+
+        assertThat(read(output.resolve("alphaville.out")), is(equalTo("{\"a\":1}\n")));
+    }
+
+    private ArchiveRemapper.FileRemapping copying() {
+        return (posts, outputs) -> {
+            String content = toString(posts);
+            remapped.add(content);
+            OutputStream out = outputs.open(".out");
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static String toString(InputStream in) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return content.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeGzipped(Path file, String content) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
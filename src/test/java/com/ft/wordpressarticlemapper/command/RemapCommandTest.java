@@ -0,0 +1,76 @@
+package com.ft.wordpressarticlemapper.command;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.wordpressarticlemapper.messaging.MessageProducingContentMapper;
+import com.ft.wordpressarticlemapper.resources.BulkContentMapper;
+import com.ft.wordpressarticlemapper.response.Post;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class RemapCommandTest {
+
+    private static final ObjectMapper JACKSON_MAPPER = new ObjectMapper();
+    private static final String TRANSACTION_ID = "tid_remap_test";
+    private static final String FIRST_UUID = "5c652c7e-c81e-4be7-8669-adeb5a5621dd";
+    private static final String SECOND_UUID = "8c4d6fea-1c49-33f7-5500-53dfc3335d88";
+
+    private BulkContentMapper bulkContentMapper;
+    private MessageProducingContentMapper contentMapper;
+    private MessageProducer producer;
+
+    @Before
+    public void setUp() throws Exception {
+        bulkContentMapper = new BulkContentMapper("remap", JACKSON_MAPPER, 2, 2, 0, new MetricRegistry());
+        bulkContentMapper.start();
+        contentMapper = mock(MessageProducingContentMapper.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        bulkContentMapper.stop();
+    }
+
+    @Test
+    public void thatEachPostInMessagesFormatIsIngestedWithItsOwnTransactionId() throws Exception {
+        String posts = item(FIRST_UUID) + "\n" + item(SECOND_UUID) + "\n";
+        Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+
+        RemapCommand.messagesRemapping(bulkContentMapper, JACKSON_MAPPER, TRANSACTION_ID, messageProducer -> {
+            producer = messageProducer;
+            return contentMapper;
+        }).remap(new ByteArrayInputStream(posts.getBytes(StandardCharsets.UTF_8)),
+                suffix -> outputs.computeIfAbsent(suffix, s -> new ByteArrayOutputStream()));
+
+        verify(contentMapper).mapForPublish(eq(TRANSACTION_ID + "_0"), any(Post.class), any(Date.class));
+        verify(contentMapper).mapForPublish(eq(TRANSACTION_ID + "_1"), any(Post.class), any(Date.class));
+        assertThat(producer instanceof MessageFileProducer, is(true));
+        assertThat(outputs.containsKey(".messages.ndjson"), is(true));
+
+        String results = outputs.get(".results.ndjson").toString(StandardCharsets.UTF_8.name());
+        assertThat(results, containsString("\"uuid\":\"" + FIRST_UUID + "\""));
+        assertThat(results, containsString("\"uuid\":\"" + SECOND_UUID + "\""));
+    }
+
+    private static String item(String uuid) {
+        return "{\"status\":\"ok\",\"apiUrl\":\"http://www.ft.com/fastft/api/\","
+                + "\"post\":{\"type\":\"post\",\"uuid\":\"" + uuid + "\",\"title\":\"title\"}}";
+    }
+}
@@ -6,7 +6,6 @@ import com.ft.message.consumer.MessageListener;
 import com.ft.messagequeueproducer.MessageProducer;
 import com.ft.messaging.standards.message.v1.Message;
 import com.ft.messaging.standards.message.v1.SystemId;
-import com.ft.wordpressarticlemapper.exception.UnpublishablePostException;
 import com.ft.wordpressarticlemapper.exception.UntransformablePostException;
 import com.ft.wordpressarticlemapper.exception.WordPressContentException;
 import org.apache.commons.lang.StringUtils;
@@ -42,6 +41,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class WordPressArticleMapperApplicationComponentTest {
 
@@ -154,13 +154,13 @@ public class WordPressArticleMapperApplicationComponentTest {
     }
 
     @Test
-    public void testExceptionIsThrownWhenIncorrectBlogType() throws Exception {
+    public void testMessageIsSkippedWhenIncorrectBlogType() throws Exception {
         Message message = getMessage(
                 "wordPress/__files/WILL_RETURN_200-incorrect-blog-type.json");
 
-        thrown.expect(UnpublishablePostException.class);
+        assertThat(listener.onMessage(message, TRANSACTION_ID), equalTo(true));
 
-        listener.onMessage(message, TRANSACTION_ID);
+        verifyZeroInteractions(producer);
     }
 
     @Test
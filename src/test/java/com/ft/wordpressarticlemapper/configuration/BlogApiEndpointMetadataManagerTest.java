@@ -0,0 +1,104 @@
+package com.ft.wordpressarticlemapper.configuration;
+
+import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class BlogApiEndpointMetadataManagerTest {
+
+    private static final BlogApiEndpointMetadata ALPHAVILLE = metadata("ftalphaville.ft.com", "FT-LABS-WP-1-24");
+    private static final BlogApiEndpointMetadata BEYOND_BRICS = metadata("blogs.ft.com/beyond-brics", "FT-LABS-WP-1-91");
+    private static final BlogApiEndpointMetadata BEYOND_BRICS_AGAIN = metadata("blogs.ft.com/beyond-brics/", "FT-LABS-WP-1-92");
+    private static final BlogApiEndpointMetadata COMPOUND = metadata("blogs.ft.com/compound/", "FT-LABS-WP-1-93");
+
+    private BlogApiEndpointMetadataManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new BlogApiEndpointMetadataManager(Arrays.asList(ALPHAVILLE, BEYOND_BRICS, BEYOND_BRICS_AGAIN, COMPOUND));
+    }
+
+    @Test
+    public void thatNullUriHasNoMetadata() {
+        assertThat(manager.getBlogApiEndpointMetadataByUri(null), is(nullValue()));
+    }
+
+    @Test
+    public void thatUriWithoutHostHasNoMetadata() {
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("/2016/04/29/post/")), is(nullValue()));
+    }
+
+    @Test
+    public void thatHostOnlyEntryIsFound() {
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://ftalphaville.ft.com/2016/04/29/post/")),
+                is(sameInstance(ALPHAVILLE)));
+    }
+
+    @Test
+    public void thatHostAndPathEntryIsFound() {
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://blogs.ft.com/compound/2016/04/29/post/")),
+                is(sameInstance(COMPOUND)));
+    }
+
+    @Test
+    public void thatFirstConfiguredEntryWinsWhenSeveralMatch() {
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://blogs.ft.com/beyond-brics/2016/04/29/post/")),
+                is(sameInstance(BEYOND_BRICS)));
+    }
+
+    @Test
+    public void thatEarlierEntryWinsOverLaterEntryForTheSameHostAndBlog() {
+        BlogApiEndpointMetadata blogs = metadata("blogs.ft.com", "FT-LABS-WP-1-1");
+        BlogApiEndpointMetadata ftCom = metadata("ft.com/compound", "FT-LABS-WP-1-2");
+
+        manager = new BlogApiEndpointMetadataManager(Arrays.asList(blogs, COMPOUND));
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://blogs.ft.com/compound/2016/04/29/post/")),
+                is(sameInstance(blogs)));
+
+        manager = new BlogApiEndpointMetadataManager(Arrays.asList(ftCom, COMPOUND));
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://blogs.ft.com/compound/2016/04/29/post/")),
+                is(sameInstance(ftCom)));
+
+        manager = new BlogApiEndpointMetadataManager(Arrays.asList(COMPOUND, blogs));
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://blogs.ft.com/compound/2016/04/29/post/")),
+                is(sameInstance(COMPOUND)));
+    }
+
+    @Test
+    public void thatEntryIsFoundWhenItIsOnlyPartOfTheHostAndPath() {
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://www.ftalphaville.ft.com/2016/04/29/post/")),
+                is(sameInstance(ALPHAVILLE)));
+        assertThat(manager.getBlogApiEndpointMetadataByUri(URI.create("http://blogs.ft.com/beyond-brics-archive/post/")),
+                is(sameInstance(BEYOND_BRICS)));
+    }
+
+    @Test
+    public void thatUnknownBlogHasNoMetadata() {
+        URI unknown = URI.create("http://blogs.ft.com/unknown/2016/04/29/post/");
+
+        assertThat(manager.getBlogApiEndpointMetadataByUri(unknown), is(nullValue()));
+        assertThat(manager.getBlogApiEndpointMetadataByUri(unknown), is(nullValue()));
+    }
+
+    @Test
+    public void thatRepeatedLookupsReturnTheSameEntry() {
+        URI uri = URI.create("http://blogs.ft.com/compound/2016/04/29/post/");
+
+        BlogApiEndpointMetadata first = manager.getBlogApiEndpointMetadataByUri(uri);
+
+        assertThat(manager.getBlogApiEndpointMetadataByUri(uri), is(sameInstance(first)));
+    }
+
+    private static BlogApiEndpointMetadata metadata(String host, String id) {
+        return new BlogApiEndpointMetadata(host, Collections.singleton("http://api.ft.com/things/5c7592a8-1f0c-11e4-b0cb-b2227cce2b54"), id, null);
+    }
+}
@@ -1,7 +1,9 @@
 package com.ft.wordpressarticlemapper.health;
 
 import com.ft.jerseyhttpwrapper.config.EndpointConfiguration;
+import com.codahale.metrics.MetricRegistry;
 import com.ft.platform.dropwizard.AdvancedResult;
+import com.ft.wordpressarticlemapper.transformer.CircuitBreaker;
 import com.google.common.base.Optional;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientHandlerException;
@@ -15,6 +17,8 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -81,4 +85,23 @@ public class RemoteServiceDependencyHealthCheckTest {
 
         assertThat(actualHealthCheckResult.status(), is(equalTo(expectedHealthCheckResult.status())));
     }
+
+    @Test
+    public void testWhenCircuitBreakerIsOpenHealthCheckShouldFail() throws Exception {
+        when(mockClientResponse.getStatus()).thenReturn(200);
+        CircuitBreaker circuitBreaker = new CircuitBreaker("document-store", 1, 1, TimeUnit.MINUTES, new MetricRegistry());
+        try {
+            circuitBreaker.call(() -> {
+                throw new ClientHandlerException("timeout");
+            });
+        } catch (ClientHandlerException expected) {
+        }
+        healthCheck = new RemoteServiceDependencyHealthCheck("name", "host", "businessImpact", "panicGuideUrl", mockClient,
+                mockEndpointConfiguration, Collections.singletonList(circuitBreaker));
+
+        AdvancedResult expectedHealthCheckResult = AdvancedResult.error(healthCheck, "Circuit breaker for document-store is OPEN");
+        AdvancedResult actualHealthCheckResult = healthCheck.checkAdvanced();
+
+        assertThat(actualHealthCheckResult.status(), is(equalTo(expectedHealthCheckResult.status())));
+    }
 }
@@ -0,0 +1,162 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class BatchingMessageProducerTest {
+
+    private RecordingProducer delegate;
+    private MetricRegistry metrics;
+    private BatchingMessageProducer producer;
+
+    @Before
+    public void setUp() throws Exception {
+        delegate = new RecordingProducer();
+        metrics = new MetricRegistry();
+        producer = new BatchingMessageProducer(delegate, 3, 200, TimeUnit.MILLISECONDS, metrics);
+        producer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        producer.stop();
+    }
+
+    @Test
+    public void thatConcurrentSendsAreBatchedUpToTheMaximumSize() throws Exception {
+        delegate.block();
+        CompletableFuture<Void> first = producer.sendAsync(messages(1));
+        delegate.awaitSend();
+
+        CompletableFuture<Void> second = producer.sendAsync(messages(1));
+        CompletableFuture<Void> third = producer.sendAsync(messages(2));
+        CompletableFuture<Void> fourth = producer.sendAsync(messages(1));
+        delegate.unblock();
+
+        CompletableFuture.allOf(first, second, third, fourth).get(5, TimeUnit.SECONDS);
+        assertThat(delegate.batchSizes(), is(equalTo(Arrays.asList(1, 3, 1))));
+        assertThat(metrics.histogram(name(BatchingMessageProducer.class, "batch-size")).getCount(), is(3L));
+    }
+
+    @Test
+    public void thatBatchIsSentAfterLingering() throws Exception {
+        long start = System.nanoTime();
+
+        producer.send(messages(1));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200, is(true));
+        assertThat(delegate.batchSizes(), is(equalTo(Collections.singletonList(1))));
+        assertThat(metrics.histogram(name(BatchingMessageProducer.class, "linger-millis")).getSnapshot().getMax() >= 200, is(true));
+    }
+
+    @Test
+    public void thatEveryCallerInAFailedBatchSeesTheFailure() throws Exception {
+        delegate.failWith(new IllegalStateException("proxy unavailable"));
+        CompletableFuture<Void> first = producer.sendAsync(messages(1));
+        CompletableFuture<Void> second = producer.sendAsync(messages(2));
+
+        for (CompletableFuture<Void> sent : Arrays.asList(first, second)) {
+            try {
+                sent.get(5, TimeUnit.SECONDS);
+                fail("expected the send to fail");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void thatSendRethrowsTheFailure() {
+        delegate.failWith(new IllegalStateException("proxy unavailable"));
+
+        producer.send(messages(1));
+    }
+
+    @Test
+    public void thatPendingMessagesAreSentOnStop() throws Exception {
+        CompletableFuture<Void> sent = producer.sendAsync(messages(2));
+
+        producer.stop();
+
+        assertThat(sent.isDone() && !sent.isCompletedExceptionally(), is(true));
+        assertThat(delegate.batchSizes(), is(equalTo(Collections.singletonList(2))));
+    }
+
+    @Test
+    public void thatMessagesAreSentDirectlyOnceStopped() throws Exception {
+        producer.stop();
+
+        producer.send(messages(2));
+
+        assertThat(delegate.batchSizes(), is(equalTo(Collections.singletonList(2))));
+    }
+
+    private static List<Message> messages(int count) {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(new Message());
+        }
+        return messages;
+    }
+
+    private static class RecordingProducer implements MessageProducer {
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+        private volatile RuntimeException failure;
+
+        @Override
+        public void send(List<Message> messages) {
+            batchSizes.add(messages.size());
+            sending.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        void block() {
+            blocked = new CountDownLatch(1);
+        }
+
+        void unblock() {
+            blocked.countDown();
+        }
+
+        void awaitSend() throws InterruptedException {
+            sending.await(5, TimeUnit.SECONDS);
+        }
+
+        void failWith(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        List<Integer> batchSizes() {
+            return new ArrayList<>(batchSizes);
+        }
+    }
+}
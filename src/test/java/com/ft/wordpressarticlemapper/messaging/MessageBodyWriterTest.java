@@ -0,0 +1,61 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.wordpressarticlemapper.model.WordPressBlogPostContent;
+import com.ft.wordpressarticlemapper.model.WordPressLiveBlogContent;
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class MessageBodyWriterTest {
+
+    private static final ObjectMapper JACKSON_MAPPER = new ObjectMapper();
+    private static final String CONTENT_URI = "http://www.example.org/content/5c65ab4c-4ec7-11e6-8172-e39ecd3b86fc";
+    private static final String LAST_MODIFIED = "2016-11-04T13:19:24.594Z";
+
+    private final MessageBodyWriter writer = new MessageBodyWriter(JACKSON_MAPPER);
+
+    @Test
+    public void thatBodyIsTheSameAsSerializingTheMessageMap() throws Exception {
+        WordPressBlogPostContent content = WordPressBlogPostContent.builder()
+                .withBody("<body><p>Some text</p></body>")
+                .withUuid(UUID.randomUUID())
+                .withTitle("A blog post")
+                .withPublishReference("tid_test")
+                .build();
+
+        Map<String, Object> messageBody = new LinkedHashMap<>();
+        messageBody.put("contentUri", CONTENT_URI);
+        messageBody.put("lastModified", LAST_MODIFIED);
+        messageBody.put("payload", content);
+
+        assertThat(writer.write(CONTENT_URI, LAST_MODIFIED, content), is(equalTo(JACKSON_MAPPER.writeValueAsString(messageBody))));
+    }
+
+    @Test
+    public void thatBodyForDeleteHasNoPayload() throws Exception {
+        assertThat(writer.write(CONTENT_URI, LAST_MODIFIED),
+                is(equalTo("{\"contentUri\":\"" + CONTENT_URI + "\",\"lastModified\":\"" + LAST_MODIFIED + "\"}")));
+    }
+
+    @Test
+    public void thatBufferIsResetBetweenBodies() throws Exception {
+        WordPressLiveBlogContent large = WordPressLiveBlogContent.builder()
+                .withUuid(UUID.randomUUID())
+                .withTitle(Strings.repeat("a very long live blog title ", 100000))
+                .build();
+
+        writer.write(CONTENT_URI, LAST_MODIFIED, large);
+        String afterLarge = writer.write(CONTENT_URI, LAST_MODIFIED);
+
+        assertThat(afterLarge, is(equalTo(writer.write(CONTENT_URI, LAST_MODIFIED))));
+        assertThat(JACKSON_MAPPER.readValue(afterLarge, Map.class).containsKey("payload"), is(false));
+    }
+}
@@ -0,0 +1,99 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.messaging.standards.message.v1.Message;
+import com.ft.messaging.standards.message.v1.SystemId;
+import com.ft.wordpressarticlemapper.messaging.MessagePreFilter.SkipReason;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class MessagePreFilterTest {
+
+    private static final String SYSTEM_CODE = "junit";
+    private static final String OK_POST = "{\"status\":\"ok\",\"apiUrl\":\"http://www.ft.com/api\",\"post\":{\"comments\":[{\"type\":\"comment\"}],\"type\":\"%s\",\"uuid\":\"8c4d6fea-1c49-33f7-5500-53dfc3335d88\"}}";
+    private static final String DELETED_POST = "{\"error\":\"Not found.\",\"post\":{\"uuid\":\"8c4d6fea-1c49-33f7-5500-53dfc3335d88\"},\"status\":\"error\"}";
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final MessagePreFilter preFilter = new MessagePreFilter(SYSTEM_CODE, metrics);
+
+    @Test
+    public void thatSupportedPostIsNotSkipped() {
+        assertThat(preFilter.reasonToSkip(message(String.format(OK_POST, "post"))), is(Optional.empty()));
+        assertThat(preFilter.reasonToSkip(message(String.format(OK_POST, "webchat-live-blogs"))), is(Optional.empty()));
+    }
+
+    @Test
+    public void thatMessageFromAnotherSystemIsSkipped() {
+        Message message = message(String.format(OK_POST, "post"));
+        message.setOriginSystemId(SystemId.systemIdFromCode("foo"));
+
+        assertThat(preFilter.reasonToSkip(message), is(Optional.of(SkipReason.FOREIGN_ORIGIN)));
+        assertThat(skipped("foreign-origin"), is(1L));
+    }
+
+    @Test
+    public void thatMessageWithNonJsonContentTypeIsSkipped() {
+        Message message = new Message.Builder().withMessageId(UUID.randomUUID())
+                .withMessageType("cms-content-published")
+                .withMessageTimestamp(new Date())
+                .withOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE).toString())
+                .withContentType("text/plain")
+                .withMessageBody(String.format(OK_POST, "post"))
+                .build();
+
+        assertThat(preFilter.reasonToSkip(message), is(Optional.of(SkipReason.UNSUPPORTED_CONTENT_TYPE)));
+        assertThat(skipped("unsupported-content-type"), is(1L));
+    }
+
+    @Test
+    public void thatUnsupportedPostTypeIsSkipped() {
+        assertThat(preFilter.reasonToSkip(message(String.format(OK_POST, "attachment"))),
+                is(Optional.of(SkipReason.UNSUPPORTED_POST_TYPE)));
+        assertThat(skipped("unsupported-post-type"), is(1L));
+    }
+
+    @Test
+    public void thatPostTypeIsReadFromThePostOnly() {
+        String body = "{\"status\":\"ok\",\"type\":\"attachment\",\"post\":{\"type\":\"post\",\"authors\":[{\"type\":\"attachment\"}]}}";
+
+        assertThat(preFilter.reasonToSkip(message(body)), is(Optional.empty()));
+    }
+
+    @Test
+    public void thatUnexpectedStatusIsSkipped() {
+        String body = "{\"post\":{\"status\":\"ok\",\"type\":\"post\"},\"status\":\"pending\"}";
+
+        assertThat(preFilter.reasonToSkip(message(body)), is(Optional.of(SkipReason.UNEXPECTED_STATUS)));
+        assertThat(skipped("unexpected-status"), is(1L));
+    }
+
+    @Test
+    public void thatDeleteIsNotSkipped() {
+        assertThat(preFilter.reasonToSkip(message(DELETED_POST)), is(Optional.empty()));
+    }
+
+    @Test
+    public void thatUnparseableBodyIsLeftForTheFullRead() {
+        assertThat(preFilter.reasonToSkip(message("")), is(Optional.empty()));
+        assertThat(preFilter.reasonToSkip(message("{\"status\":\"ok\",\"post\":{\"type\":")), is(Optional.empty()));
+    }
+
+    private Message message(String body) {
+        Message message = new Message();
+        message.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        message.setMessageTimestamp(new Date());
+        message.setMessageBody(body);
+        return message;
+    }
+
+    private long skipped(String reason) {
+        return metrics.meter(name(MessagePreFilter.class, "skipped", reason)).getCount();
+    }
+}
@@ -1,7 +1,10 @@
 package com.ft.wordpressarticlemapper.messaging;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.ft.messagequeueproducer.MessageProducer;
 import com.ft.messagequeueproducer.model.KeyedMessage;
 import com.ft.messaging.standards.message.v1.Message;
@@ -16,6 +19,7 @@ import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
 import com.ft.wordpressarticlemapper.response.Post;
 import com.ft.wordpressarticlemapper.transformer.WordPressBlogPostContentMapper;
 import com.ft.wordpressarticlemapper.transformer.WordPressLiveBlogContentMapper;
+import io.dropwizard.util.Duration;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -37,11 +41,14 @@ import java.util.List;
 import java.util.Map;
 
 import static com.ft.api.util.transactionid.TransactionIdUtils.TRANSACTION_ID_HEADER;
+import static com.codahale.metrics.MetricRegistry.name;
 import static com.ft.messaging.standards.message.v1.MediaType.JSON;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -159,6 +166,10 @@ public class MessageProducingContentMapperTest {
     public void testNoMessageIsSentWhenObjectMapperFails() throws Exception {
 
         ObjectMapper failing = mock(ObjectMapper.class);
+        ObjectWriter failingWriter = mock(ObjectWriter.class);
+        when(failing.getFactory()).thenReturn(JACKSON_MAPPER.getFactory());
+        when(failing.writerWithType(any(Class.class))).thenReturn(failingWriter);
+        doThrow(new JsonGenerationException("test exception")).when(failingWriter).writeValue(any(JsonGenerator.class), any());
 
         mapper = new MessageProducingContentMapper(wordPressBlogPostContentMapper,
                 wordPressLiveBlogContentMapper,
@@ -172,7 +183,6 @@ public class MessageProducingContentMapperTest {
                 .readValue(loadFile("messaging/wordpress-blog-post-content-test.json"));
 
         when(wordPressBlogPostContentMapper.mapWordPressArticle(eq(PUBLISH_REF), eq(post), eq(lastModified))).thenReturn(content);
-        when(failing.writeValueAsString(any())).thenThrow(new JsonGenerationException("test exception"));
 
         mapper.mapForPublish(PUBLISH_REF, post, lastModified);
         verifyZeroInteractions(producer);
@@ -238,6 +248,111 @@ public class MessageProducingContentMapperTest {
         mapper.mapForPublish(PUBLISH_REF, post, lastModified);
     }
 
+    @Test
+    public void testUnchangedContentIsNotSentAgainWhenSkippingSends() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        mapper = fingerprintingMapper(FingerprintMode.SKIP_SEND, metrics);
+        WordPressBlogPostContent content = blogPostContent();
+        WordPressBlogPostContent republished = WordPressBlogPostContent.builder().withValuesFrom(content)
+                .withPublishReference("tid_republished")
+                .withLastModified(new Date(content.getLastModified().getTime() + 1000))
+                .build();
+        Date lastModified = new Date();
+        when(wordPressBlogPostContentMapper.mapWordPressArticle(any(String.class), eq(post), any(Date.class)))
+                .thenReturn(content, republished);
+
+        mapper.mapForPublish(PUBLISH_REF, post, lastModified);
+        WordPressContent actual = mapper.mapForPublish("tid_republished", post, lastModified);
+
+        assertThat(actual, equalTo(republished));
+        verify(wordPressBlogPostContentMapper, times(2)).mapWordPressArticle(any(String.class), eq(post), any(Date.class));
+        verify(producer, times(1)).send(any(List.class));
+        assertThat(metrics.meter(name(ContentFingerprints.class, "suppressed-sends")).getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testChangedContentIsSentWhenSkippingSends() throws Exception {
+        mapper = fingerprintingMapper(FingerprintMode.SKIP_SEND, new MetricRegistry());
+        WordPressBlogPostContent content = blogPostContent();
+        WordPressBlogPostContent changed = WordPressBlogPostContent.builder().withValuesFrom(content)
+                .withTitle("An updated title")
+                .build();
+        Date lastModified = new Date();
+        when(wordPressBlogPostContentMapper.mapWordPressArticle(eq(PUBLISH_REF), eq(post), eq(lastModified)))
+                .thenReturn(content, changed);
+
+        mapper.mapForPublish(PUBLISH_REF, post, lastModified);
+        mapper.mapForPublish(PUBLISH_REF, post, lastModified);
+
+        verify(producer, times(2)).send(any(List.class));
+    }
+
+    @Test
+    public void testUnchangedPostIsNotMappedAgainWhenSkippingMappings() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        mapper = fingerprintingMapper(FingerprintMode.SKIP_MAPPING, metrics);
+        when(wordPressBlogPostContentMapper.mapWordPressArticle(any(String.class), eq(post), any(Date.class)))
+                .thenReturn(blogPostContent());
+
+        mapper.mapForPublish(PUBLISH_REF, post, new Date());
+        WordPressContent actual = mapper.mapForPublish("tid_republished", post, new Date());
+
+        assertThat(actual, nullValue());
+        verify(wordPressBlogPostContentMapper, times(1)).mapWordPressArticle(any(String.class), eq(post), any(Date.class));
+        verify(producer, times(1)).send(any(List.class));
+        assertThat(metrics.meter(name(ContentFingerprints.class, "suppressed-mappings")).getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testPostIsSentAgainAfterItIsDeleted() throws Exception {
+        mapper = fingerprintingMapper(FingerprintMode.SKIP_MAPPING, new MetricRegistry());
+        when(wordPressBlogPostContentMapper.mapWordPressArticle(any(String.class), eq(post), any(Date.class)))
+                .thenReturn(blogPostContent());
+
+        mapper.mapForPublish(PUBLISH_REF, post, new Date());
+        mapper.mapForDelete(post.getUuid(), new Date(), PUBLISH_REF);
+        mapper.mapForPublish(PUBLISH_REF, post, new Date());
+
+        verify(wordPressBlogPostContentMapper, times(2)).mapWordPressArticle(any(String.class), eq(post), any(Date.class));
+        verify(producer, times(3)).send(any(List.class));
+    }
+
+    @Test
+    public void testFingerprintIsNotRecordedWhenSendFails() throws Exception {
+        mapper = fingerprintingMapper(FingerprintMode.SKIP_MAPPING, new MetricRegistry());
+        when(wordPressBlogPostContentMapper.mapWordPressArticle(any(String.class), eq(post), any(Date.class)))
+                .thenReturn(blogPostContent());
+        doThrow(new IllegalStateException("proxy unavailable")).doNothing()
+                .when(producer).send(any(List.class));
+
+        try {
+            mapper.mapForPublish(PUBLISH_REF, post, new Date());
+        } catch (IllegalStateException expected) {
+            /* the retry below should still be sent */
+        }
+        mapper.mapForPublish(PUBLISH_REF, post, new Date());
+
+        verify(producer, times(2)).send(any(List.class));
+        verify(wordPressBlogPostContentMapper, times(2)).mapWordPressArticle(any(String.class), eq(post), any(Date.class));
+    }
+
+    private MessageProducingContentMapper fingerprintingMapper(FingerprintMode mode, MetricRegistry metrics) {
+        ContentFingerprints fingerprints = new ContentFingerprints(mode, 100, Duration.hours(1), JACKSON_MAPPER, metrics);
+        return new MessageProducingContentMapper(wordPressBlogPostContentMapper,
+                wordPressLiveBlogContentMapper,
+                JACKSON_MAPPER,
+                SYSTEM_ID.toString(),
+                producer,
+                URI_BUILDER,
+                fingerprints);
+    }
+
+    private WordPressBlogPostContent blogPostContent() throws Exception {
+        WordPressBlogPostContent content = JACKSON_MAPPER.reader(WordPressBlogPostContent.class)
+                .readValue(loadFile("messaging/wordpress-blog-post-content-test.json"));
+        return WordPressBlogPostContent.builder().withValuesFrom(content).build();
+    }
+
     private String loadFile(final String filename) throws Exception {
         URL resource = getClass().getClassLoader().getResource(filename);
         if (resource != null) {
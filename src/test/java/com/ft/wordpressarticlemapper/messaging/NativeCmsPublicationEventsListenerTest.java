@@ -1,7 +1,7 @@
 package com.ft.wordpressarticlemapper.messaging;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.ft.messaging.standards.message.v1.Message;
 import com.ft.messaging.standards.message.v1.SystemId;
 import com.ft.wordpressarticlemapper.exception.PostNotFoundException;
@@ -25,6 +25,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.ParseException;
+import java.time.Instant;
 import java.util.Date;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -34,10 +35,10 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
-import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class NativeCmsPublicationEventsListenerTest {
@@ -53,12 +54,6 @@ public class NativeCmsPublicationEventsListenerTest {
     @Mock
     private MessageProducingContentMapper mapper;
 
-    @Mock
-    private ObjectMapper objectMapper;
-
-    @Mock
-    private ObjectReader objectReader;
-
     @Mock
     private NativeWordPressContentValidator contentValidator;
 
@@ -67,11 +62,8 @@ public class NativeCmsPublicationEventsListenerTest {
 
     @Before
     public void setUp() throws Exception {
-        listener = new NativeCmsPublicationEventsListener(mapper, objectMapper, SYSTEM_CODE, contentValidator);
+        listener = new NativeCmsPublicationEventsListener(mapper, JACKSON_MAPPER, SYSTEM_CODE, contentValidator);
         nativeWordPressContent = createSampleWordpressArticle();
-        when(objectReader.readValue(loadFile("messaging/native-wordpress-content.json"))).thenReturn(nativeWordPressContent);
-        when(objectReader.readValue(StringUtils.EMPTY)).thenThrow(new IOException());
-        when(objectMapper.reader(NativeWordPressContent.class)).thenReturn(objectReader);
     }
 
     @Test
@@ -89,6 +81,41 @@ public class NativeCmsPublicationEventsListenerTest {
 
     }
 
+    @Test
+    public void thatMessageIsDispatchedByPostUuid() throws Exception {
+        PartitionedMessageDispatcher dispatcher = mock(PartitionedMessageDispatcher.class);
+        listener = new NativeCmsPublicationEventsListener(mapper, JACKSON_MAPPER,
+                new MessagePreFilter(SYSTEM_CODE, new MetricRegistry()), contentValidator, dispatcher, null);
+        Message message = getMessage();
+
+        listener.onMessage(message, TX_ID);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(dispatcher).dispatch(eq(nativeWordPressContent.getPost().getUuid()), task.capture());
+        verifyZeroInteractions(mapper);
+
+        task.getValue().run();
+        verify(mapper).mapForPublish(eq(TX_ID), any(Post.class), eq(message.getMessageTimestamp()));
+    }
+
+    @Test
+    public void thatMappingFailureOnAPartitionIsCountedAndNotThrownToTheConsumer() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        PartitionedMessageDispatcher dispatcher = new PartitionedMessageDispatcher(1, 10, metrics);
+        listener = new NativeCmsPublicationEventsListener(mapper, JACKSON_MAPPER,
+                new MessagePreFilter(SYSTEM_CODE, new MetricRegistry()), contentValidator, dispatcher, null);
+        Message message = getMessage();
+        doThrow(new IllegalStateException("test")).doReturn(null)
+                .when(mapper).mapForPublish(eq(TX_ID), any(Post.class), eq(message.getMessageTimestamp()));
+
+        assertThat(listener.onMessage(message, TX_ID), is(true));
+        assertThat(listener.onMessage(message, TX_ID), is(true));
+        dispatcher.stop();
+
+        verify(mapper, times(2)).mapForPublish(eq(TX_ID), any(Post.class), eq(message.getMessageTimestamp()));
+        assertThat(metrics.meter(MetricRegistry.name(PartitionedMessageDispatcher.class, "failed")).getCount(), is(1L));
+    }
+
     @Test
     public void thatMapForDeleteIsCalledWhenStatusIsError() throws ParseException, IOException {
         Message message = new Message();
@@ -99,9 +126,7 @@ public class NativeCmsPublicationEventsListenerTest {
 
 
         String uuid = "8c4d6fea-1c49-33f7-5500-53dfc3335d88";
-        NativeWordPressContent expectedNativeContent = getNativeContentForDelete(uuid, messageTimestamp);
         doThrow(PostNotFoundException.class).when(contentValidator).validate(any(NativeWordPressContent.class));
-        when(objectReader.readValue(MESSAGE_BODY_FOR_DELETE)).thenReturn(expectedNativeContent);
 
         listener.onMessage(message, TX_ID);
 
@@ -111,6 +136,10 @@ public class NativeCmsPublicationEventsListenerTest {
         String actual = c.getValue();
         assertThat(actual, notNullValue());
         assertThat(actual, equalTo(uuid));
+
+        ArgumentCaptor<NativeWordPressContent> validated = ArgumentCaptor.forClass(NativeWordPressContent.class);
+        verify(contentValidator).validate(validated.capture());
+        assertThat(validated.getValue(), equalTo(getNativeContentForDelete(uuid, Date.from(Instant.parse("2016-12-13T08:45:35.151Z")))));
     }
 
     @Test
@@ -121,6 +150,23 @@ public class NativeCmsPublicationEventsListenerTest {
         verifyZeroInteractions(mapper);
     }
 
+    @Test
+    public void thatMessageWithUnexpectedStatusIsAcknowledgedWithoutValidationOrMapping() {
+        MetricRegistry metrics = new MetricRegistry();
+        listener = new NativeCmsPublicationEventsListener(mapper, JACKSON_MAPPER,
+                new MessagePreFilter(SYSTEM_CODE, metrics), contentValidator, null, null);
+        Message message = new Message();
+        message.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        message.setMessageTimestamp(new Date());
+        message.setMessageBody("{\"status\":\"draft\",\"post\":{\"uuid\":\"8c4d6fea-1c49-33f7-5500-53dfc3335d88\",\"type\":\"post\"}}");
+
+        assertThat(listener.onMessage(message, TX_ID), is(true));
+
+        verifyZeroInteractions(contentValidator, mapper);
+        assertThat(metrics.meter(MetricRegistry.name(MessagePreFilter.class, "skipped", "unexpected-status")).getCount(),
+                equalTo(1L));
+    }
+
     @Test(expected = WordPressContentException.class)
     public void thatMapperThrowsExceptionWhenMessageCannotBeParsed() throws Exception {
         Date lastModified = new Date();
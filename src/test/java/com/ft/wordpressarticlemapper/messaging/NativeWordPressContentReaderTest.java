@@ -0,0 +1,100 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
+import com.ft.wordpressarticlemapper.response.Post;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class NativeWordPressContentReaderTest {
+
+    private static final ObjectMapper JACKSON_MAPPER = new ObjectMapper();
+
+    private final NativeWordPressContentReader reader = new NativeWordPressContentReader(JACKSON_MAPPER);
+
+    @Test
+    public void thatConsumedFieldsAreReadAsByAFullBind() throws Exception {
+        String json = loadFile("messaging/native-wordpress-content.json");
+        NativeWordPressContent expected = JACKSON_MAPPER.reader(NativeWordPressContent.class).readValue(json);
+
+        NativeWordPressContent actual = reader.read(json);
+
+        assertThat(actual.getStatus(), equalTo(expected.getStatus()));
+        assertThat(actual.getApiUrl(), equalTo(expected.getApiUrl()));
+        assertThat(actual.getError(), equalTo(expected.getError()));
+        assertThat(actual.getLastModified(), equalTo(expected.getLastModified()));
+
+        Post actualPost = actual.getPost();
+        Post expectedPost = expected.getPost();
+        assertThat(actualPost.getId(), equalTo(expectedPost.getId()));
+        assertThat(actualPost.getType(), equalTo(expectedPost.getType()));
+        assertThat(actualPost.getUrl(), equalTo(expectedPost.getUrl()));
+        assertThat(actualPost.getUuid(), equalTo(expectedPost.getUuid()));
+        assertThat(actualPost.getTitle(), equalTo(expectedPost.getTitle()));
+        assertThat(actualPost.getContent(), equalTo(expectedPost.getContent()));
+        assertThat(actualPost.getExcerpt(), equalTo(expectedPost.getExcerpt()));
+        assertThat(actualPost.getModified(), equalTo(expectedPost.getModified()));
+        assertThat(actualPost.getDateGmt(), equalTo(expectedPost.getDateGmt()));
+        assertThat(actualPost.getModifiedGmt(), equalTo(expectedPost.getModifiedGmt()));
+        assertThat(actualPost.getAuthor(), equalTo(expectedPost.getAuthor()));
+        assertThat(actualPost.getAuthors(), equalTo(expectedPost.getAuthors()));
+        assertThat(actualPost.getCommentStatus(), equalTo(expectedPost.getCommentStatus()));
+        assertThat(actualPost.getMainImage(), equalTo(expectedPost.getMainImage()));
+        assertThat(actualPost.getAccessLevel(), equalTo(expectedPost.getAccessLevel()));
+        assertThat(actualPost.getDefaultAccessLevel(), equalTo(expectedPost.getDefaultAccessLevel()));
+        assertThat(actualPost.getScoop(), equalTo(expectedPost.getScoop()));
+    }
+
+    @Test
+    public void thatUnusedFieldsAreSkipped() throws Exception {
+        ObjectNode content = (ObjectNode) JACKSON_MAPPER.readTree(loadFile("messaging/native-wordpress-content.json"));
+        ObjectNode post = (ObjectNode) content.get("post");
+        ArrayNode comments = post.putArray("comments");
+        for (int i = 0; i < 5000; i++) {
+            comments.addObject().put("id", i).put("content", "comment " + i);
+        }
+        post.put("an_unmapped_field", "some value");
+
+        NativeWordPressContent actual = reader.read(JACKSON_MAPPER.writeValueAsString(content));
+
+        assertThat(actual.getPost().getComments().isEmpty(), is(true));
+        assertThat(actual.getPost().getCustomFields(), is(nullValue()));
+        assertThat(actual.getPost().getAdditionalProperties().isEmpty(), is(true));
+        assertThat(actual.getPreviousUrl(), is(nullValue()));
+        assertThat(actual.getPost().getUuid(), equalTo(post.get("uuid").asText()));
+    }
+
+    @Test
+    public void thatNullPostIsRead() throws Exception {
+        NativeWordPressContent actual = reader.read("{\"status\":\"error\",\"post\":null}");
+
+        assertThat(actual.getStatus(), equalTo("error"));
+        assertThat(actual.getPost(), is(nullValue()));
+    }
+
+    @Test(expected = IOException.class)
+    public void thatEmptyMessageCannotBeRead() throws Exception {
+        reader.read("");
+    }
+
+    @Test(expected = IOException.class)
+    public void thatMalformedMessageCannotBeRead() throws Exception {
+        reader.read("{\"status\":\"ok\",\"post\":{\"uuid\":");
+    }
+
+    private String loadFile(String filename) throws Exception {
+        URL resource = getClass().getClassLoader().getResource(filename);
+        return new String(Files.readAllBytes(Paths.get(resource.toURI())), "UTF-8");
+    }
+}
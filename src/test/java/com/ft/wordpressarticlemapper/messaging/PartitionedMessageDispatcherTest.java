@@ -0,0 +1,124 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PartitionedMessageDispatcherTest {
+
+    private static final String POST_UUID = "8c4d6fea-1c49-33f7-5500-53dfc3335d88";
+
+    private PartitionedMessageDispatcher dispatcher;
+
+    @After
+    public void tearDown() throws Exception {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void thatMessagesWithTheSameKeyAreProcessedInOrder() throws Exception {
+        dispatcher = new PartitionedMessageDispatcher(4, 100, new MetricRegistry());
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < 50; i++) {
+            int sequence = i;
+            dispatcher.dispatch(POST_UUID, () -> processed.add(sequence));
+        }
+        dispatcher.stop();
+
+        assertThat(processed, is(equalTo(IntStream.range(0, 50).boxed().collect(Collectors.toList()))));
+    }
+
+    @Test
+    public void thatMessagesWithDifferentKeysAreProcessedConcurrently() throws Exception {
+        dispatcher = new PartitionedMessageDispatcher(2, 10, new MetricRegistry());
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        AtomicBoolean concurrent = new AtomicBoolean(true);
+        Runnable awaitOther = () -> {
+            bothStarted.countDown();
+            try {
+                concurrent.compareAndSet(true, bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                concurrent.set(false);
+            }
+        };
+
+        dispatcher.dispatch(keyForPartition(0, 2), awaitOther);
+        dispatcher.dispatch(keyForPartition(1, 2), awaitOther);
+        dispatcher.stop();
+
+        assertThat(concurrent.get(), is(true));
+    }
+
+    @Test
+    public void thatDispatchWaitsWhileTooManyMessagesAreInFlight() throws Exception {
+        dispatcher = new PartitionedMessageDispatcher(1, 1, new MetricRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(POST_UUID, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CountDownLatch secondDispatched = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                dispatcher.dispatch(POST_UUID, () -> { });
+                secondDispatched.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+
+        assertThat(secondDispatched.await(200, TimeUnit.MILLISECONDS), is(false));
+        release.countDown();
+        assertThat(secondDispatched.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void thatFailedMessageDoesNotBlockItsPartition() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        dispatcher = new PartitionedMessageDispatcher(1, 10, metrics);
+        CountDownLatch processed = new CountDownLatch(1);
+
+        dispatcher.dispatch(POST_UUID, () -> {
+            throw new IllegalStateException("test");
+        });
+        dispatcher.dispatch(POST_UUID, processed::countDown);
+
+        assertThat(processed.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(metrics.meter(MetricRegistry.name(PartitionedMessageDispatcher.class, "failed")).getCount(), is(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatMaxInFlightMustCoverEveryPartition() {
+        new PartitionedMessageDispatcher(4, 2, new MetricRegistry());
+    }
+
+    private static String keyForPartition(int partition, int partitions) {
+        for (int i = 0; ; i++) {
+            String key = "post-" + i;
+            if (Math.floorMod(key.hashCode(), partitions) == partition) {
+                return key;
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.ft.wordpressarticlemapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class SupersededUpdateCoalescerTest {
+
+    private static final String POST_UUID = "8c4d6fea-1c49-33f7-5500-53dfc3335d88";
+    private static final String OTHER_POST_UUID = "5c65ab4c-4ec7-11e6-8172-e39ecd3b86fc";
+
+    private MetricRegistry metrics;
+    private SupersededUpdateCoalescer coalescer;
+    private List<String> processed;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        coalescer = new SupersededUpdateCoalescer(1, TimeUnit.HOURS, 10, null, metrics);
+        processed = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        coalescer.stop();
+    }
+
+    @Test
+    public void thatOnlyTheLatestUpdateIsProcessed() throws Exception {
+        coalescer.submit(POST_UUID, at(1), at(1), record("first"));
+        coalescer.submit(POST_UUID, at(2), at(2), record("second"));
+        coalescer.submit(POST_UUID, at(3), at(3), record("third"));
+
+        coalescer.stop();
+
+        assertThat(processed, is(equalTo(Collections.singletonList("third"))));
+        assertThat(superseded(), is(2L));
+    }
+
+    @Test
+    public void thatOlderUpdateDoesNotReplaceANewerOne() throws Exception {
+        coalescer.submit(POST_UUID, at(2), at(2), record("newer"));
+        coalescer.submit(POST_UUID, at(1), at(1), record("older"));
+
+        coalescer.stop();
+
+        assertThat(processed, is(equalTo(Collections.singletonList("newer"))));
+        assertThat(superseded(), is(1L));
+    }
+
+    @Test
+    public void thatLastModifiedBreaksTiesInMessageTimestamp() throws Exception {
+        coalescer.submit(POST_UUID, at(1), at(3), record("modified later"));
+        coalescer.submit(POST_UUID, at(1), at(2), record("modified earlier"));
+
+        coalescer.stop();
+
+        assertThat(processed, is(equalTo(Collections.singletonList("modified later"))));
+    }
+
+    @Test
+    public void thatUpdatesToDifferentPostsAreEachProcessed() throws Exception {
+        coalescer.submit(POST_UUID, at(1), at(1), record("post"));
+        coalescer.submit(OTHER_POST_UUID, at(1), at(1), record("other post"));
+
+        coalescer.stop();
+
+        assertThat(processed, containsInAnyOrder("post", "other post"));
+        assertThat(superseded(), is(0L));
+    }
+
+    @Test
+    public void thatUpdateIsProcessedWhenItsWindowCloses() throws Exception {
+        coalescer = new SupersededUpdateCoalescer(50, TimeUnit.MILLISECONDS, 10, null, new MetricRegistry());
+
+        coalescer.submit(POST_UUID, at(1), at(1), record("first"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (processed.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        coalescer.submit(POST_UUID, at(2), at(2), record("second"));
+        coalescer.stop();
+
+        assertThat(processed, is(equalTo(Arrays.asList("first", "second"))));
+    }
+
+    @Test
+    public void thatLatestUpdateIsHandedToTheDispatcher() throws Exception {
+        PartitionedMessageDispatcher dispatcher = new PartitionedMessageDispatcher(2, 10, new MetricRegistry());
+        coalescer = new SupersededUpdateCoalescer(1, TimeUnit.HOURS, 10, dispatcher, new MetricRegistry());
+
+        coalescer.submit(POST_UUID, at(1), at(1), record("first"));
+        coalescer.submit(POST_UUID, at(2), at(2), record("second"));
+        coalescer.stop();
+        dispatcher.stop();
+
+        assertThat(processed, is(equalTo(Collections.singletonList("second"))));
+    }
+
+    @Test
+    public void thatSubmitWaitsWhileTooManyPostsAreHeld() throws Exception {
+        coalescer = new SupersededUpdateCoalescer(500, TimeUnit.MILLISECONDS, 1, null, new MetricRegistry());
+        coalescer.submit(POST_UUID, at(1), at(1), record("post"));
+        // a later update to a post already held takes no more room
+        coalescer.submit(POST_UUID, at(2), at(2), record("post again"));
+
+        CountDownLatch otherSubmitted = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                coalescer.submit(OTHER_POST_UUID, at(1), at(1), record("other post"));
+                otherSubmitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+
+        assertThat(otherSubmitted.await(200, TimeUnit.MILLISECONDS), is(false));
+        assertThat(otherSubmitted.await(5, TimeUnit.SECONDS), is(true));
+        coalescer.stop();
+
+        assertThat(processed, is(equalTo(Arrays.asList("post again", "other post"))));
+    }
+
+    @Test
+    public void thatSubmitAfterStopIsRejected() throws Exception {
+        coalescer.stop();
+
+        try {
+            coalescer.submit(POST_UUID, at(1), at(1), record("too late"));
+            fail("expected the update to be rejected");
+        } catch (RejectedExecutionException expected) {
+        }
+
+        assertThat(metrics.getGauges().get(name(SupersededUpdateCoalescer.class, "pending")).getValue(), is((Object) 0));
+        assertThat(processed.isEmpty(), is(true));
+    }
+
+    private Runnable record(String update) {
+        return () -> processed.add(update);
+    }
+
+    private long superseded() {
+        return metrics.meter(name(SupersededUpdateCoalescer.class, "superseded")).getCount();
+    }
+
+    private static Date at(long seconds) {
+        return new Date(TimeUnit.SECONDS.toMillis(seconds));
+    }
+}
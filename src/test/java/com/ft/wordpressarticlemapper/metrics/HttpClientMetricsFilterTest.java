@@ -0,0 +1,93 @@
+package com.ft.wordpressarticlemapper.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class HttpClientMetricsFilterTest {
+
+    private static final String PREFIX = "test-dependency";
+    private static final String HOST_PREFIX = name(PREFIX, "hosts", "api_ft_com");
+    private static final Set<String> KNOWN_HOSTS = Collections.singleton("api.ft.com");
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    @Test
+    public void thatResponseIsTimedAndCountedByStatusAndSize() {
+        Client client = new Client((request) -> new ClientResponse(404, new InBoundHeaders(),
+                new ByteArrayInputStream("not found".getBytes(StandardCharsets.UTF_8)), null));
+        client.addFilter(new HttpClientMetricsFilter(metrics, PREFIX, KNOWN_HOSTS));
+
+        ClientResponse response = client.resource("http://api.ft.com/content/1").get(ClientResponse.class);
+        response.close();
+
+        assertThat(metrics.timer(name(PREFIX, "latency")).getCount(), is(1L));
+        assertThat(metrics.timer(name(HOST_PREFIX, "latency")).getCount(), is(1L));
+        assertThat(metrics.counter(name(PREFIX, "status", "404")).getCount(), is(1L));
+        assertThat(metrics.counter(name(HOST_PREFIX, "status", "404")).getCount(), is(1L));
+        assertThat(metrics.histogram(name(PREFIX, "response-bytes")).getCount(), is(1L));
+    }
+
+    @Test
+    public void thatBytesReadFromEntityAreRecorded() throws Exception {
+        Client client = new Client((request) -> new ClientResponse(200, new InBoundHeaders(),
+                new ByteArrayInputStream("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8)), null));
+        client.addFilter(new HttpClientMetricsFilter(metrics, PREFIX, KNOWN_HOSTS));
+
+        ClientResponse response = client.resource("http://api.ft.com/content/1").get(ClientResponse.class);
+        byte[] buffer = new byte[64];
+        while (response.getEntityInputStream().read(buffer) != -1) {
+        }
+        response.close();
+
+        assertThat(metrics.histogram(name(HOST_PREFIX, "response-bytes")).getSnapshot().getMax(), is(equalTo(10L)));
+    }
+
+    @Test
+    public void thatRequestsToUnknownHostsAreRecordedTogether() {
+        Client client = new Client((request) -> new ClientResponse(200, new InBoundHeaders(), new ByteArrayInputStream(new byte[0]), null));
+        client.addFilter(new HttpClientMetricsFilter(metrics, PREFIX, KNOWN_HOSTS));
+
+        client.resource("http://www.example.org/").head();
+        client.resource("http://www.example.com/").head();
+
+        String otherPrefix = name(PREFIX, "hosts", "other");
+        assertThat(metrics.timer(name(otherPrefix, "latency")).getCount(), is(2L));
+        assertThat(metrics.counter(name(otherPrefix, "status", "200")).getCount(), is(2L));
+        assertThat(metrics.getTimers().keySet().stream().anyMatch(metric -> metric.contains("example")), is(false));
+    }
+
+    @Test
+    public void thatTimeoutIsCounted() {
+        Client client = new Client((request) -> {
+            throw new ClientHandlerException(new SocketTimeoutException("Read timed out"));
+        });
+        client.addFilter(new HttpClientMetricsFilter(metrics, PREFIX, KNOWN_HOSTS));
+
+        try {
+            client.resource("http://api.ft.com/content/1").get(ClientResponse.class);
+            fail("expected the timeout to be rethrown");
+        } catch (ClientHandlerException expected) {
+        }
+
+        assertThat(metrics.meter(name(PREFIX, "timeouts")).getCount(), is(1L));
+        assertThat(metrics.meter(name(HOST_PREFIX, "timeouts")).getCount(), is(1L));
+        assertThat(metrics.meter(name(PREFIX, "errors")).getCount(), is(0L));
+        assertThat(metrics.timer(name(PREFIX, "latency")).getCount(), is(1L));
+    }
+}
@@ -0,0 +1,265 @@
+package com.ft.wordpressarticlemapper.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.api.jaxrs.errors.ClientError;
+import com.ft.wordpressarticlemapper.model.WordPressBlogPostContent;
+import com.ft.wordpressarticlemapper.model.WordPressContent;
+import com.ft.wordpressarticlemapper.response.NativeWordPressContent;
+import com.ft.wordpressarticlemapper.response.Post;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+
+import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
+import static org.apache.http.HttpStatus.SC_NO_CONTENT;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.apache.http.HttpStatus.SC_UNPROCESSABLE_ENTITY;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class BulkContentMapperTest {
+
+    private static final ObjectMapper JACKSON_MAPPER = new ObjectMapper();
+
+    private static final String FIRST_UUID = "5c652c7e-c81e-4be7-8669-adeb5a5621dd";
+    private static final String SECOND_UUID = "8c4d6fea-1c49-33f7-5500-53dfc3335d88";
+    private static final String THIRD_UUID = "5c65ab4c-4ec7-11e6-8172-e39ecd3b86fc";
+
+    private BulkContentMapper bulkContentMapper;
+
+    @Before
+    public void setUp() throws Exception {
+        bulkContentMapper = new BulkContentMapper(JACKSON_MAPPER, 4, 2, new MetricRegistry());
+        bulkContentMapper.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        bulkContentMapper.stop();
+    }
+
+    @Test
+    public void thatNewlineDelimitedItemsAreMappedInInputOrder() throws Exception {
+        String items = item(FIRST_UUID, "slow") + "\n" + item(SECOND_UUID, "second") + "\n\n" + item(THIRD_UUID, "third") + "\n";
+
+        List<JsonNode> results = map(items);
+
+        assertThat(results.size(), is(3));
+        assertMapped(results.get(0), 0, FIRST_UUID);
+        assertMapped(results.get(1), 1, SECOND_UUID);
+        assertMapped(results.get(2), 2, THIRD_UUID);
+    }
+
+    @Test
+    public void thatArrayItemsAreMappedInInputOrder() throws Exception {
+        String items = "[" + item(FIRST_UUID, "slow") + "," + item(SECOND_UUID, "second") + "," + item(THIRD_UUID, "third") + "]";
+
+        List<JsonNode> results = map(items);
+
+        assertThat(results.size(), is(3));
+        assertMapped(results.get(0), 0, FIRST_UUID);
+        assertMapped(results.get(1), 1, SECOND_UUID);
+        assertMapped(results.get(2), 2, THIRD_UUID);
+    }
+
+    @Test
+    public void thatItemThatCannotBeMappedGetsAnErrorEntry() throws Exception {
+        String items = item(FIRST_UUID, "first") + "\n" + item(SECOND_UUID, "invalid") + "\n" + item(THIRD_UUID, "third");
+
+        List<JsonNode> results = map(items);
+
+        assertThat(results.size(), is(3));
+        assertMapped(results.get(0), 0, FIRST_UUID);
+        assertThat(results.get(1).get("index").asInt(), is(1));
+        assertThat(results.get(1).get("status").asInt(), is(SC_UNPROCESSABLE_ENTITY));
+        assertThat(results.get(1).get("uuid").asText(), is(equalTo(SECOND_UUID)));
+        assertThat(results.get(1).get("message").asText(), is(equalTo("Wordpress content is not valid")));
+        assertMapped(results.get(2), 2, THIRD_UUID);
+    }
+
+    @Test
+    public void thatUnreadableLineGetsAnErrorEntry() throws Exception {
+        String items = item(FIRST_UUID, "first") + "\n{\"status\": \n" + item(THIRD_UUID, "third");
+
+        List<JsonNode> results = map(items);
+
+        assertThat(results.size(), is(3));
+        assertMapped(results.get(0), 0, FIRST_UUID);
+        assertThat(results.get(1).get("index").asInt(), is(1));
+        assertThat(results.get(1).get("status").asInt(), is(SC_BAD_REQUEST));
+        assertMapped(results.get(2), 2, THIRD_UUID);
+    }
+
+    @Test
+    public void thatMalformedArrayEndsTheResults() throws Exception {
+        String items = "[" + item(FIRST_UUID, "first") + "," + item(SECOND_UUID, "second") + ", {\"status\": ]";
+
+        List<JsonNode> results = map(items);
+
+        assertThat(results.size(), is(3));
+        assertMapped(results.get(0), 0, FIRST_UUID);
+        assertMapped(results.get(1), 1, SECOND_UUID);
+        assertThat(results.get(2).get("index").asInt(), is(2));
+        assertThat(results.get(2).get("status").asInt(), is(SC_BAD_REQUEST));
+        assertThat(results.get(2).get("message").asText(), startsWith("Malformed bulk request"));
+    }
+
+    @Test
+    public void thatIngestedItemsAreReportedInInputOrder() throws Exception {
+        List<String> ingested = Collections.synchronizedList(new ArrayList<>());
+        String items = item(FIRST_UUID, "first") + "\n" + item(SECOND_UUID, "invalid") + "\n" + item(THIRD_UUID, "third");
+
+        List<JsonNode> results = ingest(items, (content, index) -> {
+            mapContent(content);
+            ingested.add(content.getPost().getUuid());
+        });
+
+        assertThat(ingested, containsInAnyOrder(FIRST_UUID, THIRD_UUID));
+        assertThat(results.size(), is(3));
+        assertIngested(results.get(0), 0, FIRST_UUID);
+        assertThat(results.get(1).get("status").asInt(), is(SC_UNPROCESSABLE_ENTITY));
+        assertThat(results.get(1).get("uuid").asText(), is(equalTo(SECOND_UUID)));
+        assertIngested(results.get(2), 2, THIRD_UUID);
+    }
+
+    @Test
+    public void thatEachIngestedItemIsGivenItsIndex() throws Exception {
+        List<String> ingested = Collections.synchronizedList(new ArrayList<>());
+        String items = item(FIRST_UUID, "first") + "\n" + item(SECOND_UUID, "second") + "\n" + item(THIRD_UUID, "third");
+
+        ingest(items, (content, index) -> ingested.add(index + ":" + content.getPost().getUuid()));
+
+        assertThat(ingested, containsInAnyOrder("0:" + FIRST_UUID, "1:" + SECOND_UUID, "2:" + THIRD_UUID));
+    }
+
+    @Test
+    public void thatItemsAreStartedNoFasterThanTheRateLimit() throws Exception {
+        bulkContentMapper.stop();
+        bulkContentMapper = new BulkContentMapper("ingester", JACKSON_MAPPER, 4, 2, 10, new MetricRegistry());
+        String items = item(FIRST_UUID, "first") + "\n" + item(SECOND_UUID, "second") + "\n" + item(THIRD_UUID, "third");
+
+        long start = System.nanoTime();
+        List<JsonNode> results = ingest(items, (content, index) -> { });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(results.size(), is(3));
+        // the first item is started at once, then one every 100ms
+        assertThat(elapsedMillis, greaterThanOrEqualTo(150L));
+    }
+
+    @Test
+    public void thatMaxInFlightHoldsAcrossConcurrentRequests() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        ObjIntConsumer<NativeWordPressContent> slowIngestion = (content, index) -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+        String items = item(FIRST_UUID, "first") + "\n" + item(SECOND_UUID, "second") + "\n" + item(THIRD_UUID, "third");
+
+        ExecutorService requests = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<List<JsonNode>>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                results.add(requests.submit(() -> ingest(items, slowIngestion)));
+            }
+            for (Future<List<JsonNode>> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS).size(), is(3));
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+
+        // four threads, but only two items in flight across the three requests
+        assertThat(mostRunning.get(), lessThanOrEqualTo(2));
+    }
+
+    @Test
+    public void thatEmptyRequestHasNoResults() throws Exception {
+        assertThat(map(" \n").size(), is(0));
+    }
+
+    private List<JsonNode> map(String items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkContentMapper.map(new ByteArrayInputStream(items.getBytes(StandardCharsets.UTF_8)), out, this::mapContent);
+        return results(out);
+    }
+
+    private List<JsonNode> ingest(String items, ObjIntConsumer<NativeWordPressContent> ingestion) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkContentMapper.ingest(new ByteArrayInputStream(items.getBytes(StandardCharsets.UTF_8)), out, ingestion);
+        return results(out);
+    }
+
+    private static List<JsonNode> results(ByteArrayOutputStream out) throws IOException {
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8.name()).split("\n")) {
+            if (!line.isEmpty()) {
+                results.add(JACKSON_MAPPER.readTree(line));
+            }
+        }
+        return results;
+    }
+
+    private WordPressContent mapContent(NativeWordPressContent content) {
+        Post post = content.getPost();
+        if ("invalid".equals(post.getTitle())) {
+            throw new ClientError.ClientErrorBuilder(SC_UNPROCESSABLE_ENTITY).error("Wordpress content is not valid").exception();
+        }
+        if ("slow".equals(post.getTitle())) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return WordPressBlogPostContent.builder()
+                .withUuid(UUID.fromString(post.getUuid()))
+                .withTitle(post.getTitle())
+                .build();
+    }
+
+    private static void assertMapped(JsonNode result, int index, String uuid) {
+        assertThat(result.get("index").asInt(), is(index));
+        assertThat(result.get("status").asInt(), is(SC_OK));
+        assertThat(result.get("content").get("uuid").asText(), is(equalTo(uuid)));
+    }
+
+    private static void assertIngested(JsonNode result, int index, String uuid) {
+        assertThat(result.get("index").asInt(), is(index));
+        assertThat(result.get("status").asInt(), is(SC_NO_CONTENT));
+        assertThat(result.get("uuid").asText(), is(equalTo(uuid)));
+    }
+
+    private static String item(String uuid, String title) {
+        return "{\"status\":\"ok\",\"post\":{\"type\":\"post\",\"uuid\":\"" + uuid + "\",\"title\":\"" + title + "\"}}";
+    }
+}
@@ -3,6 +3,7 @@ package com.ft.wordpressarticlemapper.resources;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
 import com.ft.wordpressarticlemapper.model.Identifier;
+import com.ft.wordpressarticlemapper.model.ResolvedPostMetadata;
 import com.ft.wordpressarticlemapper.response.Post;
 import com.google.common.collect.ImmutableSet;
 import org.junit.Before;
@@ -24,6 +25,7 @@ import static org.hamcrest.core.IsNull.nullValue;
 
 public class IdentifierBuilderTest {
 
+    private BlogApiEndpointMetadataManager blogApiEndpointMetadataManager;
     private IdentifierBuilder identifierBuilder;
     private static final int POST_ID = 123456;
     private static final String ID_VALUE_PATTERN_1 = "http://%s/2016/04/25/abu-dhabi";
@@ -92,7 +94,7 @@ public class IdentifierBuilderTest {
         blogApiEndpointMetadata.add(new BlogApiEndpointMetadata(BEYONDBRICS_HOST, new HashSet<>(Collections.singletonList(BEYONDBRICS_BRAND)), BEYONDBRICS_CODE, null));
         blogApiEndpointMetadata.add(new BlogApiEndpointMetadata(COMPOUND_HOST, new HashSet<>(Arrays.asList(ALPHA_VILLE_BRAND, OTHER_BRAND)), ALPHA_VILLE_CODE, null));
 
-        BlogApiEndpointMetadataManager blogApiEndpointMetadataManager = new BlogApiEndpointMetadataManager(blogApiEndpointMetadata);
+        blogApiEndpointMetadataManager = new BlogApiEndpointMetadataManager(blogApiEndpointMetadata);
 
         identifierBuilder = new IdentifierBuilder(blogApiEndpointMetadataManager);
 
@@ -172,5 +174,18 @@ public class IdentifierBuilderTest {
                 is(equalTo(COMPOUND_ID)));
     }
 
+    @Test
+    public void testShouldReturnIdentifiersForResolvedPostMetadata() throws URISyntaxException {
+        ResolvedPostMetadata postMetadata = blogApiEndpointMetadataManager.resolve(new URI(BEYONDBRICS_POST_URL));
+
+        assertThat(identifierBuilder.buildIdentifiersFor(postMetadata, BEYONDBRICS_POST), is(equalTo(BEYONDBRICS_ID)));
+    }
+
+    @Test
+    public void testShouldReturnNullIdentifiersForUnknownResolvedPostMetadata() throws URISyntaxException {
+        ResolvedPostMetadata postMetadata = blogApiEndpointMetadataManager.resolve(new URI("http://www.this-is-fake.com"));
+
+        assertThat(identifierBuilder.buildIdentifiersFor(postMetadata, ALPHA_VILLE_POST), is(nullValue()));
+    }
 
 }
@@ -1,6 +1,8 @@
 package com.ft.wordpressarticlemapper.resources;
 
+import com.ft.api.util.transactionid.TransactionIdUtils;
 import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
 import com.ft.wordpressarticlemapper.component.WordPressArticleMapperAppRule;
 import com.ft.wordpressarticlemapper.model.Brand;
 import com.ft.wordpressarticlemapper.model.Identifier;
@@ -23,6 +25,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.apache.http.HttpStatus.SC_MOVED_PERMANENTLY;
@@ -31,10 +34,12 @@ import static org.apache.http.HttpStatus.SC_UNPROCESSABLE_ENTITY;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.IsCollectionContaining.hasItem;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -210,6 +215,71 @@ public class WordPressArticleMapperResourceTest {
         assertThat("response", clientResponse, hasProperty("status", equalTo(404)));
     }
 
+    @Test
+    public void mapBulkShouldReturnResultPerItemInInputOrder() throws Exception {
+        wordPressArticleTransformerAppRule.mockContentReadResponse(
+                "3fcac834-58ce-11e4-a31b-00144feab7de", SC_OK);
+
+        wordPressArticleTransformerAppRule.mockDocumentStoreQueryResponse(
+                "http://api.ft.com/system/FT-LABS-WP-1-335",
+                "http://www.ft.com/fastft/2015/12/09/south-african-rand-dives-after-finance-ministers-exit/",
+                SC_MOVED_PERMANENTLY, "https://next.ft.com/content/8adad508-077b-3795-8569-18e532cabf96");
+
+        final URI uri = buildMapperUrl("map/bulk");
+        final String sourceApiJson = "[" + loadFile("wordPress/__files/WILL_RETURN_200-body-from-wordpress.json")
+                + "," + loadFile("wordPress/__files/WILL_RETURN_404-delete-event.json") + "]";
+
+        final ClientResponse clientResponse = client.resource(uri)
+                .header(TRANSACTION_ID_HEADER, TRANSACTION_ID)
+                .header("Content-Type", MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, sourceApiJson);
+        assertThat("response", clientResponse, hasProperty("status", equalTo(200)));
+
+        String[] results = clientResponse.getEntity(String.class).split("\n");
+        assertThat("results", results.length, is(2));
+        assertThat("mapped item", results[0], containsString("\"index\":0,\"status\":200"));
+        assertThat("mapped item", results[0], containsString("\"uuid\":\"5c652c7e-c81e-4be7-8669-adeb5a5621dd\""));
+        assertThat("delete event", results[1], containsString("\"index\":1,\"status\":404"));
+        assertThat("delete event", results[1], containsString("Delete event"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void ingestBulkShouldPublishEachItemAndReturnItsStatus() throws Exception {
+        wordPressArticleTransformerAppRule.mockContentReadResponse(
+                "3fcac834-58ce-11e4-a31b-00144feab7de", SC_OK);
+
+        wordPressArticleTransformerAppRule.mockDocumentStoreQueryResponse(
+                "http://api.ft.com/system/FT-LABS-WP-1-335",
+                "http://www.ft.com/fastft/2015/12/09/south-african-rand-dives-after-finance-ministers-exit/",
+                SC_MOVED_PERMANENTLY, "https://next.ft.com/content/8adad508-077b-3795-8569-18e532cabf96");
+
+        final URI uri = buildMapperUrl("ingest/bulk");
+        final String sourceApiJson = "[" + loadFile("wordPress/__files/WILL_RETURN_200-body-from-wordpress.json")
+                + "," + loadFile("wordPress/__files/WILL_RETURN_404-delete-event.json")
+                + "," + loadFile("wordPress/__files/WILL_RETURN_200-no-apiurl-on-response.json") + "]";
+
+        final ClientResponse clientResponse = client.resource(uri)
+                .header(TRANSACTION_ID_HEADER, TRANSACTION_ID)
+                .header("Content-Type", MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, sourceApiJson);
+        assertThat("response", clientResponse, hasProperty("status", equalTo(200)));
+
+        String[] results = clientResponse.getEntity(String.class).split("\n");
+        assertThat("results", results.length, is(3));
+        assertThat("published item", results[0], containsString("\"index\":0,\"status\":204"));
+        assertThat("delete event", results[1], containsString("\"index\":1,\"status\":204"));
+        assertThat("invalid item", results[2], containsString("\"index\":2,\"status\":422"));
+
+        ArgumentCaptor<List> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(messageProducer, atLeastOnce()).send(argumentCaptor.capture());
+        List<String> transactionIds = new ArrayList<>();
+        for (List<Message> messages : argumentCaptor.getAllValues()) {
+            messages.forEach(message -> transactionIds.add(message.getCustomMessageHeader(TransactionIdUtils.TRANSACTION_ID_HEADER)));
+        }
+        assertThat("messages sent", transactionIds, containsInAnyOrder(TRANSACTION_ID + "_0", TRANSACTION_ID + "_1"));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void ingestShouldReturn204WhenContentIsValid() throws Exception {
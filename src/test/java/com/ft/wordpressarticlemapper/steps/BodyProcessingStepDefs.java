@@ -1,6 +1,7 @@
 package com.ft.wordpressarticlemapper.steps;
 
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.bodyprocessing.richcontent.ConvertParameters;
 import com.ft.bodyprocessing.richcontent.VideoMatcher;
 import com.ft.bodyprocessing.richcontent.VideoSiteConfiguration;
@@ -11,11 +12,15 @@ import com.ft.content.model.Syndication;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
 import com.ft.wordpressarticlemapper.transformer.BodyProcessingFieldTransformerFactory;
+import com.ft.wordpressarticlemapper.transformer.ContentReadCache;
 import com.ft.wordpressarticlemapper.transformer.StructuredWordPressSourcedBodyXMLEventHandlerRegistry;
 import com.ft.wordpressarticlemapper.util.ClientMockBuilder;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.sun.jersey.api.client.Client;
+import io.dropwizard.util.Duration;
 import cucumber.api.java.Before;
 import cucumber.api.java.en.And;
 import cucumber.api.java.en.Given;
@@ -105,13 +110,18 @@ public class BodyProcessingStepDefs {
                 Collections.singleton(Pattern.compile("https?:\\/\\/on\\.ft\\.com/.*")),
                 blogApiEndpointMetadataManager,
                 resolverClient,
-                1, 2,
+                MoreExecutors.newDirectExecutorService(), 2,
                 documentStoreQueryClient,
                 DOCUMENT_STORE_URI,
                 DOC_STORE_HOST_HEADER,
                 contentReadClient,
                 CONTENT_READ_URI,
-                CONTENT_READ_HOST_HEADER)
+                CONTENT_READ_HOST_HEADER,
+                null,
+                1,
+                CacheBuilder.newBuilder().build(),
+                new ContentReadCache(100, Duration.minutes(1), Duration.minutes(1), new MetricRegistry()),
+                false)
                 .newInstance();
 
         ClientMockBuilder clientMockBuilder = new ClientMockBuilder();
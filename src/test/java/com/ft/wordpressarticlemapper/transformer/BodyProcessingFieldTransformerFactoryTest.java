@@ -1,5 +1,6 @@
 package com.ft.wordpressarticlemapper.transformer;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.richcontent.RichContentItem;
 import com.ft.bodyprocessing.richcontent.Video;
@@ -9,9 +10,13 @@ import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManage
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
 import com.ft.wordpressarticlemapper.util.ClientMockBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.sun.jersey.api.client.Client;
+import io.dropwizard.util.Duration;
 
 import org.hamcrest.text.IsEqualIgnoringWhiteSpace;
 import org.junit.Before;
@@ -22,14 +27,18 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.ft.wordpressarticlemapper.transformer.LinkResolverBodyProcessorTest.ARTICLE_TYPE;
+import static com.ft.wordpressarticlemapper.util.TestFileUtil.resourceFilePath;
 import static javax.servlet.http.HttpServletResponse.SC_MOVED_PERMANENTLY;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -50,11 +59,23 @@ public class BodyProcessingFieldTransformerFactoryTest {
     private static final URI CONTENT_READ_URI = URI.create("http://localhost:8080/content-read");
     private static final String CONTENT_READ_HOST_HEADER = "content-read";
     private static final String DOC_STORE_HOST_HEADER = "document-store-api";
+    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final List<String> POST_FIXTURES = ImmutableList.of(
+            "wordPress/__files/WILL_RETURN_200-body-from-wordpress.json",
+            "wordPress/__files/WILL_RETURN_200-body-no-authors-from-wordpress.json",
+            "wordPress/__files/WILL_RETURN_200-body-no-html-entity-name-from-wordpress.json",
+            "wordPress/__files/WILL_RETURN_200-body-no-html-entity-number-from-wordpress.json",
+            "wordPress/__files/WILL_RETURN_200-unsupported-content.json",
+            "wordPress/__files/wordpress-content.json",
+            "wordPress/__files/wordpress-content-read-error.json",
+            "wordPress/__files/wordpress-content-document-store-api-error.json",
+            "messaging/native-wordpress-content.json");
 
 
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
     private FieldTransformer bodyTransformer;
+    private BlogApiEndpointMetadataManager blogApiEndpointMetadataManager;
     @Mock
     private VideoMatcher videoMatcher;
     @Mock
@@ -70,7 +91,7 @@ public class BodyProcessingFieldTransformerFactoryTest {
     public void setup() {
         Set<String> brands = ImmutableSet.of(BRAND_ID);
         List<BlogApiEndpointMetadata> metadataList = ImmutableList.of(new BlogApiEndpointMetadata("www.ft.com/resolved", brands, BLOG_CODE, null));
-        BlogApiEndpointMetadataManager blogApiEndpointMetadataManager = new BlogApiEndpointMetadataManager(metadataList);
+        blogApiEndpointMetadataManager = new BlogApiEndpointMetadataManager(metadataList);
 
         exampleVimeoVideo = new Video();
         exampleVimeoVideo.setUrl("https://www.vimeo.com/77761436");
@@ -80,17 +101,26 @@ public class BodyProcessingFieldTransformerFactoryTest {
         exampleYouTubeVideo.setUrl("https://www.youtube.com/watch?v=fRqCVcSWbDc");
         exampleYouTubeVideo.setEmbedded(true);
 
-        bodyTransformer = new BodyProcessingFieldTransformerFactory(videoMatcher,
+        bodyTransformer = newBodyTransformer(false);
+    }
+
+    private FieldTransformer newBodyTransformer(boolean singleParsePipeline) {
+        return new BodyProcessingFieldTransformerFactory(videoMatcher,
                 Collections.singleton(Pattern.compile("http:\\/\\/short\\.example\\.com\\/.*")),
                 blogApiEndpointMetadataManager,
                 resolverClient,
-                1, 2,
+                MoreExecutors.newDirectExecutorService(), 2,
                 documentStoreQueryClient,
                 DOC_STORE_URI,
                 DOC_STORE_HOST_HEADER,
                 contentReadClient,
                 CONTENT_READ_URI,
-                CONTENT_READ_HOST_HEADER
+                CONTENT_READ_HOST_HEADER,
+                null,
+                1,
+                CacheBuilder.newBuilder().build(),
+                new ContentReadCache(100, Duration.minutes(1), Duration.minutes(1), new MetricRegistry()),
+                singleParsePipeline
         ).newInstance();
     }
 
@@ -501,6 +531,25 @@ public class BodyProcessingFieldTransformerFactoryTest {
         checkTransformation(bodyWithShortLink, expectedTransformed);
     }
 
+    @Test
+    public void singleParsePipelineShouldMatchDefaultPipelineOnPostFixtures() throws IOException {
+        FieldTransformer singleParseBodyTransformer = newBodyTransformer(true);
+        ClientMockBuilder clientMockBuilder = new ClientMockBuilder();
+
+        for (String fixture : POST_FIXTURES) {
+            String body = wrapped(new ObjectMapper().readTree(new File(resourceFilePath(fixture)))
+                    .path("post").path("content").asText());
+
+            Matcher uuids = UUID_PATTERN.matcher(body);
+            while (uuids.find()) {
+                clientMockBuilder.mockContentRead(contentReadClient, CONTENT_READ_URI, uuids.group(), CONTENT_READ_HOST_HEADER, SC_OK);
+            }
+
+            assertThat(fixture, singleParseBodyTransformer.transform(body, TRANSACTION_ID),
+                    IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(bodyTransformer.transform(body, TRANSACTION_ID)));
+        }
+    }
+
     private void checkTransformation(String originalBody, String expectedTransformedBody) {
         String actualTransformedBody = bodyTransformer.transform(originalBody, TRANSACTION_ID);
         assertThat(actualTransformedBody, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformedBody));
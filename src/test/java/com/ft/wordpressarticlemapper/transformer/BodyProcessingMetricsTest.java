@@ -0,0 +1,81 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.BodyProcessorChain;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.ft.wordpressarticlemapper.transformer.LoggingTestHelper.assertLogEvent;
+import static com.ft.wordpressarticlemapper.transformer.LoggingTestHelper.configureMockAppenderFor;
+import static com.ft.wordpressarticlemapper.transformer.LoggingTestHelper.resetLoggingFor;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BodyProcessingMetricsTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    @Test
+    public void thatEachStageIsTimedWithItsBodySizes() {
+        BodyProcessingMetrics bodyProcessingMetrics = new BodyProcessingMetrics(metrics, 1, TimeUnit.MINUTES);
+        BodyProcessingFieldTransformer transformer = new BodyProcessingFieldTransformer(new BodyProcessorChain(asList(
+                bodyProcessingMetrics.timed((body, context) -> body + body, "Doubler"),
+                bodyProcessingMetrics.timed((body, context) -> body.substring(1), "Trimmer"))),
+                bodyProcessingMetrics);
+
+        String transformed = transformer.transform("<p/>", "tid_test");
+
+        assertThat(transformed, is(equalTo("p/><p/>")));
+        assertThat(metrics.timer(stage("Doubler", "duration")).getCount(), is(1L));
+        assertThat(metrics.histogram(stage("Doubler", "input-chars")).getSnapshot().getMax(), is(4L));
+        assertThat(metrics.histogram(stage("Doubler", "output-chars")).getSnapshot().getMax(), is(8L));
+        assertThat(metrics.histogram(stage("Trimmer", "input-chars")).getSnapshot().getMax(), is(8L));
+        assertThat(metrics.histogram(stage("Trimmer", "output-chars")).getSnapshot().getMax(), is(7L));
+        assertThat(metrics.timer(name(BodyProcessingFieldTransformer.class, "total")).getCount(), is(1L));
+        assertThat(metrics.meter(name(BodyProcessingFieldTransformer.class, "slow-bodies")).getCount(), is(0L));
+    }
+
+    @Test
+    public void thatDocumentStagesAreTimedWithinTheirChain() {
+        BodyProcessingMetrics bodyProcessingMetrics = new BodyProcessingMetrics(metrics, 1, TimeUnit.MINUTES);
+        BodyProcessor chain = bodyProcessingMetrics.timed(new DocumentBodyProcessorChain(asList(
+                bodyProcessingMetrics.timedDocumentProcessor((document, context) -> { }, "Untouched"))), "DocumentBodyProcessorChain");
+
+        chain.process("<body><p>Test</p></body>", new StageTimingBodyProcessingContext("tid_test"));
+
+        assertThat(metrics.timer(stage("Untouched", "duration")).getCount(), is(1L));
+        assertThat(metrics.timer(stage("DocumentBodyProcessorChain", "duration")).getCount(), is(1L));
+    }
+
+    @Test
+    public void thatSlowBodyIsLoggedWithItsStages() {
+        BodyProcessingMetrics bodyProcessingMetrics = new BodyProcessingMetrics(metrics, 0, TimeUnit.MILLISECONDS);
+        BodyProcessingFieldTransformer transformer = new BodyProcessingFieldTransformer(new BodyProcessorChain(asList(
+                bodyProcessingMetrics.timed((body, context) -> body, "First"),
+                bodyProcessingMetrics.timed((body, context) -> body, "Second"))),
+                bodyProcessingMetrics);
+
+        try {
+            Logger logger = configureMockAppenderFor(BodyProcessingMetrics.class);
+
+            transformer.transform("<p>Test</p>", "tid_slow");
+
+            assertLogEvent(logger, "slow body: transaction_id=tid_slow took \\d+ms for 11 chars, stages: First=\\d+ms, Second=\\d+ms",
+                    Level.WARN);
+            assertThat(metrics.meter(name(BodyProcessingFieldTransformer.class, "slow-bodies")).getCount(), is(1L));
+        } finally {
+            resetLoggingFor(BodyProcessingMetrics.class);
+        }
+    }
+
+    private static String stage(String stage, String metric) {
+        return name(BodyProcessingFieldTransformer.class, stage, metric);
+    }
+}
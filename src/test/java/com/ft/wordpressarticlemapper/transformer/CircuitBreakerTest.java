@@ -0,0 +1,157 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.wordpressarticlemapper.exception.CircuitBreakerOpenException;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("content-read", 2, 30, TimeUnit.SECONDS, metrics, now::get);
+
+    @Test
+    public void thatBreakerOpensAfterConsecutiveFailures() {
+        failingCall();
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+        failingCall();
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+
+        assertRejected();
+        assertThat(calls.get(), is(2));
+        assertThat(metrics.meter(name(LinkResolverBodyProcessor.class, "content-read", "circuit-rejected")).getCount(), is(1L));
+        assertThat(metrics.meter(name(LinkResolverBodyProcessor.class, "content-read", "circuit-opened")).getCount(), is(1L));
+        assertThat(stateGauge().getValue(), is(CircuitBreaker.State.OPEN.ordinal()));
+    }
+
+    @Test
+    public void thatSuccessResetsTheFailureCount() {
+        failingCall();
+        circuitBreaker.call(calls::incrementAndGet);
+        failingCall();
+
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void thatFailedResultCountsAsFailure() {
+        circuitBreaker.call(() -> 503, status -> status >= 500);
+        circuitBreaker.call(() -> 503, status -> status >= 500);
+
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void thatSuccessfulProbeClosesTheBreaker() {
+        failingCall();
+        failingCall();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        assertThat(circuitBreaker.call(() -> "probe"), is(equalTo("probe")));
+
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(stateGauge().getValue(), is(CircuitBreaker.State.CLOSED.ordinal()));
+    }
+
+    @Test
+    public void thatOnlyOneProbeIsLetThroughAtATime() {
+        failingCall();
+        failingCall();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        circuitBreaker.call(() -> {
+            assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+            assertRejected();
+            return null;
+        });
+    }
+
+    @Test
+    public void thatFailedProbeOpensTheBreakerAgain() {
+        failingCall();
+        failingCall();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        failingCall();
+
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertRejected();
+    }
+
+    @Test
+    public void thatCallStartedBeforeTheBreakerOpenedDoesNotCloseItWhileProbing() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread earlierCall = new Thread(() -> circuitBreaker.call(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "succeeded late";
+        }));
+        earlierCall.start();
+        started.await();
+
+        failingCall();
+        failingCall();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        try {
+            circuitBreaker.call(() -> {
+                release.countDown();
+                try {
+                    earlierCall.join(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+                assertRejected();
+                throw new IllegalStateException("still unavailable");
+            });
+            fail("expected the failure to be rethrown");
+        } catch (IllegalStateException expected) {
+        }
+
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    private void failingCall() {
+        try {
+            circuitBreaker.call(() -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("unavailable");
+            });
+            fail("expected the failure to be rethrown");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private void assertRejected() {
+        try {
+            circuitBreaker.call(calls::incrementAndGet);
+            fail("expected the call to be rejected");
+        } catch (CircuitBreakerOpenException expected) {
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Gauge<Integer> stateGauge() {
+        return (Gauge<Integer>) metrics.getGauges().get(name(LinkResolverBodyProcessor.class, "content-read", "circuit-state"));
+    }
+}
@@ -0,0 +1,125 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.wordpressarticlemapper.model.ReadEndpointContent;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import io.dropwizard.util.Duration;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ContentReadCacheTest {
+
+    private static final UUID UUID_1 = UUID.randomUUID();
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final FakeTicker ticker = new FakeTicker();
+    private final ContentReadCache cache = new ContentReadCache(100, Duration.minutes(30), Duration.minutes(1), metrics, ticker);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void thatConcurrentLookupsShareOneRequest() throws Exception {
+        CompletableFuture<ReadEndpointContent> pending = new CompletableFuture<>();
+
+        CompletableFuture<ReadEndpointContent> first = cache.get(UUID_1, uuid -> count(pending));
+        CompletableFuture<ReadEndpointContent> second = cache.get(UUID_1, uuid -> count(pending));
+        ReadEndpointContent content = mock(ReadEndpointContent.class);
+        pending.complete(content);
+
+        assertThat(first.get(), is(sameInstance(content)));
+        assertThat(second.get(), is(sameInstance(content)));
+        assertThat(loads.get(), is(1));
+        assertThat(metrics.meter(name(ContentReadCache.class, "coalesced")).getCount(), is(1L));
+    }
+
+    @Test
+    public void thatFoundContentIsCachedUntilItExpires() throws Exception {
+        ReadEndpointContent content = mock(ReadEndpointContent.class);
+
+        cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(content))).get();
+        ticker.advance(29, TimeUnit.MINUTES);
+        assertThat(cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(content))).get(), is(sameInstance(content)));
+        assertThat(loads.get(), is(1));
+
+        ticker.advance(2, TimeUnit.MINUTES);
+        cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(content))).get();
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void thatMissingContentExpiresSooner() throws Exception {
+        cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(null))).get();
+        assertThat(cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(null))).get(), is(nullValue()));
+        assertThat(loads.get(), is(1));
+
+        ticker.advance(2, TimeUnit.MINUTES);
+        cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(null))).get();
+        assertThat(loads.get(), is(2));
+        assertThat(metrics.meter(name(ContentReadCache.class, "hits")).getCount(), is(1L));
+        assertThat(metrics.meter(name(ContentReadCache.class, "misses")).getCount(), is(2L));
+    }
+
+    @Test
+    public void thatFailedLookupsAreNotCached() throws Exception {
+        CompletableFuture<ReadEndpointContent> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("content read unavailable"));
+
+        assertTrue(cache.get(UUID_1, uuid -> count(failed)).isCompletedExceptionally());
+        cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(null))).get();
+
+        assertThat(loads.get(), is(equalTo(2)));
+    }
+
+    @Test
+    public void thatOnlyUncachedUuidsArePassedToTheLoader() throws Exception {
+        UUID uuid2 = UUID.randomUUID();
+        ReadEndpointContent content = mock(ReadEndpointContent.class);
+        cache.get(UUID_1, uuid -> count(CompletableFuture.completedFuture(content))).get();
+
+        Set<UUID> requested = new HashSet<>();
+        Map<UUID, CompletableFuture<ReadEndpointContent>> contents = cache.getAll(ImmutableSet.of(UUID_1, uuid2), missing -> {
+            requested.addAll(missing);
+            return Collections.singletonMap(uuid2, CompletableFuture.completedFuture(null));
+        });
+
+        assertThat(requested, is(equalTo(Collections.singleton(uuid2))));
+        assertThat(contents.get(UUID_1).get(), is(sameInstance(content)));
+        assertThat(contents.get(uuid2).get(), is(nullValue()));
+    }
+
+    private CompletableFuture<ReadEndpointContent> count(CompletableFuture<ReadEndpointContent> lookup) {
+        loads.incrementAndGet();
+        return lookup;
+    }
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.ft.wordpressarticlemapper.transformer.html.RemoveEmptyElementsBodyProcessor;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.xmlmatchers.XmlMatchers.isEquivalentTo;
+import static org.xmlmatchers.transform.XmlConverters.the;
+
+public class DocumentBodyProcessorChainTest {
+
+    private static final DefaultTransactionIdBodyProcessingContext TEST_CONTEXT = new DefaultTransactionIdBodyProcessingContext("test");
+
+    @Test
+    public void thatProcessorsShareOneParsedDocument() {
+        List<Document> seen = new ArrayList<>();
+        DocumentBodyProcessorChain chain = new DocumentBodyProcessorChain(asList(
+                (document, context) -> seen.add(document),
+                (document, context) -> seen.add(document)));
+
+        chain.process("<body><p>Test</p></body>", TEST_CONTEXT);
+
+        assertThat(seen.size(), is(2));
+        assertThat(seen.get(1), is(sameInstance(seen.get(0))));
+    }
+
+    @Test
+    public void thatChangesAreSerializedOnce() {
+        DocumentBodyProcessorChain chain = new DocumentBodyProcessorChain(asList(
+                new RemoveEmptyElementsBodyProcessor(asList("p", "a"), asList("img")),
+                (document, context) -> document.getElementsByTagName("p").item(0).setTextContent("Replaced")));
+
+        String result = chain.process("<body><p>   </p><p>Test <a href=\"ghh\"> </a></p></body>", TEST_CONTEXT);
+
+        assertThat(the(result), isEquivalentTo(the("<body><p>Replaced</p></body>")));
+    }
+
+    @Test
+    public void thatBodyEmptiedByProcessorsIsReturnedEmpty() {
+        DocumentBodyProcessorChain chain = new DocumentBodyProcessorChain(asList(
+                new RemoveEmptyElementsBodyProcessor(asList("p"), asList("img"))));
+
+        String result = chain.process("<body><p>   </p></body>", TEST_CONTEXT);
+
+        assertThat(result, is(equalTo("")));
+    }
+}
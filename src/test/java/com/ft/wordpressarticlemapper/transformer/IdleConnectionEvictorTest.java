@@ -0,0 +1,41 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class IdleConnectionEvictorTest {
+
+    @Test
+    public void thatExpiredAndIdleConnectionsAreClosedInEveryPool() {
+        ClientConnectionManager first = mock(ClientConnectionManager.class);
+        ClientConnectionManager second = mock(ClientConnectionManager.class);
+        doThrow(new IllegalStateException("Connection manager has been shut down")).when(first).closeExpiredConnections();
+
+        new IdleConnectionEvictor(asList(first, second), 10, 30000).evict();
+
+        verify(first).closeExpiredConnections();
+        verify(second).closeExpiredConnections();
+        verify(second).closeIdleConnections(30000, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void thatConnectionsAreEvictedPeriodicallyOnceStarted() throws Exception {
+        ClientConnectionManager connectionManager = mock(ClientConnectionManager.class);
+        IdleConnectionEvictor evictor = new IdleConnectionEvictor(asList(connectionManager), 10, 30000);
+
+        evictor.start();
+        try {
+            verify(connectionManager, timeout(1000).atLeast(2)).closeIdleConnections(30000, TimeUnit.MILLISECONDS);
+        } finally {
+            evictor.stop();
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.ft.wordpressarticlemapper.transformer;
 
+import com.codahale.metrics.MetricRegistry;
 import ch.qos.logback.classic.Logger;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.BlogApiEndpointMetadata;
+import com.ft.wordpressarticlemapper.model.Identifier;
 import com.ft.wordpressarticlemapper.util.ClientMockBuilder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ForwardingExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.WebResource;
+import io.dropwizard.util.Duration;
 import org.hamcrest.text.IsEqualIgnoringWhiteSpace;
 import org.junit.Before;
 import org.junit.Test;
@@ -18,8 +28,17 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
+import javax.ws.rs.core.UriBuilder;
+
 import static com.ft.wordpressarticlemapper.transformer.LoggingTestHelper.assertLogEvent;
 import static com.ft.wordpressarticlemapper.transformer.LoggingTestHelper.configureMockAppenderFor;
 import static com.ft.wordpressarticlemapper.transformer.LoggingTestHelper.resetLoggingFor;
@@ -27,12 +46,17 @@ import static javax.servlet.http.HttpServletResponse.SC_OK;
 import static org.apache.http.HttpStatus.SC_INTERNAL_SERVER_ERROR;
 import static org.apache.http.HttpStatus.SC_MOVED_PERMANENTLY;
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_SERVICE_UNAVAILABLE;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class LinkResolverBodyProcessorTest {
     static final String ARTICLE_TYPE = "http://www.ft.com/ontology/content/Article";
@@ -45,12 +69,14 @@ public class LinkResolverBodyProcessorTest {
     private static final URI DOC_STORE_URI = URI.create("http://localhost:8080/");
     private static final URI DOC_STORE_QUERY = DOC_STORE_URI.resolve("/content-query");
     private static final URI CONTENT_READ_URI = URI.create("http://localhost:8080/content");
+    private static final URI CONTENT_READ_BULK_URI = URI.create("http://localhost:8080/content/bulk");
     private static final String CONTENT_READ_HOST_HEADER = "content-public-read";
     private static final String DOC_STORE_HOST_HEADER = "document-store-api";
 
     private Client resolverClient = mock(Client.class);
     private Client documentStoreQueryClient = mock(Client.class);
     private Client contentReadClient = mock(Client.class);
+    private Cache<URI, Identifier> redirectCache = CacheBuilder.newBuilder().build();
 
     private static final ClientMockBuilder CLIENT_MOCK_BUILDER = new ClientMockBuilder();
 
@@ -58,14 +84,23 @@ public class LinkResolverBodyProcessorTest {
 
     @Before
     public void setup() {
+        processor = newProcessor(null);
+    }
+
+    private LinkResolverBodyProcessor newProcessor(URI contentReadBulkUri) {
+        return newProcessor(contentReadBulkUri, MoreExecutors.newDirectExecutorService(), null, null);
+    }
 
+    private LinkResolverBodyProcessor newProcessor(URI contentReadBulkUri, ExecutorService resolverExecutor,
+                                                   LinkResolutionBudget budget,
+                                                   LinkResolverCircuitBreakers circuitBreakers) {
         Set<String> brands = ImmutableSet.of(BRAND_ID);
         List<BlogApiEndpointMetadata> metadataList = ImmutableList.of(
                 new BlogApiEndpointMetadata("www.ft.com/resolved", brands, BLOG_ID, null),
                 new BlogApiEndpointMetadata("somethingelse.ft.com/ablog", brands, BLOG_ID, null));
         BlogApiEndpointMetadataManager blogApiEndpointMetadataManager = new BlogApiEndpointMetadataManager(metadataList);
 
-        processor = new LinkResolverBodyProcessor(
+        return new LinkResolverBodyProcessor(
                 Collections.singleton(SHORT_URL_PATTERN),
                 resolverClient,
                 blogApiEndpointMetadataManager,
@@ -75,7 +110,13 @@ public class LinkResolverBodyProcessorTest {
                 contentReadClient,
                 CONTENT_READ_URI,
                 CONTENT_READ_HOST_HEADER,
-                1, 2);
+                contentReadBulkUri,
+                10,
+                resolverExecutor, 2,
+                redirectCache,
+                new ContentReadCache(100, Duration.minutes(1), Duration.minutes(1), new MetricRegistry()),
+                budget,
+                circuitBreakers);
     }
 
     @Test
@@ -158,6 +199,39 @@ public class LinkResolverBodyProcessorTest {
         inOrder.verify(documentStoreQueryClient).resource(queryURI);
     }
 
+    @Test
+    public void thatResolvedShortenedLinksAreCached() {
+        URI shortUrl = URI.create("http://short.example.com/foobar");
+        String resolvedIdentifier = "http://www.ft.com/resolved/foo/bar";
+        UUID ftContentUUID = UUID.randomUUID();
+        String bodyWithShortLink = "<body><p>Blah blah blah <a href=\"" + shortUrl
+                + "\">usw</a> ...</p></body>";
+
+        String expectedTransformed = "<body><p>Blah blah blah <content id=\"" + ftContentUUID
+                + "\" type=\"" + ARTICLE_TYPE + "\">usw</content> ...</p></body>";
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, URI.create(resolvedIdentifier));
+        URI queryURI = CLIENT_MOCK_BUILDER.buildDocumentStoreQueryUri(
+                DOC_STORE_QUERY,
+                URI.create(BLOG_AUTHORITY),
+                URI.create(resolvedIdentifier)
+        );
+        CLIENT_MOCK_BUILDER.mockDocumentStoreQuery(
+                documentStoreQueryClient,
+                queryURI,
+                URI.create("http://www.ft.com/content/" + ftContentUUID),
+                SC_MOVED_PERMANENTLY
+        );
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+
+        processor.process(bodyWithShortLink, null);
+        String actual = processor.process(bodyWithShortLink, null);
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformed));
+
+        verify(resolverClient, times(1)).resource(shortUrl);
+        verify(documentStoreQueryClient, times(2)).resource(queryURI);
+    }
+
     @Test
     public void thatShortenedLinksWithQueryParametersAreResolvedToContent() {
         URI shortUrl = URI.create("http://short.example.com/foobar");
@@ -300,6 +374,21 @@ public class LinkResolverBodyProcessorTest {
         verify(documentStoreQueryClient, never()).resource(any(URI.class));
     }
 
+    @Test
+    public void thatCircularShortenedLinksAreOnlyFollowedOnce() {
+        URI shortUrl = URI.create("http://short.example.com/foobar");
+        String body = "<body><p>Blah blah blah <a href=\"" + shortUrl.toASCIIString()
+                + "\">usw</a> ...</p></body>";
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, shortUrl);
+
+        processor.process(body, null);
+        String actual = processor.process(body, null);
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(body));
+        verify(resolverClient, times(1)).resource(shortUrl);
+        assertThat(redirectCache.getIfPresent(shortUrl), equalTo(new Identifier(null, shortUrl.toString())));
+    }
+
     @Test
     public void thatShortenedLinksWithErrorResponsesAreNotTransformed() {
         URI shortUrl = URI.create("http://short.example.com/foobar");
@@ -313,6 +402,37 @@ public class LinkResolverBodyProcessorTest {
         verify(documentStoreQueryClient, never()).resource(any(URI.class));
     }
 
+    @Test
+    public void thatShortenedLinksWithErrorResponsesAreLookedUpAgain() {
+        URI shortUrl = URI.create("http://short.example.com/foobar");
+        String resolvedIdentifier = "http://www.ft.com/resolved/foo/bar";
+        UUID ftContentUUID = UUID.randomUUID();
+        String body = "<body><p>Blah blah blah <a href=\"" + shortUrl
+                + "\">usw</a> ...</p></body>";
+
+        String expectedTransformed = "<body><p>Blah blah blah <content id=\"" + ftContentUUID
+                + "\" type=\"" + ARTICLE_TYPE + "\">usw</content> ...</p></body>";
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, SC_SERVICE_UNAVAILABLE);
+        processor.process(body, null);
+        assertThat(redirectCache.getIfPresent(shortUrl), nullValue());
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, URI.create(resolvedIdentifier));
+        CLIENT_MOCK_BUILDER.mockDocumentStoreQuery(
+                documentStoreQueryClient,
+                DOC_STORE_QUERY,
+                URI.create(BLOG_AUTHORITY),
+                URI.create(resolvedIdentifier),
+                URI.create("http://www.ft.com/content/" + ftContentUUID),
+                SC_MOVED_PERMANENTLY
+        );
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+
+        String actual = processor.process(body, null);
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformed));
+        verify(resolverClient, times(2)).resource(shortUrl);
+    }
+
     @Test
     public void thatShortenedLinksResolvedButNotFoundAreNotTransformed() {
         URI shortUrl = URI.create("http://short.example.com/foobar");
@@ -391,6 +511,305 @@ public class LinkResolverBodyProcessorTest {
         assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(body));
     }
 
+    @Test
+    public void thatUuidLinksAreReadInOneBulkRequest() {
+        processor = newProcessor(CONTENT_READ_BULK_URI);
+        UUID ftContentUUID = UUID.randomUUID();
+        UUID missingContentUUID = UUID.randomUUID();
+        String body = "<body><p>Blah blah blah <a href=\"http://www.ft.com/content/" + ftContentUUID
+                + "\">usw</a> <a href=\"http://www.ft.com/content/" + missingContentUUID + "\">etc</a></p></body>";
+
+        String expectedTransformed = "<body><p>Blah blah blah <content id=\"" + ftContentUUID
+                + "\" type=\"" + ARTICLE_TYPE + "\">usw</content> <a href=\"http://www.ft.com/content/"
+                + missingContentUUID + "\">etc</a></p></body>";
+
+        CLIENT_MOCK_BUILDER.mockBulkContentRead(contentReadClient, CONTENT_READ_BULK_URI, CONTENT_READ_HOST_HEADER, SC_OK, ftContentUUID.toString());
+
+        String actual = processor.process(body, null);
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformed));
+
+        verify(contentReadClient, times(1)).resource(CONTENT_READ_BULK_URI);
+        verify(contentReadClient, never()).resource(UriBuilder.fromUri(CONTENT_READ_URI).path("{uuid}").build(ftContentUUID));
+        verify(contentReadClient, never()).resource(UriBuilder.fromUri(CONTENT_READ_URI).path("{uuid}").build(missingContentUUID));
+    }
+
+    @Test
+    public void thatUuidLinksAreReadIndividuallyWhenBulkReadFails() {
+        processor = newProcessor(CONTENT_READ_BULK_URI);
+        UUID ftContentUUID = UUID.randomUUID();
+        UUID ftContentUUID2 = UUID.randomUUID();
+        String body = "<body><p>Blah blah blah <a href=\"http://www.ft.com/content/" + ftContentUUID
+                + "\">usw</a> <a href=\"http://www.ft.com/content/" + ftContentUUID2 + "\">etc</a></p></body>";
+
+        String expectedTransformed = "<body><p>Blah blah blah <content id=\"" + ftContentUUID
+                + "\" type=\"" + ARTICLE_TYPE + "\">usw</content> <content id=\"" + ftContentUUID2
+                + "\" type=\"" + ARTICLE_TYPE + "\">etc</content></p></body>";
+
+        CLIENT_MOCK_BUILDER.mockBulkContentRead(contentReadClient, CONTENT_READ_BULK_URI, CONTENT_READ_HOST_HEADER, SC_SERVICE_UNAVAILABLE);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID2.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+
+        String actual = processor.process(body, null);
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformed));
+    }
+
+    @Test
+    public void thatUuidLinksAreReadIndividuallyWhileTheBulkBreakerIsOpen() {
+        UUID ftContentUUID = UUID.randomUUID();
+        UUID ftContentUUID2 = UUID.randomUUID();
+        String body = "<body><p>Blah blah blah <a href=\"http://www.ft.com/content/" + ftContentUUID
+                + "\">usw</a></p></body>";
+        String body2 = "<body><p>Blah blah blah <a href=\"http://www.ft.com/content/" + ftContentUUID2
+                + "\">usw</a></p></body>";
+
+        String expectedTransformed2 = "<body><p>Blah blah blah <content id=\"" + ftContentUUID2
+                + "\" type=\"" + ARTICLE_TYPE + "\">usw</content></p></body>";
+
+        CLIENT_MOCK_BUILDER.mockBulkContentRead(contentReadClient, CONTENT_READ_BULK_URI, CONTENT_READ_HOST_HEADER, SC_SERVICE_UNAVAILABLE);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID2.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+        CircuitBreaker contentRead = new CircuitBreaker("content-read", 1, 1, TimeUnit.MINUTES, new MetricRegistry());
+        CircuitBreaker contentReadBulk = new CircuitBreaker("content-read-bulk", 1, 1, TimeUnit.MINUTES, new MetricRegistry());
+        processor = newProcessor(CONTENT_READ_BULK_URI, MoreExecutors.newDirectExecutorService(), null,
+                new LinkResolverCircuitBreakers(Collections.emptyMap(), CircuitBreaker.disabled("document-store"),
+                        contentRead, contentReadBulk, CircuitOpenPolicy.LEAVE_UNRESOLVED));
+
+        processor.process(body, null);
+        String actual = processor.process(body2, null);
+
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformed2));
+        assertThat(contentReadBulk.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(contentRead.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        verify(contentReadClient, times(1)).resource(CONTENT_READ_BULK_URI);
+    }
+
+    @Test
+    public void thatRejectedBulkReadsDoNotOpenTheBulkBreaker() {
+        UUID ftContentUUID = UUID.randomUUID();
+        String body = "<body><p>Blah blah blah <a href=\"http://www.ft.com/content/" + ftContentUUID
+                + "\">usw</a></p></body>";
+
+        String expectedTransformed = "<body><p>Blah blah blah <content id=\"" + ftContentUUID
+                + "\" type=\"" + ARTICLE_TYPE + "\">usw</content></p></body>";
+
+        CLIENT_MOCK_BUILDER.mockBulkContentRead(contentReadClient, CONTENT_READ_BULK_URI, CONTENT_READ_HOST_HEADER, SC_NOT_FOUND);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+        CircuitBreaker contentReadBulk = new CircuitBreaker("content-read-bulk", 1, 1, TimeUnit.MINUTES, new MetricRegistry());
+        processor = newProcessor(CONTENT_READ_BULK_URI, MoreExecutors.newDirectExecutorService(), null,
+                new LinkResolverCircuitBreakers(Collections.emptyMap(), CircuitBreaker.disabled("document-store"),
+                        CircuitBreaker.disabled("content-read"), contentReadBulk, CircuitOpenPolicy.LEAVE_UNRESOLVED));
+
+        String actual = processor.process(body, null);
+
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformed));
+        assertThat(contentReadBulk.getState(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void thatLookupsRunOnTheResolverExecutor() throws Exception {
+        URI shortUrl = URI.create("http://short.example.com/foobar");
+        URI resolvedIdentifier = URI.create("http://www.ft.com/resolved/foo/bar");
+        UUID ftContentUUID = UUID.randomUUID();
+        String body = "<body><p>Blah blah blah <a href=\"" + shortUrl
+                + "\">usw</a> ...</p></body>";
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, resolvedIdentifier);
+        URI queryURI = CLIENT_MOCK_BUILDER.buildDocumentStoreQueryUri(DOC_STORE_QUERY, URI.create(BLOG_AUTHORITY), resolvedIdentifier);
+        CLIENT_MOCK_BUILDER.mockDocumentStoreQuery(documentStoreQueryClient, queryURI,
+                URI.create("http://www.ft.com/content/" + ftContentUUID), SC_MOVED_PERMANENTLY);
+        URI contentReadURI = UriBuilder.fromUri(CONTENT_READ_URI).path("{uuid}").build(ftContentUUID);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+
+        Set<String> lookupThreads = ConcurrentHashMap.newKeySet();
+        recordLookupThread(resolverClient, shortUrl, lookupThreads);
+        recordLookupThread(documentStoreQueryClient, queryURI, lookupThreads);
+        recordLookupThread(contentReadClient, contentReadURI, lookupThreads);
+
+        ExecutorService resolverExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, "link-resolver"));
+        try {
+            processor = newProcessor(null, resolverExecutor, null, null);
+
+            String actual = processor.process(body, null);
+
+            assertThat(actual.contains(ftContentUUID.toString()), equalTo(true));
+            assertThat(lookupThreads, equalTo(Collections.singleton("link-resolver")));
+        } finally {
+            resolverExecutor.shutdown();
+        }
+    }
+
+    private static void recordLookupThread(Client client, URI uri, Set<String> lookupThreads) {
+        WebResource resource = client.resource(uri);
+        when(client.resource(uri)).thenAnswer(invocation -> {
+            lookupThreads.add(Thread.currentThread().getName());
+            return resource;
+        });
+    }
+
+    @Test
+    public void thatARejectedLookupLeavesOnlyItsOwnLinkUnresolved() {
+        URI shortUrl = URI.create("http://short.example.com/foo");
+        URI shortUrl2 = URI.create("http://short.example.com/bar");
+        URI resolvedIdentifier = URI.create("http://www.ft.com/resolved/foo");
+        URI resolvedIdentifier2 = URI.create("http://www.ft.com/resolved/bar");
+        UUID ftContentUUID = UUID.randomUUID();
+        UUID ftContentUUID2 = UUID.randomUUID();
+        String body = "<body><p>Blah blah blah <a href=\"" + shortUrl + "\">usw</a> <a href=\"" + shortUrl2
+                + "\">etc</a></p></body>";
+
+        String expectedTransformed = "<body><p>Blah blah blah <a href=\"" + shortUrl + "\">usw</a> <content id=\""
+                + ftContentUUID2 + "\" type=\"" + ARTICLE_TYPE + "\">etc</content></p></body>";
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, resolvedIdentifier);
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl2, resolvedIdentifier2);
+        CLIENT_MOCK_BUILDER.mockDocumentStoreQuery(documentStoreQueryClient, DOC_STORE_QUERY, URI.create(BLOG_AUTHORITY),
+                resolvedIdentifier, URI.create("http://www.ft.com/content/" + ftContentUUID), SC_MOVED_PERMANENTLY);
+        CLIENT_MOCK_BUILDER.mockDocumentStoreQuery(documentStoreQueryClient, DOC_STORE_QUERY, URI.create(BLOG_AUTHORITY),
+                resolvedIdentifier2, URI.create("http://www.ft.com/content/" + ftContentUUID2), SC_MOVED_PERMANENTLY);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID2.toString(), CONTENT_READ_HOST_HEADER, SC_OK);
+
+        // on a direct executor, the first link's redirect lookup is the first task and its document store query the
+        // second, which is the one rejected
+        processor = newProcessor(null, rejectingTask(2), null, null);
+
+        String actual = processor.process(body, null);
+
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(expectedTransformed));
+        verify(resolverClient).resource(shortUrl);
+        verify(documentStoreQueryClient, never()).resource(
+                CLIENT_MOCK_BUILDER.buildDocumentStoreQueryUri(DOC_STORE_QUERY, URI.create(BLOG_AUTHORITY), resolvedIdentifier));
+    }
+
+    /**
+     * A direct executor that rejects the nth task it is given.
+     */
+    private static ExecutorService rejectingTask(int n) {
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService direct = MoreExecutors.newDirectExecutorService();
+        return new ForwardingExecutorService() {
+            @Override
+            protected ExecutorService delegate() {
+                return direct;
+            }
+
+            @Override
+            public void execute(Runnable command) {
+                if (tasks.incrementAndGet() == n) {
+                    throw new RejectedExecutionException("task " + n);
+                }
+                super.execute(command);
+            }
+        };
+    }
+
+    @Test
+    public void thatLinksStillResolvingWhenTheBudgetRunsOutAreNotTransformed() throws Exception {
+        UUID ftContentUUID = UUID.randomUUID();
+        String bodyWithUuidLink = "<body><p>Blah blah blah <a href=\"http://www.ft.com/intl/cms/s/0/" + ftContentUUID
+                + "\">usw</a> ...</p></body>";
+        CountDownLatch released = new CountDownLatch(1);
+        when(contentReadClient.resource(any(URI.class))).thenAnswer(invocation -> {
+            released.await();
+            throw new ClientHandlerException("released");
+        });
+
+        MetricRegistry metrics = new MetricRegistry();
+        ExecutorService resolverExecutor = Executors.newSingleThreadExecutor();
+        try {
+            processor = newProcessor(null, resolverExecutor, new LinkResolutionBudget(50, TimeUnit.MILLISECONDS, metrics), null);
+
+            String actual = processor.process(bodyWithUuidLink, null);
+
+            assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(bodyWithUuidLink));
+            assertThat(metrics.meter(MetricRegistry.name(LinkResolverBodyProcessor.class, "links-skipped")).getCount(),
+                    equalTo(1L));
+        } finally {
+            released.countDown();
+            resolverExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void thatLinksAreLeftUnresolvedWithoutCallingContentReadWhileItsBreakerIsOpen() {
+        UUID ftContentUUID = UUID.randomUUID();
+        String bodyWithUuidLink = "<body><p>Blah blah blah <a href=\"http://www.ft.com/intl/cms/s/0/" + ftContentUUID
+                + "\">usw</a> ...</p></body>";
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_SERVICE_UNAVAILABLE);
+        processor = newProcessor(null, MoreExecutors.newDirectExecutorService(), null,
+                circuitBreakers(CircuitOpenPolicy.LEAVE_UNRESOLVED));
+
+        processor.process(bodyWithUuidLink, null);
+        String actual = processor.process(bodyWithUuidLink, null);
+
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(bodyWithUuidLink));
+        verify(contentReadClient, times(1)).resource(any(URI.class));
+    }
+
+    @Test(expected = BodyProcessingException.class)
+    public void thatBodyFailsWhileContentReadBreakerIsOpenIfSoConfigured() {
+        UUID ftContentUUID = UUID.randomUUID();
+        String bodyWithUuidLink = "<body><p>Blah blah blah <a href=\"http://www.ft.com/intl/cms/s/0/" + ftContentUUID
+                + "\">usw</a> ...</p></body>";
+        CLIENT_MOCK_BUILDER.mockContentRead(contentReadClient, CONTENT_READ_URI, ftContentUUID.toString(), CONTENT_READ_HOST_HEADER, SC_SERVICE_UNAVAILABLE);
+        processor = newProcessor(null, MoreExecutors.newDirectExecutorService(), null,
+                circuitBreakers(CircuitOpenPolicy.FAIL));
+
+        processor.process(bodyWithUuidLink, null);
+        processor.process(bodyWithUuidLink, null);
+    }
+
+    @Test
+    public void thatFailuresOfSitesLinkedToDoNotOpenTheShortenersBreaker() {
+        URI shortUrl = URI.create("http://short.example.com/foobar");
+        URI redirectionUrl = URI.create("http://www.example.org/");
+        String body = "<body><p>Blah blah blah <a href=\"" + shortUrl
+                + "\">usw</a> ...</p></body>";
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, redirectionUrl);
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, redirectionUrl, SC_SERVICE_UNAVAILABLE);
+        CircuitBreaker shortener = new CircuitBreaker("short.example.com", 1, 1, TimeUnit.MINUTES, new MetricRegistry());
+        processor = newProcessor(null, MoreExecutors.newDirectExecutorService(), null,
+                shortenerCircuitBreakers(shortener));
+
+        processor.process(body, null);
+        processor.process(body, null);
+
+        assertThat(shortener.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        verify(resolverClient, times(2)).resource(shortUrl);
+    }
+
+    @Test
+    public void thatShortenedLinksAreLeftUnresolvedWhileTheShortenersBreakerIsOpen() {
+        URI shortUrl = URI.create("http://short.example.com/foobar");
+        String body = "<body><p>Blah blah blah <a href=\"" + shortUrl
+                + "\">usw</a> ...</p></body>";
+
+        CLIENT_MOCK_BUILDER.mockResolverRedirect(resolverClient, shortUrl, SC_SERVICE_UNAVAILABLE);
+        CircuitBreaker shortener = new CircuitBreaker("short.example.com", 1, 1, TimeUnit.MINUTES, new MetricRegistry());
+        processor = newProcessor(null, MoreExecutors.newDirectExecutorService(), null,
+                shortenerCircuitBreakers(shortener));
+
+        processor.process(body, null);
+        String actual = processor.process(body, null);
+
+        assertThat(actual, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(body));
+        assertThat(shortener.getState(), equalTo(CircuitBreaker.State.OPEN));
+        verify(resolverClient, times(1)).resource(shortUrl);
+    }
+
+    private static LinkResolverCircuitBreakers shortenerCircuitBreakers(CircuitBreaker shortener) {
+        return new LinkResolverCircuitBreakers(ImmutableMap.of("short.example.com", shortener),
+                CircuitBreaker.disabled("document-store"), CircuitBreaker.disabled("content-read"),
+                CircuitBreaker.disabled("content-read-bulk"), CircuitOpenPolicy.LEAVE_UNRESOLVED);
+    }
+
+    private static LinkResolverCircuitBreakers circuitBreakers(CircuitOpenPolicy openPolicy) {
+        return new LinkResolverCircuitBreakers(Collections.emptyMap(), CircuitBreaker.disabled("document-store"),
+                new CircuitBreaker("content-read", 1, 1, TimeUnit.MINUTES, new MetricRegistry()),
+                CircuitBreaker.disabled("content-read-bulk"), openPolicy);
+    }
+
     @Test(expected = BodyProcessingException.class)
     public void thatBadlyFormedContentIsRejected() {
         processor.process("<foo>", null);
@@ -0,0 +1,92 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class LinkResolverExecutorTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LinkResolverExecutor executor;
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        executor.stop();
+    }
+
+    @Test
+    public void thatSaturatedExecutorRunsTaskOnCallerThread() throws Exception {
+        executor = new LinkResolverExecutor(1, 1, ResolverSaturationPolicy.CALLER_RUNS, metrics);
+        ExecutorService executorService = executor.getExecutorService();
+        saturate(executorService);
+
+        Future<String> future = executorService.submit(() -> Thread.currentThread().getName());
+
+        assertThat(future.get(), is(equalTo(Thread.currentThread().getName())));
+        assertThat(metrics.meter(name(LinkResolverExecutor.class, "rejected")).getCount(), is(1L));
+    }
+
+    @Test
+    public void thatSaturatedExecutorRejectsTask() throws Exception {
+        executor = new LinkResolverExecutor(1, 1, ResolverSaturationPolicy.ABORT, metrics);
+        ExecutorService executorService = executor.getExecutorService();
+        saturate(executorService);
+
+        try {
+            executorService.submit(() -> "too many");
+            fail("expected task to be rejected");
+        } catch (RejectedExecutionException e) {
+            assertThat(metrics.meter(name(LinkResolverExecutor.class, "rejected")).getCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void thatTaskSubmittedAfterStopIsRejectedRatherThanDropped() throws Exception {
+        executor = new LinkResolverExecutor(1, 1, ResolverSaturationPolicy.CALLER_RUNS, metrics);
+        executor.start();
+        executor.stop();
+
+        try {
+            executor.getExecutorService().submit(() -> "too late");
+            fail("expected task to be rejected");
+        } catch (RejectedExecutionException e) {
+            assertThat(metrics.meter(name(LinkResolverExecutor.class, "rejected")).getCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void thatQueueDepthIsReported() throws Exception {
+        executor = new LinkResolverExecutor(1, 1, ResolverSaturationPolicy.ABORT, metrics);
+        saturate(executor.getExecutorService());
+
+        assertThat(metrics.getGauges().get(name(LinkResolverExecutor.class, "queue-depth")).getValue(), is((Object) 1));
+        assertThat(metrics.getGauges().get(name(LinkResolverExecutor.class, "active-threads")).getValue(), is((Object) 1));
+    }
+
+    private void saturate(ExecutorService executorService) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executorService.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        started.await();
+        executorService.submit(() -> {
+            release.await();
+            return null;
+        });
+    }
+}
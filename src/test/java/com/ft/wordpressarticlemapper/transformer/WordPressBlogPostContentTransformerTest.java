@@ -4,11 +4,13 @@ import com.ft.content.model.Syndication;
 import com.ft.uuidutils.DeriveUUID;
 import com.ft.uuidutils.DeriveUUID.Salts;
 import com.ft.uuidutils.GenerateV5UUID;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.exception.UnpublishablePostException;
 import com.ft.wordpressarticlemapper.exception.UntransformablePostException;
 import com.ft.wordpressarticlemapper.model.AccessLevel;
 import com.ft.wordpressarticlemapper.model.Brand;
 import com.ft.wordpressarticlemapper.model.Identifier;
+import com.ft.wordpressarticlemapper.model.ResolvedPostMetadata;
 import com.ft.wordpressarticlemapper.model.WordPressBlogPostContent;
 import com.ft.wordpressarticlemapper.resources.BrandSystemResolver;
 import com.ft.wordpressarticlemapper.resources.IdentifierBuilder;
@@ -39,6 +41,8 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class WordPressBlogPostContentTransformerTest {
@@ -66,6 +70,7 @@ public class WordPressBlogPostContentTransformerTest {
     private static final String CANONICAL_WEB_URL_TEMPLATE = "https://www.ft.com/content/%s";
 
     private WordPressBlogPostContentMapper mapper;
+    private BlogApiEndpointMetadataManager blogApiEndpointMetadataManager = mock(BlogApiEndpointMetadataManager.class);
     private BrandSystemResolver brandResolver = mock(BrandSystemResolver.class);
     private BodyProcessingFieldTransformer bodyTransformer = mock(BodyProcessingFieldTransformer.class);
     private IdentifierBuilder identifierBuilder = mock(IdentifierBuilder.class);
@@ -73,13 +78,15 @@ public class WordPressBlogPostContentTransformerTest {
 
     @Before
     public void setUp() {
-        mapper = new WordPressBlogPostContentMapper(brandResolver, bodyTransformer, identifierBuilder,
+        mapper = new WordPressBlogPostContentMapper(blogApiEndpointMetadataManager, brandResolver, bodyTransformer, identifierBuilder,
                 syndicationManager, CANONICAL_WEB_URL_TEMPLATE);
 
         URI requestUri = UriBuilder.fromUri(POST_URL).build();
-        when(brandResolver.getBrand(requestUri)).thenReturn(BRANDS);
-        when(identifierBuilder.buildIdentifiers(eq(requestUri), any(Post.class))).thenReturn(IDENTIFIERS);
-        when(syndicationManager.getSyndicationByUri(any(URI.class))).thenReturn(Syndication.VERIFY);
+        ResolvedPostMetadata postMetadata = new ResolvedPostMetadata(requestUri, null);
+        when(blogApiEndpointMetadataManager.resolve(requestUri)).thenReturn(postMetadata);
+        when(brandResolver.getBrandFor(postMetadata)).thenReturn(BRANDS);
+        when(identifierBuilder.buildIdentifiersFor(eq(postMetadata), any(Post.class))).thenReturn(IDENTIFIERS);
+        when(syndicationManager.getSyndicationFor(any(ResolvedPostMetadata.class))).thenReturn(Syndication.VERIFY);
         AUTHOR.setName(AUTHOR_NAME);
 
         when(bodyTransformer.transform(WRAPPED_BODY, TX_ID)).thenReturn(WRAPPED_BODY);
@@ -125,6 +132,23 @@ public class WordPressBlogPostContentTransformerTest {
                 is(equalTo(String.format(CANONICAL_WEB_URL_TEMPLATE, POST_UUID))));
     }
 
+    @Test
+    public void thatPostUriIsResolvedOncePerMapping() {
+        Post post = new Post();
+        post.setTitle(TITLE);
+        post.setDateGmt(PUBLISHED_DATE_STR);
+        post.setAuthors(Collections.singletonList(AUTHOR));
+        post.setUrl(POST_URL);
+        post.setContent(BODY_TEXT);
+        post.setExcerpt(BODY_OPENING);
+        post.setUuid(POST_UUID.toString());
+
+        mapper.mapWordPressArticle(TX_ID, post, LAST_MODIFIED);
+
+        verify(blogApiEndpointMetadataManager).resolve(UriBuilder.fromUri(POST_URL).build());
+        verify(blogApiEndpointMetadataManager, never()).getBlogApiEndpointMetadataByUri(any(URI.class));
+    }
+
     @Test
     public void thatBlogPostWithFeaturedImageIsTransformed()
             throws Exception {
@@ -4,9 +4,11 @@ import com.ft.content.model.Syndication;
 import com.ft.uuidutils.DeriveUUID;
 import com.ft.uuidutils.DeriveUUID.Salts;
 import com.ft.uuidutils.GenerateV5UUID;
+import com.ft.wordpressarticlemapper.configuration.BlogApiEndpointMetadataManager;
 import com.ft.wordpressarticlemapper.model.AccessLevel;
 import com.ft.wordpressarticlemapper.model.Brand;
 import com.ft.wordpressarticlemapper.model.Identifier;
+import com.ft.wordpressarticlemapper.model.ResolvedPostMetadata;
 import com.ft.wordpressarticlemapper.model.WordPressLiveBlogContent;
 import com.ft.wordpressarticlemapper.resources.BrandSystemResolver;
 import com.ft.wordpressarticlemapper.resources.IdentifierBuilder;
@@ -60,19 +62,22 @@ public class WordPressLiveBlogContentTransformerTest {
     private static final String CANONICAL_WEB_URL_TEMPLATE = "https://www.ft.com/content/%s";
 
     private WordPressLiveBlogContentMapper transformer;
+    private BlogApiEndpointMetadataManager blogApiEndpointMetadataManager = mock(BlogApiEndpointMetadataManager.class);
     private BrandSystemResolver brandResolver = mock(BrandSystemResolver.class);
     private IdentifierBuilder identifierBuilder = mock(IdentifierBuilder.class);
     private SyndicationManager syndicationManager = mock(SyndicationManager.class);
 
     @Before
     public void setUp() {
-        transformer = new WordPressLiveBlogContentMapper(brandResolver, identifierBuilder, syndicationManager,
+        transformer = new WordPressLiveBlogContentMapper(blogApiEndpointMetadataManager, brandResolver, identifierBuilder, syndicationManager,
                 CANONICAL_WEB_URL_TEMPLATE);
 
         URI requestUri = UriBuilder.fromUri(POST_URL).build();
-        when(brandResolver.getBrand(requestUri)).thenReturn(BRANDS);
-        when(identifierBuilder.buildIdentifiers(eq(requestUri), any(Post.class))).thenReturn(IDENTIFIERS);
-        when(syndicationManager.getSyndicationByUri(any(URI.class))).thenReturn(Syndication.VERIFY);
+        ResolvedPostMetadata postMetadata = new ResolvedPostMetadata(requestUri, null);
+        when(blogApiEndpointMetadataManager.resolve(requestUri)).thenReturn(postMetadata);
+        when(brandResolver.getBrandFor(postMetadata)).thenReturn(BRANDS);
+        when(identifierBuilder.buildIdentifiersFor(eq(postMetadata), any(Post.class))).thenReturn(IDENTIFIERS);
+        when(syndicationManager.getSyndicationFor(any(ResolvedPostMetadata.class))).thenReturn(Syndication.VERIFY);
         AUTHOR.setName(AUTHOR_NAME);
     }
 
@@ -0,0 +1,85 @@
+package com.ft.wordpressarticlemapper.transformer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class XmlFactoriesTest {
+
+    private XmlFactories xmlFactories;
+    private MetricRegistry metrics;
+
+    @Before
+    public void setUp() {
+        xmlFactories = new XmlFactories();
+        metrics = new MetricRegistry();
+        xmlFactories.registerMetrics(metrics);
+    }
+
+    @Test
+    public void thatDocumentBuilderAndTransformerAreReusedOnTheSameThread() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Document document = xmlFactories.parse("<body><p>Test " + i + "</p></body>");
+            assertThat(xmlFactories.serialize(document), is(equalTo("<body><p>Test " + i + "</p></body>")));
+        }
+
+        assertThat(gauge("document-builders", "created"), is(1L));
+        assertThat(gauge("document-builders", "uses"), is(3L));
+        assertThat(gauge("transformers", "created"), is(1L));
+        assertThat(gauge("transformers", "uses"), is(3L));
+    }
+
+    @Test
+    public void thatEachThreadGetsItsOwnDocumentBuilder() throws Exception {
+        xmlFactories.parse("<body/>");
+        CompletableFuture.runAsync(() -> {
+            try {
+                xmlFactories.parse("<body/>");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+
+        assertThat(gauge("document-builders", "created"), is(2L));
+    }
+
+    @Test
+    public void thatXPathExpressionsAreCompiledOncePerThread() throws Exception {
+        XPathExpression first = xmlFactories.xpath("//a");
+        XPathExpression second = xmlFactories.xpath("//a");
+        XPathExpression other = xmlFactories.xpath("//img");
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(other, is(not(sameInstance(first))));
+        assertThat(gauge("xpath-expressions", "compiled"), is(2L));
+        assertThat(gauge("xpath-expressions", "uses"), is(3L));
+    }
+
+    @Test
+    public void thatCompiledExpressionsEvaluateAgainstEachDocument() throws Exception {
+        Document oneLink = xmlFactories.parse("<body><a href=\"x\">x</a></body>");
+        Document twoLinks = xmlFactories.parse("<body><a href=\"x\">x</a><p><a href=\"y\">y</a></p></body>");
+
+        assertThat(xmlFactories.xpath("count(//a)").evaluate(oneLink, XPathConstants.NUMBER), is(1.0));
+        assertThat(xmlFactories.xpath("count(//a)").evaluate(twoLinks, XPathConstants.NUMBER), is(2.0));
+    }
+
+    private Object gauge(String kind, String counter) {
+        Gauge<?> gauge = metrics.getGauges().get(name(XmlFactories.class, kind, counter));
+        return gauge.getValue();
+    }
+}
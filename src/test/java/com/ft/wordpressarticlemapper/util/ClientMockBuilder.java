@@ -16,6 +16,8 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.MediaType;
@@ -26,6 +28,7 @@ import static javax.servlet.http.HttpServletResponse.SC_MOVED_TEMPORARILY;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -112,6 +115,31 @@ public class ClientMockBuilder {
         }
     }
 
+    public void mockBulkContentRead(Client contentReadClient, URI contentReadBulkUri, String hostHeader, int status, String... foundUuids) {
+        WebResource contentReadResource = mock(WebResource.class);
+        WebResource.Builder contentReadBuilder = mock(WebResource.Builder.class);
+
+        when(contentReadClient.resource(contentReadBulkUri)).thenReturn(contentReadResource);
+        when(contentReadResource.header("Host", hostHeader)).thenReturn(contentReadBuilder);
+        when(contentReadBuilder.type(MediaType.APPLICATION_JSON_TYPE)).thenReturn(contentReadBuilder);
+        when(contentReadBuilder.accept(MediaType.APPLICATION_JSON_TYPE)).thenReturn(contentReadBuilder);
+
+        ClientResponse contentReadResponse = mock(ClientResponse.class);
+        when(contentReadBuilder.post(eq(ClientResponse.class), any())).thenReturn(contentReadResponse);
+        when(contentReadResponse.getStatus()).thenReturn(status);
+        if (status == SC_OK) {
+            when(contentReadResponse.getEntityInputStream())
+                    .thenAnswer((Answer<InputStream>) invocation -> buildBulkResponseInputStream(foundUuids));
+        }
+    }
+
+    private InputStream buildBulkResponseInputStream(String... uuids) {
+        String contentReadOutput = Arrays.stream(uuids)
+                .map(uuid -> String.format(contentReadOutputTemplate, uuid, uuid, uuid))
+                .collect(Collectors.joining(",", "[", "]"));
+        return new ByteArrayInputStream(contentReadOutput.getBytes(StandardCharsets.UTF_8));
+    }
+
     private InputStream buildResponseInputStream(String uuid) {
         String contentReadOutput = String.format(contentReadOutputTemplate, uuid, uuid, uuid);
         return new ByteArrayInputStream(contentReadOutput.getBytes(StandardCharsets.UTF_8));